@@ -0,0 +1,70 @@
+package com.paypalclone.featheredoofbird.auth;
+
+import com.paypalclone.featheredoofbird.auth.localjwt.LocalJwtAuthenticationStrategy;
+import com.paypalclone.featheredoofbird.auth.localjwt.LocalJwtTokenIssuer;
+import com.paypalclone.featheredoofbird.identity.domain.User;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import com.paypalclone.featheredoofbird.shared.config.TestAppConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/**
+ * Per-request cost of turning a local-jwt bearer token into an authentication: HMAC verification,
+ * claim parsing, validation and authority mapping, against a hit in {@link ValidatedJwtCache}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatedJwtCacheBenchmark {
+
+    private String token;
+    private JwtDecoder decoder;
+    private Converter<Jwt, ? extends AbstractAuthenticationToken> converter;
+    private JwtDecoder cachedDecoder;
+    private Converter<Jwt, AbstractAuthenticationToken> cachedConverter;
+
+    @Setup
+    public void setUp() {
+        AppConfig appConfig = TestAppConfig.defaults();
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("benchmark@example.com");
+        token = new LocalJwtTokenIssuer(appConfig).issueToken(user).accessToken();
+
+        LocalJwtAuthenticationStrategy strategy = new LocalJwtAuthenticationStrategy(appConfig);
+        decoder = strategy.jwtDecoder();
+        converter = strategy.jwtAuthenticationConverter();
+
+        ValidatedJwtCache cache = new ValidatedJwtCache(appConfig, new SimpleMeterRegistry());
+        cachedDecoder = cache.decoder(strategy.jwtDecoder());
+        cachedConverter = cache.converter(strategy.jwtAuthenticationConverter());
+        cachedConverter.convert(cachedDecoder.decode(token));
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken uncached() {
+        return converter.convert(decoder.decode(token));
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken cached() {
+        return cachedConverter.convert(cachedDecoder.decode(token));
+    }
+}
@@ -0,0 +1,96 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.Decimal128;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Costs of the {@link BigDecimal} operations that every transaction amount goes through: parsing,
+ * normalising to the two-decimal column scale, rendering, summing and the BSON {@code Decimal128}
+ * round trip.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionAmountBenchmark {
+
+    private static final int PAGE = 100;
+
+    private String text;
+    private BigDecimal amount;
+    private BigDecimal unscaled;
+    private Decimal128 decimal128;
+    private List<BigDecimal> amounts;
+
+    @Setup
+    public void setUp() {
+        text = "12345.67";
+        amount = new BigDecimal(text);
+        unscaled = new BigDecimal("12345.6");
+        decimal128 = new Decimal128(amount);
+        amounts =
+                TransactionFixtures.transactions(PAGE).stream()
+                        .map(Transaction::getAmount)
+                        .toList();
+    }
+
+    @Benchmark
+    public BigDecimal parse() {
+        return new BigDecimal(text);
+    }
+
+    @Benchmark
+    public BigDecimal setScale() {
+        return unscaled.setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    @Benchmark
+    public String toPlainString() {
+        return amount.toPlainString();
+    }
+
+    /** {@code toString} caches its result inside the {@code BigDecimal} after the first call. */
+    @Benchmark
+    public String toStringCached() {
+        return amount.toString();
+    }
+
+    @Benchmark
+    public boolean isPositive() {
+        return amount.signum() > 0;
+    }
+
+    @Benchmark
+    public BigDecimal sumPage() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal value : amounts) {
+            total = total.add(value);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Decimal128 toDecimal128() {
+        return new Decimal128(amount);
+    }
+
+    @Benchmark
+    public BigDecimal fromDecimal128() {
+        return decimal128.bigDecimalValue();
+    }
+}
@@ -0,0 +1,32 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/** Deterministic, realistic-looking transactions shared by the benchmarks. */
+public final class TransactionFixtures {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private TransactionFixtures() {}
+
+    public static Transaction transaction(long id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setSender("sender-" + (id % 97));
+        transaction.setReceiver("receiver-" + (id % 89));
+        transaction.setAmount(BigDecimal.valueOf(id * 137 % 1_000_000 + 1, 2));
+        transaction.setCurrency("USD");
+        transaction.setDescription("Invoice " + id);
+        transaction.setCreatedAt(EPOCH.plusSeconds(id).plusNanos(id % 1000 * 1_000_000));
+        transaction.setUpdatedAt(transaction.getCreatedAt());
+        transaction.setStatus(Transaction.TransactionStatus.values()[(int) (id % 4)]);
+        return transaction;
+    }
+
+    public static List<Transaction> transactions(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(TransactionFixtures::transaction).toList();
+    }
+}
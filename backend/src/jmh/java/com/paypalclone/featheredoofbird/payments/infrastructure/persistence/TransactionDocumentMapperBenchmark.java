@@ -0,0 +1,62 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionFixtures;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link TransactionDocumentMapper} in both directions. Run with the {@code gc}
+ * profiler (the {@code jmh} profile enables it) and read {@code gc.alloc.rate.norm} for the bytes
+ * allocated per mapped object.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionDocumentMapperBenchmark {
+
+    private static final int PAGE = 100;
+
+    private final TransactionDocumentMapper mapper = new TransactionDocumentMapper();
+
+    private Transaction transaction;
+    private TransactionDocument document;
+    private List<TransactionDocument> documents;
+
+    @Setup
+    public void setUp() {
+        transaction = TransactionFixtures.transaction(42);
+        document = mapper.toDocument(transaction);
+        documents =
+                TransactionFixtures.transactions(PAGE).stream().map(mapper::toDocument).toList();
+    }
+
+    @Benchmark
+    public Transaction toEntity() {
+        return mapper.toEntity(document);
+    }
+
+    @Benchmark
+    public TransactionDocument toDocument() {
+        return mapper.toDocument(transaction);
+    }
+
+    /** Mapping one page of Mongo results, as every list endpoint does. */
+    @Benchmark
+    public List<Transaction> toEntityPage() {
+        return documents.stream().map(mapper::toEntity).toList();
+    }
+}
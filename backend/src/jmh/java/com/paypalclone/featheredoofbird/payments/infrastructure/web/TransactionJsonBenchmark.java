@@ -0,0 +1,74 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionFixtures;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson serialization of transaction lists with the same defaults Spring MVC applies, for list
+ * sizes from a single lookup to a large page or export chunk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionJsonBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private ObjectWriter listWriter;
+    private List<Transaction> transactions;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        listWriter =
+                objectMapper.writerFor(
+                        objectMapper
+                                .getTypeFactory()
+                                .constructCollectionType(List.class, Transaction.class));
+        transactions = TransactionFixtures.transactions(size);
+        json = listWriter.writeValueAsBytes(transactions);
+    }
+
+    /** Buffers the whole body, as {@code ResponseEntity<List<Transaction>>} does. */
+    @Benchmark
+    public byte[] serializeToBytes() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(transactions);
+    }
+
+    /** Writes straight to the response stream without an intermediate buffer. */
+    @Benchmark
+    public void serializeToStream() throws IOException {
+        listWriter.writeValue(sink, transactions);
+    }
+
+    @Benchmark
+    public List<Transaction> deserialize() throws IOException {
+        return objectMapper.readerForListOf(Transaction.class).readValue(json);
+    }
+}
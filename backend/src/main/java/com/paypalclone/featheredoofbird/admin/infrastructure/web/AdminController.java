@@ -1,18 +1,122 @@
 package com.paypalclone.featheredoofbird.admin.infrastructure.web;
 
+import com.paypalclone.featheredoofbird.payments.application.RebuildAlreadyRunningException;
+import com.paypalclone.featheredoofbird.payments.application.TransactionDriftService;
+import com.paypalclone.featheredoofbird.payments.application.TransactionRebuildProgress;
+import com.paypalclone.featheredoofbird.payments.application.TransactionRebuildService;
+import com.paypalclone.featheredoofbird.payments.application.TransactionVolumeService;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionDriftReport;
+import com.paypalclone.featheredoofbird.shared.observability.SlowQueryLog;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/api/admin")
+@RequiredArgsConstructor
 public class AdminController {
 
+    private final TransactionRebuildService transactionRebuildService;
+    private final TransactionDriftService transactionDriftService;
+    private final TransactionVolumeService transactionVolumeService;
+    private final SlowQueryLog slowQueryLog;
+
     @PreAuthorize("hasAuthority('SCOPE_admin:all')")
     @GetMapping("/status")
     public Map<String, Object> status() {
         return Map.of("status", "ok");
     }
+
+    /**
+     * The slowest Postgres and Mongo query shapes this node has run since it started or was last
+     * cleared, slowest first. Each entry aggregates the executions above the configured threshold.
+     */
+    @PreAuthorize("hasAuthority('SCOPE_admin:all')")
+    @GetMapping("/slow-queries")
+    public List<SlowQueryLog.SlowQuery> slowQueries() {
+        return slowQueryLog.top();
+    }
+
+    @PreAuthorize("hasAuthority('SCOPE_admin:all')")
+    @DeleteMapping("/slow-queries")
+    public ResponseEntity<Void> clearSlowQueries() {
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Rebuilds the Mongo transactions read model from Postgres in the background, resuming the
+     * previous run if it did not complete. Poll {@code GET} on the same path for progress.
+     */
+    @PreAuthorize("hasAuthority('SCOPE_admin:all')")
+    @PostMapping("/transactions/rebuild")
+    public ResponseEntity<TransactionRebuildProgress> startTransactionRebuild() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(transactionRebuildService.start());
+    }
+
+    @PreAuthorize("hasAuthority('SCOPE_admin:all')")
+    @GetMapping("/transactions/rebuild")
+    public ResponseEntity<TransactionRebuildProgress> transactionRebuildProgress() {
+        return transactionRebuildService
+                .progress()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Compares the Mongo read model against Postgres now and, if repair is enabled, queues
+     * differing ids for re-projection. Responds 409 if another node is running a check.
+     */
+    @PreAuthorize("hasAuthority('SCOPE_admin:all')")
+    @PostMapping("/transactions/drift")
+    public ResponseEntity<TransactionDriftReport> verifyTransactionDrift() {
+        return transactionDriftService
+                .verify()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @PreAuthorize("hasAuthority('SCOPE_admin:all')")
+    @GetMapping("/transactions/drift")
+    public ResponseEntity<TransactionDriftReport> lastTransactionDriftReport() {
+        return transactionDriftService
+                .lastReport()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Recomputes the daily volume rollups of {@code [from, to]} from the read model. Use it to seed
+     * rollups for existing data or to repair days reported by a failed rollup update.
+     */
+    @PreAuthorize("hasAuthority('SCOPE_admin:all')")
+    @PostMapping("/transactions/rollups/backfill")
+    public ResponseEntity<Map<String, Object>> backfillTransactionRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        long rollups = transactionVolumeService.backfill(from, to);
+        return ResponseEntity.ok(Map.of("from", from, "to", to, "rollups", rollups));
+    }
+
+    @ExceptionHandler(RebuildAlreadyRunningException.class)
+    public ResponseEntity<Map<String, String>> handleRebuildAlreadyRunning(
+            RebuildAlreadyRunningException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", exception.getMessage()));
+    }
 }
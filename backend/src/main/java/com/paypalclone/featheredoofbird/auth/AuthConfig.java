@@ -1,16 +1,17 @@
 package com.paypalclone.featheredoofbird.auth;
 
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 
 @Configuration
 public class AuthConfig {
 
     @Bean
     @ConditionalOnMissingBean
-    JwtDecoderFactory jwtDecoderFactory() {
-        return issuerUri -> NimbusJwtDecoder.withIssuerLocation(issuerUri).build();
+    JwtDecoderFactory jwtDecoderFactory(AppConfig appConfig, MeterRegistry meterRegistry) {
+        return new JwksJwtDecoderFactory(appConfig.auth().jwks(), meterRegistry);
     }
 }
@@ -0,0 +1,123 @@
+package com.paypalclone.featheredoofbird.auth;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSetCacheRefreshEvaluator;
+import com.nimbusds.jose.jwk.source.JWKSetSource;
+import com.nimbusds.jose.jwk.source.URLBasedJWKSetSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import com.nimbusds.jose.util.ResourceRetriever;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches the JWK set of an issuer, locating it through the issuer's metadata on first use.
+ *
+ * <p>Discovery tries {@code /.well-known/openid-configuration} under the issuer and then the RFC
+ * 8414 {@code /.well-known/oauth-authorization-server} location, and requires the metadata to name
+ * the same issuer. Both happen on the first fetch rather than at startup, so an issuer that is down
+ * while the application starts only delays key retrieval. Each fetch is timed in {@code
+ * auth.jwks.fetches}, tagged {@code outcome=success|failure}.
+ */
+final class IssuerJwkSetSource implements JWKSetSource<SecurityContext> {
+
+    private final String issuerUri;
+    private final ResourceRetriever retriever;
+    private final Timer successes;
+    private final Timer failures;
+
+    private volatile JWKSetSource<SecurityContext> keys;
+
+    IssuerJwkSetSource(String issuerUri, ResourceRetriever retriever, MeterRegistry meterRegistry) {
+        this.issuerUri = issuerUri;
+        this.retriever = retriever;
+        this.successes = fetchTimer(meterRegistry, "success");
+        this.failures = fetchTimer(meterRegistry, "failure");
+    }
+
+    @Override
+    public JWKSet getJWKSet(
+            JWKSetCacheRefreshEvaluator refreshEvaluator, long currentTime, SecurityContext context)
+            throws KeySourceException {
+        long start = System.nanoTime();
+        Timer outcome = failures;
+        try {
+            JWKSet jwkSet = keys().getJWKSet(refreshEvaluator, currentTime, context);
+            outcome = successes;
+            return jwkSet;
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        JWKSetSource<SecurityContext> current = keys;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private JWKSetSource<SecurityContext> keys() throws KeySourceException {
+        JWKSetSource<SecurityContext> current = keys;
+        if (current == null) {
+            current = new URLBasedJWKSetSource<>(discoverJwkSetUri(), retriever);
+            keys = current;
+        }
+        return current;
+    }
+
+    private URL discoverJwkSetUri() throws KeySourceException {
+        Exception lastFailure = null;
+        for (URI location : metadataLocations(issuerUri)) {
+            Map<String, Object> metadata;
+            try {
+                metadata =
+                        JSONObjectUtils.parse(
+                                retriever.retrieveResource(location.toURL()).getContent());
+            } catch (IOException | ParseException | IllegalArgumentException e) {
+                lastFailure = e;
+                continue;
+            }
+            try {
+                if (!issuerUri.equals(JSONObjectUtils.getString(metadata, "issuer"))) {
+                    throw new KeySourceException(
+                            "Metadata at " + location + " names a different issuer");
+                }
+                URI jwkSetUri = JSONObjectUtils.getURI(metadata, "jwks_uri");
+                if (jwkSetUri == null) {
+                    throw new KeySourceException("Metadata at " + location + " has no jwks_uri");
+                }
+                return jwkSetUri.toURL();
+            } catch (ParseException | IOException | IllegalArgumentException e) {
+                throw new KeySourceException("Invalid metadata at " + location, e);
+            }
+        }
+        throw new KeySourceException(
+                "Could not retrieve the metadata of issuer " + issuerUri, lastFailure);
+    }
+
+    /** OpenID Connect location first, then RFC 8414 (well-known segment before the path). */
+    static List<URI> metadataLocations(String issuerUri) {
+        URI issuer = URI.create(issuerUri);
+        String path = issuer.getPath() == null ? "" : issuer.getPath().replaceAll("/$", "");
+        return List.of(
+                issuer.resolve(path + "/.well-known/openid-configuration"),
+                issuer.resolve("/.well-known/oauth-authorization-server" + path));
+    }
+
+    private static Timer fetchTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(JwksJwtDecoderFactory.FETCHES)
+                .description("JWK set fetches from the issuer")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
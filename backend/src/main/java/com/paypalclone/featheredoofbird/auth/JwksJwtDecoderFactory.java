@@ -0,0 +1,214 @@
+package com.paypalclone.featheredoofbird.auth;
+
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.CachingJWKSetSource;
+import com.nimbusds.jose.jwk.source.JWKSetBasedJWKSource;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.jwk.source.OutageTolerantJWKSetSource;
+import com.nimbusds.jose.jwk.source.RateLimitReachedException;
+import com.nimbusds.jose.jwk.source.RefreshAheadCachingJWKSetSource;
+import com.nimbusds.jose.proc.DefaultJOSEObjectTypeVerifier;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.events.Event;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+/**
+ * Builds decoders for external issuers whose signing keys are cached in process, so that key
+ * retrieval stays off the request path.
+ *
+ * <p>Keys come from an {@link IssuerJwkSetSource} behind Nimbus' caching chain:
+ *
+ * <ul>
+ *   <li>the key set is cached for {@code app.auth.jwks.ttl} and refreshed in the background {@code
+ *       refresh-ahead} before it expires, so requests keep using the current set while it is
+ *       renewed;
+ *   <li>a token whose {@code kid} is not in the set forces a refresh, at most once per {@code
+ *       unknown-kid-refresh-interval}; further unknown kids in that interval are rejected as
+ *       invalid tokens without contacting the issuer;
+ *   <li>while the issuer is unreachable the last key set is served for up to {@code max-stale}.
+ * </ul>
+ *
+ * <p>Each decoder fetches its key set in the background as soon as it is built. Meters: {@code
+ * auth.jwks.lookups} (key lookups, tagged {@code result=hit} when served from the cache and {@code
+ * miss} when the request fetched or waited for a fetch), {@code auth.jwks.fetches} (issuer requests
+ * by outcome) and {@code auth.jwks.events} ({@code scheduled-refresh}, {@code refresh-failed},
+ * {@code refresh-timed-out}, {@code rate-limited}, {@code stale-served}).
+ */
+@Slf4j
+public class JwksJwtDecoderFactory implements JwtDecoderFactory, Closeable {
+
+    static final String LOOKUPS = "auth.jwks.lookups";
+    static final String FETCHES = "auth.jwks.fetches";
+    static final String EVENTS = "auth.jwks.events";
+
+    /** Asymmetric algorithms only: the key set is public, so it must never verify an HMAC. */
+    private static final Set<JWSAlgorithm> ALGORITHMS = algorithms();
+
+    private static final DefaultJOSEObjectTypeVerifier<SecurityContext> TYPES =
+            new DefaultJOSEObjectTypeVerifier<>(
+                    JOSEObjectType.JWT, new JOSEObjectType("at+jwt"), null);
+
+    private final AppConfig.Jwks config;
+    private final MeterRegistry meterRegistry;
+    private final Counter hits;
+    private final Counter misses;
+    private final List<Closeable> sources = new CopyOnWriteArrayList<>();
+
+    public JwksJwtDecoderFactory(AppConfig.Jwks config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.hits = lookupCounter("hit");
+        this.misses = lookupCounter("miss");
+    }
+
+    @Override
+    public NimbusJwtDecoder create(String issuerUri) {
+        JWKSetBasedJWKSource<SecurityContext> keys = jwkSource(issuerUri);
+        sources.add(keys);
+        Thread.ofVirtual()
+                .name("jwks-prefetch")
+                .start(
+                        () -> {
+                            try {
+                                keys.get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+                            } catch (KeySourceException e) {
+                                log.warn(
+                                        "JWK set of {} not available yet; retrying on first use",
+                                        issuerUri,
+                                        e);
+                            }
+                        });
+
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(ALGORITHMS, counted(keys)));
+        processor.setJWSTypeVerifier(TYPES);
+        // Claims are checked by the Spring validators each strategy sets on the decoder.
+        processor.setJWTClaimsSetVerifier((claims, context) -> {});
+        return new NimbusJwtDecoder(processor);
+    }
+
+    /** Stops the background refreshes. */
+    @Override
+    public void close() throws IOException {
+        for (Closeable source : sources) {
+            source.close();
+        }
+    }
+
+    JWKSetBasedJWKSource<SecurityContext> jwkSource(String issuerUri) {
+        DefaultResourceRetriever retriever =
+                new DefaultResourceRetriever(
+                        (int) config.connectTimeout().toMillis(),
+                        (int) config.readTimeout().toMillis(),
+                        JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT);
+        return (JWKSetBasedJWKSource<SecurityContext>)
+                JWKSourceBuilder.create(new IssuerJwkSetSource(issuerUri, retriever, meterRegistry))
+                        .cache(
+                                config.ttl().toMillis(),
+                                config.refreshTimeout().toMillis(),
+                                this::onCacheEvent)
+                        .refreshAheadCache(
+                                config.refreshAhead().toMillis(), true, this::onCacheEvent)
+                        .rateLimited(
+                                config.unknownKidRefreshInterval().toMillis(),
+                                event -> count("rate-limited"))
+                        .outageTolerant(config.maxStale().toMillis(), this::onOutage)
+                        .retrying(false)
+                        .build();
+    }
+
+    /**
+     * Tags each lookup as a hit or a miss through a per-lookup context, which the cache hands to
+     * the events of a refresh that the lookup starts or waits for.
+     */
+    private JWKSource<SecurityContext> counted(JWKSource<SecurityContext> keys) {
+        return (selector, context) -> {
+            Lookup lookup = new Lookup();
+            try {
+                return keys.get(selector, lookup);
+            } catch (RateLimitReachedException e) {
+                // No key matches and refreshing is throttled: the token is rejected as invalid.
+                return List.<JWK>of();
+            } finally {
+                (lookup.fetched ? misses : hits).increment();
+            }
+        };
+    }
+
+    private void onCacheEvent(Event<CachingJWKSetSource<SecurityContext>, SecurityContext> event) {
+        if (event instanceof CachingJWKSetSource.RefreshInitiatedEvent<?>
+                || event instanceof CachingJWKSetSource.WaitingForRefreshEvent<?>) {
+            if (event.getContext() instanceof Lookup lookup) {
+                lookup.fetched = true;
+            }
+        } else if (event
+                instanceof RefreshAheadCachingJWKSetSource.ScheduledRefreshInitiatedEvent<?>) {
+            count("scheduled-refresh");
+        } else if (event instanceof CachingJWKSetSource.UnableToRefreshEvent<?>
+                || event instanceof RefreshAheadCachingJWKSetSource.ScheduledRefreshFailed<?>
+                || event
+                        instanceof
+                        RefreshAheadCachingJWKSetSource.UnableToRefreshAheadOfExpirationEvent<?>) {
+            count("refresh-failed");
+        } else if (event instanceof CachingJWKSetSource.RefreshTimedOutEvent<?>) {
+            count("refresh-timed-out");
+        }
+    }
+
+    private void onOutage(
+            Event<OutageTolerantJWKSetSource<SecurityContext>, SecurityContext> event) {
+        count("stale-served");
+        if (event instanceof OutageTolerantJWKSetSource.OutageEvent<?> outage) {
+            log.warn(
+                    "JWK set refresh failed, serving the cached set for up to {} ms more",
+                    outage.getRemainingTime(),
+                    outage.getException());
+        }
+    }
+
+    private void count(String event) {
+        Counter.builder(EVENTS)
+                .description("JWK set cache events")
+                .tag("event", event)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Counter lookupCounter(String result) {
+        return Counter.builder(LOOKUPS)
+                .description("Signing key lookups against the cached JWK set")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Set<JWSAlgorithm> algorithms() {
+        Set<JWSAlgorithm> algorithms = new HashSet<>(JWSAlgorithm.Family.RSA);
+        algorithms.addAll(JWSAlgorithm.Family.EC);
+        return Set.copyOf(algorithms);
+    }
+
+    /** Per-lookup context; marked when the lookup had to fetch or wait for the key set. */
+    private static final class Lookup implements SecurityContext {
+
+        private volatile boolean fetched;
+    }
+}
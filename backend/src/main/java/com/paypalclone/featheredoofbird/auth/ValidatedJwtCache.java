@@ -0,0 +1,144 @@
+package com.paypalclone.featheredoofbird.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-process cache of bearer tokens that passed validation, so that a token reused across
+ * requests is verified and converted once rather than on every request.
+ *
+ * <p>Entries are keyed by a SHA-256 digest of the token, so the cache never holds a usable
+ * credential, and expire at the token's {@code exp}. Tokens without an expiry, and tokens that fail
+ * validation, are never cached. The cache wraps whatever decoder and converter the active {@link
+ * AuthenticationStrategy} provides; a token's validity only depends on its signature and claims, so
+ * a hit skips the signature check, claim parsing and validators. Authorities are cached alongside
+ * the {@link Jwt} and each request gets a fresh {@link JwtAuthenticationToken}, because Spring
+ * Security mutates the authentication it is given. Hit, miss and eviction counts are published as
+ * {@code cache.*} meters tagged {@code cache=auth.validated-jwt}.
+ *
+ * <p>A cached token stays accepted until it expires even if the signing key is rotated out in the
+ * meantime, just as a stateless resource server would accept it from a not-yet-refreshed key set.
+ */
+@Component
+public class ValidatedJwtCache {
+
+    static final String CACHE_NAME = "auth.validated-jwt";
+
+    private final Cache<String, Entry> cache;
+
+    public ValidatedJwtCache(AppConfig appConfig, MeterRegistry meterRegistry) {
+        AppConfig.TokenCache config = appConfig.auth().tokenCache();
+        if (config.enabled()) {
+            cache =
+                    Caffeine.newBuilder()
+                            .maximumSize(config.maximumSize())
+                            .expireAfter(
+                                    Expiry.creating(
+                                            (String digest, Entry entry) -> timeToLive(entry.jwt)))
+                            .recordStats()
+                            .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        } else {
+            cache = null;
+        }
+    }
+
+    /** Decodes through {@code delegate} on a miss; validation failures propagate uncached. */
+    public JwtDecoder decoder(JwtDecoder delegate) {
+        if (cache == null) {
+            return delegate;
+        }
+        return token -> {
+            String digest = digest(token);
+            Entry cached = cache.getIfPresent(digest);
+            if (cached != null) {
+                return cached.jwt;
+            }
+            Jwt jwt = delegate.decode(token);
+            Instant expiresAt = jwt.getExpiresAt();
+            if (expiresAt != null && expiresAt.isAfter(Instant.now())) {
+                cache.put(digest, new Entry(jwt));
+            }
+            return jwt;
+        };
+    }
+
+    /**
+     * Converts through {@code delegate} once per cached token. Results other than a {@link
+     * JwtAuthenticationToken} are not cached.
+     */
+    public Converter<Jwt, AbstractAuthenticationToken> converter(
+            Converter<Jwt, ? extends AbstractAuthenticationToken> delegate) {
+        if (cache == null) {
+            return delegate::convert;
+        }
+        return jwt -> {
+            Entry cached = cache.getIfPresent(digest(jwt.getTokenValue()));
+            Authorities authorities = cached != null ? cached.authorities : null;
+            if (authorities != null) {
+                return new JwtAuthenticationToken(jwt, authorities.granted(), authorities.name());
+            }
+            AbstractAuthenticationToken authentication = delegate.convert(jwt);
+            if (cached != null && authentication instanceof JwtAuthenticationToken token) {
+                cached.authorities = new Authorities(token.getAuthorities(), token.getName());
+            }
+            return authentication;
+        };
+    }
+
+    long size() {
+        if (cache == null) {
+            return 0;
+        }
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static Duration timeToLive(Jwt jwt) {
+        Duration remaining = Duration.between(Instant.now(), jwt.getExpiresAt());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private static String digest(String token) {
+        try {
+            return HexFormat.of()
+                    .formatHex(
+                            MessageDigest.getInstance("SHA-256")
+                                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Authorities(Collection<GrantedAuthority> granted, String name) {}
+
+    private static final class Entry {
+
+        private final Jwt jwt;
+
+        /** Set by the first conversion; racing conversions compute the same value. */
+        private volatile Authorities authorities;
+
+        private Entry(Jwt jwt) {
+            this.jwt = jwt;
+        }
+    }
+}
@@ -4,11 +4,28 @@ import com.paypalclone.featheredoofbird.identity.domain.Role;
 import com.paypalclone.featheredoofbird.identity.domain.User;
 import com.paypalclone.featheredoofbird.identity.domain.UserStatus;
 import com.paypalclone.featheredoofbird.identity.infrastructure.persistence.UserRepository;
+import java.time.LocalDateTime;
 import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.ConstraintViolationException.ConstraintKind;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Registration, login and token refresh against the local user table.
+ *
+ * <p>Each returns an access token and a refresh token. {@link #refresh} exchanges the latter
+ * without checking the password, so clients renew expired access tokens without another bcrypt
+ * verification.
+ *
+ * <p>No operation runs in a transaction: each repository call has its own, so that no pooled
+ * database connection is held while the password is hashed, which can include waiting for a slot on
+ * the hashing pool during a login storm.
+ */
+@Slf4j
 @Service
 @ConditionalOnProperty(name = "auth.provider", havingValue = "local-jwt", matchIfMissing = true)
 public class AuthService {
@@ -16,32 +33,43 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordHasher passwordHasher;
     private final TokenIssuer tokenIssuer;
+    private final RefreshTokenService refreshTokenService;
 
     public AuthService(
-            UserRepository userRepository, PasswordHasher passwordHasher, TokenIssuer tokenIssuer) {
+            UserRepository userRepository,
+            PasswordHasher passwordHasher,
+            TokenIssuer tokenIssuer,
+            RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.passwordHasher = passwordHasher;
         this.tokenIssuer = tokenIssuer;
+        this.refreshTokenService = refreshTokenService;
     }
 
-    @Transactional
+    /**
+     * Inserts the user without checking the email first: the unique index on {@code lower(email)}
+     * rejects a duplicate, even one registered concurrently, in the same round trip.
+     */
     public AuthResult register(String email, String password, Role role) {
         String normalizedEmail = normalizeEmail(email);
-        if (userRepository.existsByEmailIgnoreCase(normalizedEmail)) {
-            throw new DuplicateEmailException(normalizedEmail);
-        }
-
         User user = new User();
         user.setEmail(normalizedEmail);
         user.setPasswordHash(passwordHasher.hash(password));
         user.setRole(role == null ? Role.PERSONAL : role);
         user.setStatus(UserStatus.ACTIVE);
 
-        User savedUser = userRepository.save(user);
-        return createAuthResult(savedUser);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new DuplicateEmailException(normalizedEmail);
+            }
+            throw e;
+        }
+        return createAuthResult(savedUser, refreshTokenService.issue(savedUser.getId()));
     }
 
-    @Transactional(readOnly = true)
     public AuthResult login(String email, String password) {
         User user =
                 userRepository
@@ -52,16 +80,53 @@ public class AuthService {
         if (!passwordHasher.matches(password, user.getPasswordHash())) {
             throw new InvalidCredentialsException();
         }
+        if (passwordHasher.needsRehash(user.getPasswordHash())) {
+            rehash(user, password);
+        }
+
+        return createAuthResult(user, refreshTokenService.issue(user.getId()));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token. A token can be
+     * exchanged once; the session also ends if its user is no longer active.
+     */
+    public AuthResult refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = userRepository.findById(rotation.userId()).filter(User::isActive).orElse(null);
+        if (user == null) {
+            refreshTokenService.revoke(rotation);
+            throw new InvalidRefreshTokenException();
+        }
+        return createAuthResult(user, refreshTokenService.issue(rotation));
+    }
 
-        return createAuthResult(user);
+    /**
+     * Upgrades a hash made with a lower work factor while the plain password is at hand. Failing to
+     * do so does not fail the login; the next login tries again.
+     */
+    private void rehash(User user, String password) {
+        try {
+            String newHash = passwordHasher.hash(password);
+            if (userRepository.replacePasswordHash(
+                            user.getId(), user.getPasswordHash(), newHash, LocalDateTime.now())
+                    == 1) {
+                user.setPasswordHash(newHash);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not rehash the password of user {}", user.getId(), e);
+        }
     }
 
-    private AuthResult createAuthResult(User user) {
+    private AuthResult createAuthResult(
+            User user, RefreshTokenService.IssuedRefreshToken refreshToken) {
         TokenIssuer.IssuedToken token = tokenIssuer.issueToken(user);
         return new AuthResult(
                 token.accessToken(),
                 "Bearer",
                 token.expiresAt(),
+                refreshToken.token(),
+                refreshToken.expiresAt(),
                 new AuthenticatedUser(
                         user.getId(),
                         user.getEmail(),
@@ -69,6 +134,13 @@ public class AuthService {
                         user.getStatus().name()));
     }
 
+    /** The email is the only unique column of {@code users} that an insert sets. */
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        return e instanceof DuplicateKeyException
+                || e.getCause() instanceof ConstraintViolationException violation
+                        && violation.getKind() == ConstraintKind.UNIQUE;
+    }
+
     private String normalizeEmail(String email) {
         return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
     }
@@ -77,6 +149,8 @@ public class AuthService {
             String accessToken,
             String tokenType,
             java.time.Instant expiresAt,
+            String refreshToken,
+            java.time.Instant refreshTokenExpiresAt,
             AuthenticatedUser user) {}
 
     public record AuthenticatedUser(Long id, String email, String role, String status) {}
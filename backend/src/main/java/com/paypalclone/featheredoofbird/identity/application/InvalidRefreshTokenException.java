@@ -0,0 +1,8 @@
+package com.paypalclone.featheredoofbird.identity.application;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException() {
+        super("Invalid or expired refresh token.");
+    }
+}
@@ -5,4 +5,7 @@ public interface PasswordHasher {
     String hash(String rawPassword);
 
     boolean matches(String rawPassword, String passwordHash);
+
+    /** Whether a hash was made with weaker settings than {@link #hash} now uses. */
+    boolean needsRehash(String passwordHash);
 }
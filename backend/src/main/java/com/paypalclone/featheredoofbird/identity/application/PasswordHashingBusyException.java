@@ -0,0 +1,18 @@
+package com.paypalclone.featheredoofbird.identity.application;
+
+import java.time.Duration;
+
+/** Thrown when the password hashing pool is saturated; the caller should retry later. */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingBusyException(Duration retryAfter) {
+        super("Too many sign-in requests, please retry shortly.");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
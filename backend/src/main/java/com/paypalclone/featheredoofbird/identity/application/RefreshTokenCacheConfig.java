@@ -0,0 +1,33 @@
+package com.paypalclone.featheredoofbird.identity.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+/**
+ * Redis settings for the optional refresh token front of {@link RefreshTokenService}. Entries live
+ * as long as the tokens they describe and are stored as plain JSON.
+ */
+@Configuration
+public class RefreshTokenCacheConfig {
+
+    @Bean
+    RedisCacheManagerBuilderCustomizer refreshTokenCache(
+            AppConfig appConfig, ObjectMapper objectMapper) {
+        RedisCacheConfiguration tokens =
+                RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(appConfig.auth().refreshTokens().ttl())
+                        .disableCachingNullValues()
+                        .serializeValuesWith(
+                                SerializationPair.fromSerializer(
+                                        new Jackson2JsonRedisSerializer<>(
+                                                objectMapper,
+                                                RefreshTokenService.StoredToken.class)));
+        return builder -> builder.withCacheConfiguration(RefreshTokenService.CACHE, tokens);
+    }
+}
@@ -0,0 +1,218 @@
+package com.paypalclone.featheredoofbird.identity.application;
+
+import com.paypalclone.featheredoofbird.identity.domain.RefreshToken;
+import com.paypalclone.featheredoofbird.identity.infrastructure.persistence.RefreshTokenRepository;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ *
+ * <p>A token is 256 random bits; only its SHA-256 digest is stored, which is enough for a value
+ * that cannot be guessed and keeps the lookup cheap, unlike a password hash. Each token is
+ * exchanged once: rotating it marks it used and its successor joins the same family. Presenting a
+ * token that was already exchanged means it was copied, so the whole family is revoked and the
+ * client has to log in again.
+ *
+ * <p>With {@code app.auth.refresh-tokens.redis-front} live tokens are cached in Redis under their
+ * digest, which saves the lookup of the row on a cache hit. Every refresh still writes Postgres:
+ * the conditional update in {@link RefreshTokenRepository#markRotated} decides whether a token may
+ * be used, so a stale entry cannot let a token be exchanged twice. A token that fails the update is
+ * re-read: a token whose family is already revoked, e.g. because its user was disabled, is just
+ * rejected, while a used token of a live family is a replay and revokes the family. Meter: {@code
+ * auth.token.refreshes}, tagged {@code outcome=rotated|reused|revoked|expired|invalid}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "auth.provider", havingValue = "local-jwt", matchIfMissing = true)
+public class RefreshTokenService implements SchedulingConfigurer {
+
+    public static final String CACHE = "auth.refresh-tokens";
+
+    static final String REFRESHES = "auth.token.refreshes";
+
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final AppConfig.RefreshTokens config;
+    private final Cache front;
+    private final MeterRegistry meterRegistry;
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            AppConfig appConfig,
+            CacheManager cacheManager,
+            MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.config = appConfig.auth().refreshTokens();
+        this.front = config.redisFront() ? cacheManager.getCache(CACHE) : null;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::purgeExpired, config.purgeInterval());
+    }
+
+    /** Starts a new token family for a user who just proved their password. */
+    public IssuedRefreshToken issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /** Issues the successor of a rotated token. */
+    public IssuedRefreshToken issue(Rotation rotation) {
+        return issue(rotation.userId(), rotation.familyId());
+    }
+
+    /**
+     * Marks the token as used and returns whom it belonged to.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked or was already
+     *     used; in the last case the token's family is revoked
+     */
+    public Rotation rotate(String token) {
+        String tokenHash = hash(token);
+        StoredToken stored = lookup(tokenHash);
+        if (stored == null) {
+            throw rejected("invalid");
+        }
+        if (!stored.expiresAt().isAfter(Instant.now())) {
+            throw rejected("expired");
+        }
+        if (refreshTokenRepository.markRotated(stored.id(), Instant.now()) != 1) {
+            evict(tokenHash);
+            RefreshToken current = refreshTokenRepository.findByTokenHash(tokenHash).orElse(null);
+            if (current == null) {
+                throw rejected("invalid");
+            }
+            if (current.getRevokedAt() != null) {
+                throw rejected("revoked");
+            }
+            refreshTokenRepository.revokeFamily(stored.familyId(), Instant.now());
+            log.warn(
+                    "Refresh token of user {} was used twice; revoked its token family",
+                    stored.userId());
+            throw rejected("reused");
+        }
+        evict(tokenHash);
+        count("rotated");
+        return new Rotation(stored.userId(), stored.familyId());
+    }
+
+    /** Revokes every token of the rotation's family, e.g. when its user was disabled. */
+    public void revoke(Rotation rotation) {
+        refreshTokenRepository.revokeFamily(rotation.familyId(), Instant.now());
+    }
+
+    public int purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpiredBefore(Instant.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired refresh tokens", purged);
+        }
+        return purged;
+    }
+
+    private IssuedRefreshToken issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setUserId(userId);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setExpiresAt(Instant.now().plus(config.ttl()));
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+
+        if (front != null) {
+            try {
+                front.put(saved.getTokenHash(), StoredToken.of(saved));
+            } catch (RuntimeException e) {
+                log.warn("Could not cache refresh token {}", saved.getId(), e);
+            }
+        }
+        return new IssuedRefreshToken(token, saved.getExpiresAt());
+    }
+
+    private StoredToken lookup(String tokenHash) {
+        if (front != null) {
+            try {
+                StoredToken cached = front.get(tokenHash, StoredToken.class);
+                if (cached != null) {
+                    return cached;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Refresh token cache read failed; falling back to Postgres", e);
+            }
+        }
+        return refreshTokenRepository.findByTokenHash(tokenHash).map(StoredToken::of).orElse(null);
+    }
+
+    private void evict(String tokenHash) {
+        if (front != null) {
+            try {
+                front.evict(tokenHash);
+            } catch (RuntimeException e) {
+                log.warn("Refresh token cache evict failed", e);
+            }
+        }
+    }
+
+    private InvalidRefreshTokenException rejected(String outcome) {
+        count(outcome);
+        return new InvalidRefreshTokenException();
+    }
+
+    private void count(String outcome) {
+        Counter.builder(REFRESHES)
+                .description("Refresh token exchanges by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    static String hash(String token) {
+        try {
+            return HexFormat.of()
+                    .formatHex(
+                            MessageDigest.getInstance("SHA-256")
+                                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record IssuedRefreshToken(String token, Instant expiresAt) {}
+
+    /** The owner and family of a token that was just exchanged. */
+    public record Rotation(Long userId, String familyId) {}
+
+    /** What a refresh needs to know about a stored token; also the Redis cache value. */
+    public record StoredToken(Long id, Long userId, String familyId, Instant expiresAt) {
+
+        static StoredToken of(RefreshToken refreshToken) {
+            return new StoredToken(
+                    refreshToken.getId(),
+                    refreshToken.getUserId(),
+                    refreshToken.getFamilyId(),
+                    refreshToken.getExpiresAt());
+        }
+    }
+}
@@ -1,25 +1,142 @@
 package com.paypalclone.featheredoofbird.identity.infrastructure.persistence;
 
 import com.paypalclone.featheredoofbird.identity.application.PasswordHasher;
+import com.paypalclone.featheredoofbird.identity.application.PasswordHashingBusyException;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+/**
+ * BCrypt hashing on a dedicated, bounded pool.
+ *
+ * <p>BCrypt is deliberately CPU-bound, so running it on request threads lets a login storm take
+ * every core from the transaction endpoints. Calls are queued to {@code
+ * app.auth.password-hashing.threads} platform threads instead, and the caller waits for the result.
+ * When {@code queue-capacity} calls are already waiting the call fails at once with {@link
+ * PasswordHashingBusyException}, which the API answers with 429 and {@code Retry-After}.
+ *
+ * <p>Meters: {@code auth.password.hashing.queue} (calls waiting), {@code
+ * auth.password.hashing.wait} (time queued), {@code auth.password.hashing.duration} (time hashing,
+ * tagged {@code operation=hash|matches}) and {@code auth.password.hashing.rejected}.
+ */
+@Slf4j
 @Component
 public class BCryptPasswordHasher implements PasswordHasher {
 
+    static final String QUEUE = "auth.password.hashing.queue";
+    static final String WAIT = "auth.password.hashing.wait";
+    static final String DURATION = "auth.password.hashing.duration";
+    static final String REJECTED = "auth.password.hashing.rejected";
+
     private final PasswordEncoder passwordEncoder;
+    private final Duration retryAfter;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer hashTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
 
-    public BCryptPasswordHasher(PasswordEncoder passwordEncoder) {
+    public BCryptPasswordHasher(
+            PasswordEncoder passwordEncoder, AppConfig appConfig, MeterRegistry meterRegistry) {
+        AppConfig.PasswordHashing config = appConfig.auth().passwordHashing();
         this.passwordEncoder = passwordEncoder;
+        this.retryAfter = config.retryAfter();
+        int threads = config.effectiveThreads();
+        this.executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        0,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(config.queueCapacity()),
+                        Thread.ofPlatform().name("password-hasher-", 0).daemon().factory());
+        Gauge.builder(QUEUE, executor, pool -> pool.getQueue().size())
+                .description("Password hashing calls waiting for a thread")
+                .register(meterRegistry);
+        this.waitTimer =
+                Timer.builder(WAIT)
+                        .description("Time password hashing calls spend queued")
+                        .register(meterRegistry);
+        this.hashTimer = durationTimer(meterRegistry, "hash");
+        this.matchesTimer = durationTimer(meterRegistry, "matches");
+        this.rejected =
+                Counter.builder(REJECTED)
+                        .description("Password hashing calls rejected because the queue was full")
+                        .register(meterRegistry);
+        log.info(
+                "Password hashing pool: {} threads, queue capacity {}",
+                threads,
+                config.queueCapacity());
     }
 
     @Override
     public String hash(String rawPassword) {
-        return passwordEncoder.encode(rawPassword);
+        return run(hashTimer, () -> passwordEncoder.encode(rawPassword));
     }
 
     @Override
     public boolean matches(String rawPassword, String passwordHash) {
-        return passwordEncoder.matches(rawPassword, passwordHash);
+        return run(matchesTimer, () -> passwordEncoder.matches(rawPassword, passwordHash));
+    }
+
+    /** Only compares the cost in the hash with the configured one, so it runs on the caller. */
+    @Override
+    public boolean needsRehash(String passwordHash) {
+        return passwordEncoder.upgradeEncoding(passwordHash);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Supplier<T> operation) {
+        long queuedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result =
+                    executor.submit(
+                            () -> {
+                                waitTimer.record(
+                                        System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                                return timer.record(operation);
+                            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException(retryAfter);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static Timer durationTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder(DURATION)
+                .description("Time spent computing password hashes")
+                .tag("operation", operation)
+                .register(meterRegistry);
     }
 }
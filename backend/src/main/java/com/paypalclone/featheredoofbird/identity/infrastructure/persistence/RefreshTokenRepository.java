@@ -0,0 +1,43 @@
+package com.paypalclone.featheredoofbird.identity.infrastructure.persistence;
+
+import com.paypalclone.featheredoofbird.identity.domain.RefreshToken;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marks the token as exchanged if it is still live. Returns 0 when it was already rotated or
+     * revoked, which makes the update the single point that decides whether a token may be used.
+     */
+    @Modifying
+    @Transactional
+    @Query(
+            """
+            update RefreshToken t set t.rotatedAt = :rotatedAt
+            where t.id = :id and t.rotatedAt is null and t.revokedAt is null
+            """)
+    int markRotated(Long id, Instant rotatedAt);
+
+    @Modifying
+    @Transactional
+    @Query(
+            """
+            update RefreshToken t set t.revokedAt = :revokedAt
+            where t.familyId = :familyId and t.revokedAt is null
+            """)
+    int revokeFamily(String familyId, Instant revokedAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken t where t.expiresAt < :cutoff")
+    int deleteExpiredBefore(Instant cutoff);
+}
@@ -0,0 +1,32 @@
+package com.paypalclone.featheredoofbird.identity.infrastructure.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the unique index on {@code lower(email)} of {@code users}.
+ *
+ * <p>JPA cannot declare an expression index, so this runs once at startup, after Hibernate has
+ * updated the schema. The index keeps emails unique regardless of case, which lets registration be
+ * a single insert that fails on a duplicate, and it serves {@link
+ * UserRepository#findByEmailIgnoreCase}. Creating it fails if two existing emails differ only in
+ * case; those accounts have to be merged first.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class UserEmailIndex implements InitializingBean {
+
+    static final String NAME = "ux_users_email_lower";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute(
+                "create unique index if not exists " + NAME + " on users (lower(email))");
+    }
+}
@@ -1,14 +1,34 @@
 package com.paypalclone.featheredoofbird.identity.infrastructure.persistence;
 
 import com.paypalclone.featheredoofbird.identity.domain.User;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    boolean existsByEmailIgnoreCase(String email);
-
+    /**
+     * Compares {@code lower(email)} rather than the {@code upper()} of a derived {@code IgnoreCase}
+     * query, so that {@link UserEmailIndex} serves the lookup.
+     */
+    @Query("select u from User u where lower(u.email) = lower(:email)")
     Optional<User> findByEmailIgnoreCase(String email);
+
+    /**
+     * Replaces the password hash only if it is still {@code currentHash}, so that a rehash never
+     * overwrites a password changed in the meantime. Returns the number of rows updated.
+     */
+    @Modifying
+    @Transactional
+    @Query(
+            """
+            update User u set u.passwordHash = :newHash, u.updatedAt = :updatedAt
+            where u.id = :id and u.passwordHash = :currentHash
+            """)
+    int replacePasswordHash(Long id, String currentHash, String newHash, LocalDateTime updatedAt);
 }
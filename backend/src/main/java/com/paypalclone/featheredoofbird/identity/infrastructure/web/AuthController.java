@@ -3,12 +3,15 @@ package com.paypalclone.featheredoofbird.identity.infrastructure.web;
 import com.paypalclone.featheredoofbird.identity.application.AuthService;
 import com.paypalclone.featheredoofbird.identity.application.DuplicateEmailException;
 import com.paypalclone.featheredoofbird.identity.application.InvalidCredentialsException;
+import com.paypalclone.featheredoofbird.identity.application.InvalidRefreshTokenException;
+import com.paypalclone.featheredoofbird.identity.application.PasswordHashingBusyException;
 import com.paypalclone.featheredoofbird.identity.domain.Role;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -42,6 +45,12 @@ public class AuthController {
         return ResponseEntity.ok(authService.login(request.email(), request.password()));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthService.AuthResult> refresh(
+            @Valid @RequestBody RefreshRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.refreshToken()));
+    }
+
     @ExceptionHandler(DuplicateEmailException.class)
     public ResponseEntity<ErrorResponse> handleDuplicateEmail(DuplicateEmailException exception) {
         return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -55,6 +64,23 @@ public class AuthController {
                 .body(new ErrorResponse(exception.getMessage()));
     }
 
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRefreshToken(
+            InvalidRefreshTokenException exception) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse(exception.getMessage()));
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingBusy(
+            PasswordHashingBusyException exception) {
+        // Retry-After takes whole seconds; round up so clients never retry early.
+        long seconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(new ErrorResponse(exception.getMessage()));
+    }
+
     public record RegistrationRequest(
             @Email @NotBlank String email,
             @NotBlank @Size(min = 8, max = 72) String password,
@@ -63,5 +89,7 @@ public class AuthController {
     public record LoginRequest(
             @Email @NotBlank String email, @NotBlank @Size(min = 8, max = 72) String password) {}
 
+    public record RefreshRequest(@NotBlank String refreshToken) {}
+
     public record ErrorResponse(String message) {}
 }
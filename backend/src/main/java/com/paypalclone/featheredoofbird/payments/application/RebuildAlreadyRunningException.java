@@ -0,0 +1,8 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+public class RebuildAlreadyRunningException extends RuntimeException {
+
+    public RebuildAlreadyRunningException() {
+        super("A read model rebuild is already running.");
+    }
+}
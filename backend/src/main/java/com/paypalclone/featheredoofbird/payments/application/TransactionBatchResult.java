@@ -0,0 +1,35 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.paypalclone.featheredoofbird.payments.domain.ConsistencyToken;
+import java.util.List;
+
+/**
+ * Per-item outcome of a batch create, in request order. The token is returned as a header, not in
+ * the body.
+ */
+public record TransactionBatchResult(
+        int created, int rejected, List<Item> items, @JsonIgnore ConsistencyToken token) {
+
+    public static TransactionBatchResult of(List<Item> items, ConsistencyToken token) {
+        int created = (int) items.stream().filter(Item::isCreated).count();
+        return new TransactionBatchResult(created, items.size() - created, items, token);
+    }
+
+    /** Outcome for the item at {@code index}: the new id, or the validation errors. */
+    public record Item(int index, Long id, List<String> errors) {
+
+        public static Item created(int index, Long id) {
+            return new Item(index, id, List.of());
+        }
+
+        public static Item rejected(int index, List<String> errors) {
+            return new Item(index, null, errors);
+        }
+
+        @JsonIgnore
+        public boolean isCreated() {
+            return errors.isEmpty();
+        }
+    }
+}
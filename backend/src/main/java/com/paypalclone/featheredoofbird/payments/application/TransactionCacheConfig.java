@@ -0,0 +1,46 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionPage;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Redis settings for {@link TransactionPartyCache}. Pages are stored as plain JSON of {@link
+ * TransactionPage} (no JDK serialization, no embedded class names), so entries stay small and every
+ * node can read them; party versions are plain strings.
+ */
+@Configuration
+public class TransactionCacheConfig {
+
+    @Bean
+    RedisCacheManagerBuilderCustomizer transactionPartyCaches(
+            AppConfig appConfig, ObjectMapper objectMapper) {
+        RedisCacheConfiguration pages =
+                RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(appConfig.payments().partyCache().ttl())
+                        .disableCachingNullValues()
+                        .serializeValuesWith(
+                                SerializationPair.fromSerializer(pageSerializer(objectMapper)));
+        RedisCacheConfiguration versions =
+                RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(appConfig.payments().partyCache().ttl())
+                        .disableCachingNullValues()
+                        .serializeValuesWith(
+                                SerializationPair.fromSerializer(RedisSerializer.string()));
+        return builder ->
+                builder.withCacheConfiguration(TransactionPartyCache.BY_SENDER_CACHE, pages)
+                        .withCacheConfiguration(TransactionPartyCache.BY_RECEIVER_CACHE, pages)
+                        .withCacheConfiguration(TransactionPartyCache.VERSIONS_CACHE, versions);
+    }
+
+    static Jackson2JsonRedisSerializer<TransactionPage> pageSerializer(ObjectMapper objectMapper) {
+        return new Jackson2JsonRedisSerializer<>(objectMapper, TransactionPage.class);
+    }
+}
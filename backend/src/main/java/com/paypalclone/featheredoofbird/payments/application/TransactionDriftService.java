@@ -0,0 +1,88 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionDriftReport;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionDriftVerifier;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs {@link TransactionDriftVerifier} on {@code app.payments.drift.cron} when enabled, or on
+ * demand, and keeps the last report for the admin API.
+ */
+@Slf4j
+@Service
+public class TransactionDriftService implements SchedulingConfigurer {
+
+    private final TransactionDriftVerifier transactionDriftVerifier;
+    private final AppConfig.Drift config;
+    private final AtomicReference<TransactionDriftReport> lastReport = new AtomicReference<>();
+    private final Timer verificationTimer;
+
+    public TransactionDriftService(
+            TransactionDriftVerifier transactionDriftVerifier,
+            AppConfig appConfig,
+            MeterRegistry meterRegistry) {
+        this.transactionDriftVerifier = transactionDriftVerifier;
+        this.config = appConfig.payments().drift();
+        this.verificationTimer =
+                Timer.builder("transactions.drift.verification")
+                        .description("Time to compare the Mongo read model against Postgres")
+                        .register(meterRegistry);
+        Gauge.builder(
+                        "transactions.drift.ids",
+                        lastReport,
+                        report -> report.get() == null ? 0 : report.get().driftedIds())
+                .description("Ids that differed between Postgres and Mongo in the last check")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (config.enabled()) {
+            taskRegistrar.addCronTask(this::verify, config.cron());
+        }
+    }
+
+    /**
+     * Compares both stores now.
+     *
+     * @return the report, or empty if another node is already running a check
+     */
+    public Optional<TransactionDriftReport> verify() {
+        Optional<TransactionDriftReport> report =
+                verificationTimer.record(transactionDriftVerifier::verify);
+        report.ifPresent(this::record);
+        return report;
+    }
+
+    public Optional<TransactionDriftReport> lastReport() {
+        return Optional.ofNullable(lastReport.get());
+    }
+
+    private void record(TransactionDriftReport report) {
+        lastReport.set(report);
+        if (report.hasDrift()) {
+            log.warn(
+                    "Read model drift: {} missing, {} extra, {} differing{}{}",
+                    report.missingInMongo().size(),
+                    report.extraInMongo().size(),
+                    report.differing().size(),
+                    report.repaired() ? ", queued for re-projection" : "",
+                    report.truncated() ? "; check stopped early, consider a rebuild" : "");
+        } else {
+            log.info(
+                    "Read model matches Postgres ({} buckets, {} rows compared in {})",
+                    report.bucketsCompared(),
+                    report.rowsCompared(),
+                    report.duration());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import com.paypalclone.featheredoofbird.payments.domain.TransactionPage;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRepository;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import java.util.UUID;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared cache of the newest transactions per sender and per receiver.
+ *
+ * <p>Entries are loaded from Postgres, not the Mongo read model, which could still hold a page the
+ * projector has not yet updated.
+ *
+ * <p>A page is keyed by its party and the party's current version, and a write replaces the version
+ * of both parties once it commits rather than evicting their pages. Readers look up the version
+ * before loading, so a reader that loaded the state from before the commit stores its page under
+ * the old version, where no later read looks. Pages and versions expire after {@code
+ * app.payments.party-cache.ttl}. Redis failures are logged and treated as cache misses.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionPartyCache {
+
+    public static final String BY_SENDER_CACHE = "transactions.by-sender";
+    public static final String BY_RECEIVER_CACHE = "transactions.by-receiver";
+    public static final String VERSIONS_CACHE = "transactions.party-versions";
+
+    private final TransactionRepository transactionRepository;
+    private final CacheManager cacheManager;
+    private final AppConfig appConfig;
+
+    public TransactionPage firstPageBySender(String sender) {
+        return firstPage(
+                BY_SENDER_CACHE,
+                sender,
+                () -> transactionRepository.findFirstPageBySender(sender, headSize()));
+    }
+
+    public TransactionPage firstPageByReceiver(String receiver) {
+        return firstPage(
+                BY_RECEIVER_CACHE,
+                receiver,
+                () -> transactionRepository.findFirstPageByReceiver(receiver, headSize()));
+    }
+
+    /**
+     * Moves both parties to a new version. Inside a transaction the cache manager defers this until
+     * commit.
+     */
+    public void evict(String sender, String receiver) {
+        newVersion(BY_SENDER_CACHE, sender);
+        newVersion(BY_RECEIVER_CACHE, receiver);
+    }
+
+    public int headSize() {
+        return appConfig.payments().partyCache().headSize();
+    }
+
+    private TransactionPage firstPage(
+            String cacheName, String party, Supplier<TransactionPage> loader) {
+        String key = party + "@" + version(cacheName, party);
+        Cache pages = cacheManager.getCache(cacheName);
+        try {
+            TransactionPage cached = pages.get(key, TransactionPage.class);
+            if (cached != null) {
+                return cached;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cache get failed for {}::{}", cacheName, key, e);
+        }
+        TransactionPage page = loader.get();
+        try {
+            pages.put(key, page);
+        } catch (RuntimeException e) {
+            log.warn("Cache put failed for {}::{}", cacheName, key, e);
+        }
+        return page;
+    }
+
+    /** The party's current version; a party without one gets a fresh version. */
+    private String version(String cacheName, String party) {
+        String key = versionKey(cacheName, party);
+        String fresh = UUID.randomUUID().toString();
+        try {
+            Cache versions = cacheManager.getCache(VERSIONS_CACHE);
+            String current = versions.get(key, String.class);
+            if (current != null) {
+                return current;
+            }
+            Cache.ValueWrapper existing = versions.putIfAbsent(key, fresh);
+            return existing == null ? fresh : (String) existing.get();
+        } catch (RuntimeException e) {
+            log.warn("Cache get failed for {}::{}", VERSIONS_CACHE, key, e);
+            return fresh;
+        }
+    }
+
+    private void newVersion(String cacheName, String party) {
+        String key = versionKey(cacheName, party);
+        try {
+            cacheManager.getCache(VERSIONS_CACHE).put(key, UUID.randomUUID().toString());
+        } catch (RuntimeException e) {
+            log.warn("Cache put failed for {}::{}", VERSIONS_CACHE, key, e);
+        }
+    }
+
+    private static String versionKey(String cacheName, String party) {
+        return cacheName + ":" + party;
+    }
+}
@@ -0,0 +1,35 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRebuild;
+import java.time.Duration;
+import java.time.Instant;
+
+/** Snapshot of a read model rebuild, as reported by the admin API. */
+public record TransactionRebuildProgress(
+        long rebuildId,
+        TransactionRebuild.Status status,
+        long chunksTotal,
+        long chunksCompleted,
+        long rowsCopied,
+        long rowsPerMinute,
+        Instant startedAt,
+        Instant finishedAt,
+        String error) {
+
+    static TransactionRebuildProgress of(
+            TransactionRebuild rebuild, long chunksTotal, long chunksCompleted, long rowsCopied) {
+        Instant end = rebuild.getFinishedAt() == null ? Instant.now() : rebuild.getFinishedAt();
+        long elapsedMillis =
+                Math.max(1_000, Duration.between(rebuild.getStartedAt(), end).toMillis());
+        return new TransactionRebuildProgress(
+                rebuild.getId(),
+                rebuild.getStatus(),
+                chunksTotal,
+                chunksCompleted,
+                rowsCopied,
+                rowsCopied * 60_000 / elapsedMillis,
+                rebuild.getStartedAt(),
+                rebuild.getFinishedAt(),
+                rebuild.getError());
+    }
+}
@@ -0,0 +1,160 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionReadModelRebuilder;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRebuild;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupStore;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs {@link TransactionReadModelRebuilder} in the background: pending chunks are copied on
+ * virtual threads, at most {@code app.payments.rebuild.parallelism} at a time, then the shadow
+ * collection is swapped in and the rollups are backfilled from it. A failed or interrupted run is
+ * resumed by starting again.
+ *
+ * <p>A run holds the cluster-wide claim of {@link TransactionReadModelRebuilder#tryClaim()} from
+ * {@link #start()} until it ends, so only one node rebuilds at a time.
+ */
+@Slf4j
+@Service
+public class TransactionRebuildService {
+
+    private final TransactionReadModelRebuilder rebuilder;
+    private final TransactionRollupStore transactionRollupStore;
+    private final AppConfig.Rebuild config;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public TransactionRebuildService(
+            TransactionReadModelRebuilder rebuilder,
+            TransactionRollupStore transactionRollupStore,
+            AppConfig appConfig) {
+        this.rebuilder = rebuilder;
+        this.transactionRollupStore = transactionRollupStore;
+        this.config = appConfig.payments().rebuild();
+    }
+
+    /**
+     * Starts a rebuild, or resumes the latest one if it did not complete, and returns immediately.
+     *
+     * @throws RebuildAlreadyRunningException if this or another node is already running one
+     */
+    public TransactionRebuildProgress start() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RebuildAlreadyRunningException();
+        }
+        TransactionRebuild rebuild;
+        try {
+            TransactionReadModelRebuilder.Claim claim =
+                    rebuilder.tryClaim().orElseThrow(RebuildAlreadyRunningException::new);
+            try {
+                rebuild = rebuilder.begin(claim);
+                Thread.ofVirtual()
+                        .name("transaction-rebuild-" + rebuild.getId())
+                        .start(
+                                () -> {
+                                    try (claim) {
+                                        run(rebuild, claim);
+                                    } finally {
+                                        running.set(false);
+                                    }
+                                });
+            } catch (RuntimeException e) {
+                claim.close();
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return progress(rebuild);
+    }
+
+    public Optional<TransactionRebuildProgress> progress() {
+        return rebuilder.latest().map(this::progress);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    void run(TransactionRebuild rebuild, TransactionReadModelRebuilder.Claim claim) {
+        List<TransactionReadModelRebuilder.IdRange> pending = rebuilder.pendingChunks(rebuild);
+        log.info(
+                "Read model rebuild {}: copying {} chunks into {}",
+                rebuild.getId(),
+                pending.size(),
+                rebuild.getShadowCollection());
+        SimpleAsyncTaskExecutor workers =
+                new SimpleAsyncTaskExecutor("transaction-rebuild-worker-");
+        workers.setVirtualThreads(true);
+        workers.setConcurrencyLimit(config.parallelism());
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<Long>> copies = new ArrayList<>(pending.size());
+        try {
+            // Submitting blocks while parallelism copies are running; stop once one has failed.
+            for (TransactionReadModelRebuilder.IdRange range : pending) {
+                if (failed.get()) {
+                    break;
+                }
+                copies.add(
+                        workers.submit(
+                                () -> {
+                                    try {
+                                        return rebuilder.copyChunk(rebuild, range);
+                                    } catch (RuntimeException e) {
+                                        failed.set(true);
+                                        throw e;
+                                    }
+                                }));
+            }
+            for (Future<Long> copy : copies) {
+                copy.get();
+            }
+            rebuilder.finish(rebuild, claim);
+            log.info("Read model rebuild {} completed", rebuild.getId());
+            backfillRollups(rebuild);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rebuilder.fail(rebuild, e);
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.error("Read model rebuild {} failed", rebuild.getId(), cause);
+            rebuilder.fail(rebuild, cause instanceof Exception ex ? ex : e);
+        } finally {
+            copies.forEach(copy -> copy.cancel(true));
+        }
+    }
+
+    /**
+     * The rollups were maintained from the replaced collection's documents, so they are recomputed
+     * from the new one. The rebuild stays completed if this fails.
+     */
+    private void backfillRollups(TransactionRebuild rebuild) {
+        try {
+            long written = transactionRollupStore.backfillAll();
+            log.info("Read model rebuild {}: backfilled {} rollups", rebuild.getId(), written);
+        } catch (RuntimeException e) {
+            log.error(
+                    "Rollup backfill after read model rebuild {} failed; backfill the rollups"
+                            + " through the admin endpoint",
+                    rebuild.getId(),
+                    e);
+        }
+    }
+
+    private TransactionRebuildProgress progress(TransactionRebuild rebuild) {
+        return TransactionRebuildProgress.of(
+                rebuild,
+                rebuilder.chunks(rebuild).size(),
+                rebuilder.completedChunks(rebuild),
+                rebuilder.copiedRows(rebuild));
+    }
+}
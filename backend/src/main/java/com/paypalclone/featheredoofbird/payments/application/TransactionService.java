@@ -1,10 +1,25 @@
 package com.paypalclone.featheredoofbird.payments.application;
 
+import com.paypalclone.featheredoofbird.payments.domain.ConsistencyToken;
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionCursor;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionFilter;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionPage;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummaryPage;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionTransition;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionWrite;
 import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRepository;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
@@ -16,58 +31,247 @@ import org.springframework.validation.annotation.Validated;
 @RequiredArgsConstructor
 public class TransactionService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 5_000;
+
     private final TransactionRepository transactionRepository;
+    private final Validator validator;
+    private final TransactionPartyCache transactionPartyCache;
+    private final AppConfig appConfig;
+
+    @Transactional(readOnly = true)
+    public TransactionPage getAllTransactions(
+            @NonNull @NotNull TransactionCursor after,
+            int limit,
+            @NonNull @NotNull ConsistencyToken readAfter) {
+        return transactionRepository.findAll(after, pageSize(limit), readAfter);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Transaction> getTransactionById(
+            @NonNull @NotNull Long id, @NonNull @NotNull ConsistencyToken readAfter) {
+        return transactionRepository.findById(id, readAfter);
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactionsBySender(
+            @NonNull @NotNull String sender,
+            @NonNull @NotNull TransactionCursor after,
+            int limit,
+            @NonNull @NotNull ConsistencyToken readAfter) {
+        int pageSize = pageSize(limit);
+        if (appConfig.payments().partyCache().senderEnabled()
+                && isCacheable(after, pageSize, readAfter)) {
+            return transactionPartyCache.firstPageBySender(sender).head(pageSize);
+        }
+        return transactionRepository.findBySender(sender, after, pageSize, readAfter);
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactionsByReceiver(
+            @NonNull @NotNull String receiver,
+            @NonNull @NotNull TransactionCursor after,
+            int limit,
+            @NonNull @NotNull ConsistencyToken readAfter) {
+        int pageSize = pageSize(limit);
+        if (appConfig.payments().partyCache().receiverEnabled()
+                && isCacheable(after, pageSize, readAfter)) {
+            return transactionPartyCache.firstPageByReceiver(receiver).head(pageSize);
+        }
+        return transactionRepository.findByReceiver(receiver, after, pageSize, readAfter);
+    }
 
     @Transactional(readOnly = true)
-    public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+    public TransactionPage getTransactionsByStatus(
+            @NonNull @NotNull Transaction.TransactionStatus status,
+            @NonNull @NotNull TransactionCursor after,
+            int limit,
+            @NonNull @NotNull ConsistencyToken readAfter) {
+        return transactionRepository.findByStatus(status, after, pageSize(limit), readAfter);
     }
 
+    /**
+     * {@link #getAllTransactions} reading only the summary fields. The summary reads page exactly
+     * like their full counterparts and accept the same cursors.
+     */
     @Transactional(readOnly = true)
-    public Optional<Transaction> getTransactionById(@NonNull @NotNull Long id) {
-        return transactionRepository.findById(id);
+    public TransactionSummaryPage getTransactionSummaries(
+            @NonNull @NotNull TransactionCursor after,
+            int limit,
+            @NonNull @NotNull ConsistencyToken readAfter) {
+        return transactionRepository.findAllSummaries(after, pageSize(limit), readAfter);
     }
 
+    /** A first page the party cache can serve is summarised from it instead of read again. */
     @Transactional(readOnly = true)
-    public List<Transaction> getTransactionsBySender(@NonNull @NotNull String sender) {
-        return transactionRepository.findBySender(sender);
+    public TransactionSummaryPage getTransactionSummariesBySender(
+            @NonNull @NotNull String sender,
+            @NonNull @NotNull TransactionCursor after,
+            int limit,
+            @NonNull @NotNull ConsistencyToken readAfter) {
+        int pageSize = pageSize(limit);
+        if (appConfig.payments().partyCache().senderEnabled()
+                && isCacheable(after, pageSize, readAfter)) {
+            return TransactionSummaryPage.of(
+                    transactionPartyCache.firstPageBySender(sender).head(pageSize));
+        }
+        return transactionRepository.findSummariesBySender(sender, after, pageSize, readAfter);
     }
 
     @Transactional(readOnly = true)
-    public List<Transaction> getTransactionsByReceiver(@NonNull @NotNull String receiver) {
-        return transactionRepository.findByReceiver(receiver);
+    public TransactionSummaryPage getTransactionSummariesByReceiver(
+            @NonNull @NotNull String receiver,
+            @NonNull @NotNull TransactionCursor after,
+            int limit,
+            @NonNull @NotNull ConsistencyToken readAfter) {
+        int pageSize = pageSize(limit);
+        if (appConfig.payments().partyCache().receiverEnabled()
+                && isCacheable(after, pageSize, readAfter)) {
+            return TransactionSummaryPage.of(
+                    transactionPartyCache.firstPageByReceiver(receiver).head(pageSize));
+        }
+        return transactionRepository.findSummariesByReceiver(receiver, after, pageSize, readAfter);
     }
 
     @Transactional(readOnly = true)
-    public List<Transaction> getTransactionsByStatus(
-            @NonNull @NotNull Transaction.TransactionStatus status) {
-        return transactionRepository.findByStatus(status);
+    public TransactionSummaryPage getTransactionSummariesByStatus(
+            @NonNull @NotNull Transaction.TransactionStatus status,
+            @NonNull @NotNull TransactionCursor after,
+            int limit,
+            @NonNull @NotNull ConsistencyToken readAfter) {
+        return transactionRepository.findSummariesByStatus(
+                status, after, pageSize(limit), readAfter);
+    }
+
+    /**
+     * Opens a cursor over every transaction matching {@code filter}. Rows are read lazily, so the
+     * caller must consume and close the stream (try-with-resources) on the thread that writes the
+     * response.
+     */
+    public Stream<Transaction> exportTransactions(@NonNull @NotNull TransactionFilter filter) {
+        return transactionRepository.stream(filter);
+    }
+
+    @Transactional
+    public TransactionWrite createTransaction(@NonNull @NotNull Transaction transaction) {
+        TransactionWrite write = transactionRepository.save(transaction);
+        evictParties(write.transaction());
+        return write;
     }
 
+    /**
+     * Validates every item and persists the valid ones in a single database transaction. Inserts
+     * are sent as JDBC batches; invalid items are reported with their errors and not persisted.
+     */
     @Transactional
-    public Transaction createTransaction(@NonNull @NotNull Transaction transaction) {
-        return transactionRepository.save(transaction);
+    public TransactionBatchResult createTransactions(
+            @NonNull @NotNull List<Transaction> transactions) {
+        if (transactions.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "A batch may contain at most " + MAX_BATCH_SIZE + " transactions.");
+        }
+        List<TransactionBatchResult.Item> items = new ArrayList<>(transactions.size());
+        List<Transaction> valid = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            List<String> errors = validate(transaction);
+            if (errors.isEmpty()) {
+                transaction.setId(null);
+                valid.add(transaction);
+            }
+            items.add(TransactionBatchResult.Item.rejected(items.size(), errors));
+        }
+
+        ConsistencyToken token = transactionRepository.saveAll(valid);
+        valid.forEach(this::evictParties);
+
+        for (int index = 0; index < transactions.size(); index++) {
+            if (items.get(index).errors().isEmpty()) {
+                items.set(
+                        index,
+                        TransactionBatchResult.Item.created(
+                                index, transactions.get(index).getId()));
+            }
+        }
+        return TransactionBatchResult.of(items, token);
     }
 
+    /** Updates the Postgres row directly, so it works before the create has been projected. */
     @Transactional
-    public Transaction updateTransaction(
+    public TransactionWrite updateTransaction(
             @NonNull @NotNull Long id, @NonNull @NotNull Transaction updatedTransaction) {
-        Transaction transaction =
-                transactionRepository
-                        .findById(id)
-                        .orElseThrow(
-                                () -> new RuntimeException("Transaction not found with id: " + id));
-        transaction.setSender(updatedTransaction.getSender());
-        transaction.setReceiver(updatedTransaction.getReceiver());
-        transaction.setAmount(updatedTransaction.getAmount());
-        transaction.setCurrency(updatedTransaction.getCurrency());
-        transaction.setDescription(updatedTransaction.getDescription());
-        transaction.setStatus(updatedTransaction.getStatus());
-        return transactionRepository.save(transaction);
+        transactionRepository.findCurrentById(id).ifPresent(this::evictParties);
+        TransactionWrite write = transactionRepository.update(id, updatedTransaction);
+        evictParties(write.transaction());
+        return write;
+    }
+
+    /**
+     * Moves every transaction of {@code ids} that is in status {@code from} to {@code to} with a
+     * single conditional update, without reading or locking the rows first. Ids that another caller
+     * has already moved, or that do not exist, are reported as conflicts; nothing is retried.
+     */
+    @Transactional
+    public TransactionTransitionResult transitionStatus(
+            @NonNull @NotNull List<Long> ids,
+            @NonNull @NotNull Transaction.TransactionStatus from,
+            @NonNull @NotNull Transaction.TransactionStatus to) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "A transition may cover at most " + MAX_BATCH_SIZE + " transactions.");
+        }
+        if (from == to) {
+            throw new IllegalArgumentException("A transition must change the status.");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        TransactionTransition transition =
+                transactionRepository.transitionStatus(requested, from, to);
+        transition.transactions().forEach(this::evictParties);
+
+        List<Long> transitioned =
+                transition.transactions().stream().map(Transaction::getId).toList();
+        requested.removeAll(transitioned);
+        Map<Long, Transaction.TransactionStatus> current =
+                requested.isEmpty()
+                        ? Map.of()
+                        : transactionRepository.findCurrentStatuses(requested);
+        List<TransactionTransitionResult.Conflict> conflicts =
+                requested.stream()
+                        .map(id -> new TransactionTransitionResult.Conflict(id, current.get(id)))
+                        .toList();
+        return new TransactionTransitionResult(transitioned, conflicts, transition.token());
     }
 
     @Transactional
-    public void deleteTransaction(@NonNull @NotNull Long id) {
-        transactionRepository.deleteById(id);
+    public ConsistencyToken deleteTransaction(@NonNull @NotNull Long id) {
+        transactionRepository.findCurrentById(id).ifPresent(this::evictParties);
+        return transactionRepository.deleteById(id);
+    }
+
+    /**
+     * Evicts the cached pages of both parties. Runs inside the write transaction; the cache manager
+     * defers the eviction until commit.
+     */
+    private void evictParties(Transaction transaction) {
+        transactionPartyCache.evict(transaction.getSender(), transaction.getReceiver());
+    }
+
+    private boolean isCacheable(TransactionCursor after, int pageSize, ConsistencyToken readAfter) {
+        return TransactionCursor.FIRST.equals(after)
+                && readAfter.isNone()
+                && pageSize <= transactionPartyCache.headSize();
+    }
+
+    private List<String> validate(Transaction transaction) {
+        if (transaction == null) {
+            return List.of("Transaction is required");
+        }
+        return validator.validate(transaction).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+    }
+
+    private int pageSize(int limit) {
+        return Math.clamp(limit, 1, MAX_PAGE_SIZE);
     }
 }
@@ -0,0 +1,35 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.ReactiveMongoTransactionStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking party reads for dashboards that keep many long-running queries open at once. Unlike
+ * {@link TransactionService}, these streams are not paged and do not honour consistency tokens.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionStreamService {
+
+    private final ReactiveMongoTransactionStore reactiveMongoTransactionStore;
+
+    /**
+     * Streams the sender's transactions, newest first. A positive {@code limit} caps both the
+     * emitted items and the demand sent to the cursor; zero or less streams everything.
+     */
+    public Flux<Transaction> streamBySender(String sender, int limit) {
+        return limit(reactiveMongoTransactionStore.streamBySender(sender), limit);
+    }
+
+    /** Receiver counterpart of {@link #streamBySender(String, int)}. */
+    public Flux<Transaction> streamByReceiver(String receiver, int limit) {
+        return limit(reactiveMongoTransactionStore.streamByReceiver(receiver), limit);
+    }
+
+    private static Flux<Transaction> limit(Flux<Transaction> transactions, int limit) {
+        return limit > 0 ? transactions.take(limit, true) : transactions;
+    }
+}
@@ -0,0 +1,26 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.paypalclone.featheredoofbird.payments.domain.ConsistencyToken;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import java.util.List;
+
+/**
+ * Outcome of a status transition: the ids that moved and, in request order, the ones that did not.
+ * The token is returned as a header, not in the body.
+ */
+public record TransactionTransitionResult(
+        List<Long> transitioned, List<Conflict> conflicts, @JsonIgnore ConsistencyToken token) {
+
+    /**
+     * An id that was not in the expected status. {@code status} is the status it has now, or null
+     * when no such transaction exists.
+     */
+    public record Conflict(Long id, Transaction.TransactionStatus status) {
+
+        @JsonIgnore
+        public boolean isMissing() {
+            return status == null;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionVolume;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupDocument;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupDocument.Dimension;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupStore;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Volume totals served from the daily rollups maintained by the projector, so a range costs one
+ * indexed read of at most one document per day, currency and status instead of a scan of the
+ * transactions themselves. Like other Mongo reads, totals trail Postgres by the projection lag.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionVolumeService {
+
+    private final TransactionRollupStore transactionRollupStore;
+
+    public TransactionVolume getVolumeBySender(
+            String sender,
+            LocalDate from,
+            LocalDate to,
+            String currency,
+            Transaction.TransactionStatus status) {
+        return volume(Dimension.SENDER, sender, from, to, currency, status);
+    }
+
+    public TransactionVolume getVolumeByReceiver(
+            String receiver,
+            LocalDate from,
+            LocalDate to,
+            String currency,
+            Transaction.TransactionStatus status) {
+        return volume(Dimension.RECEIVER, receiver, from, to, currency, status);
+    }
+
+    /** Totals across all parties. */
+    public TransactionVolume getVolume(
+            LocalDate from, LocalDate to, String currency, Transaction.TransactionStatus status) {
+        return volume(Dimension.CURRENCY, "", from, to, currency, status);
+    }
+
+    /**
+     * Recomputes the rollups of {@code [from, to]} from the read model and returns how many were
+     * written.
+     */
+    public long backfill(LocalDate from, LocalDate to) {
+        requireRange(from, to);
+        return transactionRollupStore.backfill(from, to);
+    }
+
+    private TransactionVolume volume(
+            Dimension dimension,
+            String party,
+            LocalDate from,
+            LocalDate to,
+            String currency,
+            Transaction.TransactionStatus status) {
+        requireRange(from, to);
+        Map<String, TransactionVolume.Total> totals = new TreeMap<>();
+        List<TransactionVolume.DailyTotal> days = new ArrayList<>();
+        for (TransactionRollupDocument rollup :
+                transactionRollupStore.find(dimension, party, from, to, currency, status)) {
+            if (rollup.getCount() == 0) {
+                continue;
+            }
+            totals.merge(
+                    rollup.getCurrency(),
+                    new TransactionVolume.Total(
+                            rollup.getCurrency(), rollup.getCount(), rollup.getTotal()),
+                    (a, b) ->
+                            new TransactionVolume.Total(
+                                    a.currency(),
+                                    a.count() + b.count(),
+                                    a.amount().add(b.amount())));
+            LocalDate day = LocalDate.parse(rollup.getDay());
+            TransactionVolume.DailyTotal last = days.isEmpty() ? null : days.getLast();
+            // Rollups arrive ordered by day, currency and status, so statuses of a day merge here.
+            if (last != null
+                    && last.day().equals(day)
+                    && last.currency().equals(rollup.getCurrency())) {
+                days.set(
+                        days.size() - 1,
+                        new TransactionVolume.DailyTotal(
+                                day,
+                                last.currency(),
+                                last.count() + rollup.getCount(),
+                                last.amount().add(rollup.getTotal())));
+            } else {
+                days.add(
+                        new TransactionVolume.DailyTotal(
+                                day, rollup.getCurrency(), rollup.getCount(), rollup.getTotal()));
+            }
+        }
+        return new TransactionVolume(from, to, List.copyOf(totals.values()), days);
+    }
+
+    private static void requireRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Read-your-writes token handed out by every write.
+ *
+ * <p>{@code version} identifies the change-log entry the write produced. A read that presents the
+ * token is served from the system of record until the read model has applied that entry; reads
+ * without a token ({@link #NONE}) always use the read model. Clients only ever see the {@link
+ * #encode() encoded} form.
+ */
+public record ConsistencyToken(long version) {
+
+    /** No write to wait for. */
+    public static final ConsistencyToken NONE = new ConsistencyToken(0);
+
+    /** Decodes a client-supplied token; a missing or blank token means {@link #NONE}. */
+    public static ConsistencyToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return NONE;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            long version = Long.parseLong(raw);
+            if (version <= 0) {
+                throw new InvalidConsistencyTokenException(token);
+            }
+            return new ConsistencyToken(version);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidConsistencyTokenException(token);
+        }
+    }
+
+    public boolean isNone() {
+        return version <= 0;
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(Long.toString(version).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,8 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+public class InvalidConsistencyTokenException extends RuntimeException {
+
+    public InvalidConsistencyTokenException(String token) {
+        super("Invalid consistency token '" + token + "'.");
+    }
+}
@@ -0,0 +1,8 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String cursor) {
+        super("Invalid page cursor '" + cursor + "'.");
+    }
+}
@@ -7,27 +7,53 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "transactions")
+@Table(
+        name = "transactions",
+        indexes = {
+            @Index(name = "idx_transactions_created_at_id", columnList = "created_at, id"),
+            @Index(
+                    name = "idx_transactions_sender_created_at_id",
+                    columnList = "sender, created_at, id"),
+            @Index(
+                    name = "idx_transactions_receiver_created_at_id",
+                    columnList = "receiver, created_at, id"),
+            @Index(
+                    name = "idx_transactions_status_created_at_id",
+                    columnList = "status, created_at, id"),
+            @Index(name = "idx_transactions_updated_at", columnList = "updated_at")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
 
+    /** Ids are drawn from a pooled sequence so that Hibernate can batch inserts. */
+    public static final String ID_SEQUENCE = "transactions_seq";
+
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(
+            name = ID_SEQUENCE,
+            sequenceName = ID_SEQUENCE,
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Sender is required")
@@ -62,13 +88,21 @@ public class Transaction {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        createdAt = now();
+        updatedAt = createdAt;
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
+        updatedAt = now();
+    }
+
+    /**
+     * Timestamps are kept at millisecond precision so that Postgres and the Mongo read model agree
+     * on the exact {@code createdAt} used as a pagination key.
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
     }
 
     public enum TransactionStatus {
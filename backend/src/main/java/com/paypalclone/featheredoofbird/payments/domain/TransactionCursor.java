@@ -0,0 +1,52 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the {@code (createdAt, id)} ordering used by every transaction listing.
+ *
+ * <p>Lists are ordered newest first, so a page "after" this cursor contains the transactions that
+ * sort strictly below it. Clients only ever see the {@link #encode() encoded} form, which keeps the
+ * token opaque and lets the key layout change without breaking the API.
+ */
+public record TransactionCursor(LocalDateTime createdAt, Long id) {
+
+    /** Position before the newest possible transaction, i.e. the start of the first page. */
+    public static final TransactionCursor FIRST =
+            new TransactionCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "|";
+
+    public static TransactionCursor of(Transaction transaction) {
+        return new TransactionCursor(transaction.getCreatedAt(), transaction.getId());
+    }
+
+    /** Decodes a client-supplied token; a missing or blank token means the first page. */
+    public static TransactionCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException(token);
+            }
+            return new TransactionCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
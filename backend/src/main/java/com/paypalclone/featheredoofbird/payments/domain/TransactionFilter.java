@@ -0,0 +1,17 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional criteria for bulk reads such as exports. A {@code null} component does not restrict the
+ * result; {@code from} is inclusive and {@code to} is exclusive on {@code createdAt}.
+ */
+public record TransactionFilter(
+        String sender,
+        String receiver,
+        Transaction.TransactionStatus status,
+        LocalDateTime from,
+        LocalDateTime to) {
+
+    public static final TransactionFilter ALL = new TransactionFilter(null, null, null, null, null);
+}
@@ -0,0 +1,36 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import java.util.List;
+
+/** One keyset page of transactions plus the cursor for the page that follows, if any. */
+public record TransactionPage(List<Transaction> transactions, TransactionCursor nextCursor) {
+
+    /**
+     * Builds a page from a store read that asked for {@code pageSize + 1} rows. The extra row only
+     * signals that another page exists and is never returned to the caller.
+     */
+    public static TransactionPage of(List<Transaction> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new TransactionPage(rows, null);
+        }
+        List<Transaction> transactions = rows.subList(0, pageSize);
+        return new TransactionPage(
+                transactions, TransactionCursor.of(transactions.get(pageSize - 1)));
+    }
+
+    /**
+     * Narrows a first page read with a larger page size to {@code pageSize}. Rows past the cut
+     * prove that a next page exists; at or beyond the current size the page is returned as is.
+     */
+    public TransactionPage head(int pageSize) {
+        if (pageSize >= transactions.size()) {
+            return this;
+        }
+        List<Transaction> head = transactions.subList(0, pageSize);
+        return new TransactionPage(head, TransactionCursor.of(head.get(pageSize - 1)));
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * List-view projection of a {@link Transaction}: everything but the description and {@code
+ * updatedAt}. {@code createdAt} stays because it is half of the pagination key.
+ */
+public record TransactionSummary(
+        Long id,
+        String sender,
+        String receiver,
+        BigDecimal amount,
+        String currency,
+        Transaction.TransactionStatus status,
+        LocalDateTime createdAt) {
+
+    public static TransactionSummary of(Transaction transaction) {
+        return new TransactionSummary(
+                transaction.getId(),
+                transaction.getSender(),
+                transaction.getReceiver(),
+                transaction.getAmount(),
+                transaction.getCurrency(),
+                transaction.getStatus(),
+                transaction.getCreatedAt());
+    }
+}
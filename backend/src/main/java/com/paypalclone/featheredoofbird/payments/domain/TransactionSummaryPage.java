@@ -0,0 +1,30 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import java.util.List;
+
+/** {@link TransactionPage} counterpart for {@link TransactionSummary} reads. */
+public record TransactionSummaryPage(
+        List<TransactionSummary> transactions, TransactionCursor nextCursor) {
+
+    /** Builds a page from a store read that asked for {@code pageSize + 1} rows. */
+    public static TransactionSummaryPage of(List<TransactionSummary> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new TransactionSummaryPage(rows, null);
+        }
+        List<TransactionSummary> transactions = rows.subList(0, pageSize);
+        TransactionSummary last = transactions.get(pageSize - 1);
+        return new TransactionSummaryPage(
+                transactions, new TransactionCursor(last.createdAt(), last.id()));
+    }
+
+    /** Summarises a page of full transactions, e.g. one served from a cache. */
+    public static TransactionSummaryPage of(TransactionPage page) {
+        return new TransactionSummaryPage(
+                page.transactions().stream().map(TransactionSummary::of).toList(),
+                page.nextCursor());
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
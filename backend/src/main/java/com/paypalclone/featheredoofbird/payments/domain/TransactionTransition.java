@@ -0,0 +1,9 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import java.util.List;
+
+/**
+ * Transactions a conditional status update moved, in their new state, plus the token that lets the
+ * writer read them back consistently. {@link ConsistencyToken#NONE} when nothing moved.
+ */
+public record TransactionTransition(List<Transaction> transactions, ConsistencyToken token) {}
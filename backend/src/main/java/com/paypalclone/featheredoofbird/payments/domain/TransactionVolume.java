@@ -0,0 +1,17 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Transaction counts and amount totals over the days {@code [from, to]}: per currency for the whole
+ * range, and per day and currency. Days without transactions are omitted.
+ */
+public record TransactionVolume(
+        LocalDate from, LocalDate to, List<Total> totals, List<DailyTotal> days) {
+
+    public record Total(String currency, long count, BigDecimal amount) {}
+
+    public record DailyTotal(LocalDate day, String currency, long count, BigDecimal amount) {}
+}
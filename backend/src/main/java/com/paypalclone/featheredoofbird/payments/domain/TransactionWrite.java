@@ -0,0 +1,4 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+/** A persisted transaction plus the token that lets the writer read it back consistently. */
+public record TransactionWrite(Transaction transaction, ConsistencyToken token) {}
@@ -1,16 +1,86 @@
 package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
 
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface MongoTransactionRepository extends MongoRepository<TransactionDocument, Long> {
 
-    List<TransactionDocument> findBySender(String sender);
+    String NEWEST_FIRST = "{ 'createdAt': -1, '_id': -1 }";
 
-    List<TransactionDocument> findByReceiver(String receiver);
+    /** Fields read by the {@code findSummary*} queries; description and updatedAt stay on disk. */
+    String SUMMARY_FIELDS =
+            "{ 'sender': 1, 'receiver': 1, 'amount': 1, 'currency': 1, 'status': 1,"
+                    + " 'createdAt': 1 }";
 
-    List<TransactionDocument> findByStatus(Transaction.TransactionStatus status);
+    @Query(
+            value =
+                    "{ $or: [ { 'createdAt': { $lt: ?0 } },"
+                            + " { 'createdAt': ?0, '_id': { $lt: ?1 } } ] }",
+            sort = NEWEST_FIRST)
+    List<TransactionDocument> findPage(LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            value =
+                    "{ 'sender': ?0, $or: [ { 'createdAt': { $lt: ?1 } },"
+                            + " { 'createdAt': ?1, '_id': { $lt: ?2 } } ] }",
+            sort = NEWEST_FIRST)
+    List<TransactionDocument> findPageBySender(
+            String sender, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            value =
+                    "{ 'receiver': ?0, $or: [ { 'createdAt': { $lt: ?1 } },"
+                            + " { 'createdAt': ?1, '_id': { $lt: ?2 } } ] }",
+            sort = NEWEST_FIRST)
+    List<TransactionDocument> findPageByReceiver(
+            String receiver, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            value =
+                    "{ 'status': ?0, $or: [ { 'createdAt': { $lt: ?1 } },"
+                            + " { 'createdAt': ?1, '_id': { $lt: ?2 } } ] }",
+            sort = NEWEST_FIRST)
+    List<TransactionDocument> findPageByStatus(
+            Transaction.TransactionStatus status, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            value =
+                    "{ $or: [ { 'createdAt': { $lt: ?0 } },"
+                            + " { 'createdAt': ?0, '_id': { $lt: ?1 } } ] }",
+            fields = SUMMARY_FIELDS,
+            sort = NEWEST_FIRST)
+    List<TransactionDocument> findSummaryPage(LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            value =
+                    "{ 'sender': ?0, $or: [ { 'createdAt': { $lt: ?1 } },"
+                            + " { 'createdAt': ?1, '_id': { $lt: ?2 } } ] }",
+            fields = SUMMARY_FIELDS,
+            sort = NEWEST_FIRST)
+    List<TransactionDocument> findSummaryPageBySender(
+            String sender, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            value =
+                    "{ 'receiver': ?0, $or: [ { 'createdAt': { $lt: ?1 } },"
+                            + " { 'createdAt': ?1, '_id': { $lt: ?2 } } ] }",
+            fields = SUMMARY_FIELDS,
+            sort = NEWEST_FIRST)
+    List<TransactionDocument> findSummaryPageByReceiver(
+            String receiver, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            value =
+                    "{ 'status': ?0, $or: [ { 'createdAt': { $lt: ?1 } },"
+                            + " { 'createdAt': ?1, '_id': { $lt: ?2 } } ] }",
+            fields = SUMMARY_FIELDS,
+            sort = NEWEST_FIRST)
+    List<TransactionDocument> findSummaryPageByStatus(
+            Transaction.TransactionStatus status, LocalDateTime createdAt, Long id, Limit limit);
 }
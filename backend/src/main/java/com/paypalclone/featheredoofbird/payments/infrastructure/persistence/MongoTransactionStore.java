@@ -1,25 +1,40 @@
 package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
 
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionCursor;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionFilter;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummary;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
 public class MongoTransactionStore implements TransactionDataStore {
 
+    /** Documents fetched per cursor round trip while streaming. */
+    static final int STREAM_BATCH_SIZE = 1_000;
+
     private final MongoTransactionRepository mongoTransactionRepository;
+    private final MongoOperations mongoOperations;
     private final TransactionDocumentMapper transactionDocumentMapper =
             new TransactionDocumentMapper();
 
     @Override
-    public List<Transaction> findAll() {
-        return mongoTransactionRepository.findAll().stream()
-                .map(transactionDocumentMapper::toEntity)
-                .collect(Collectors.toList());
+    public List<Transaction> findAll(TransactionCursor after, int limit) {
+        return toEntities(
+                mongoTransactionRepository.findPage(
+                        after.createdAt(), after.id(), Limit.of(limit)));
     }
 
     @Override
@@ -28,24 +43,70 @@ public class MongoTransactionStore implements TransactionDataStore {
     }
 
     @Override
-    public List<Transaction> findBySender(String sender) {
-        return mongoTransactionRepository.findBySender(sender).stream()
-                .map(transactionDocumentMapper::toEntity)
-                .collect(Collectors.toList());
+    public List<Transaction> findBySender(String sender, TransactionCursor after, int limit) {
+        return toEntities(
+                mongoTransactionRepository.findPageBySender(
+                        sender, after.createdAt(), after.id(), Limit.of(limit)));
+    }
+
+    @Override
+    public List<Transaction> findByReceiver(String receiver, TransactionCursor after, int limit) {
+        return toEntities(
+                mongoTransactionRepository.findPageByReceiver(
+                        receiver, after.createdAt(), after.id(), Limit.of(limit)));
+    }
+
+    @Override
+    public List<Transaction> findByStatus(
+            Transaction.TransactionStatus status, TransactionCursor after, int limit) {
+        return toEntities(
+                mongoTransactionRepository.findPageByStatus(
+                        status, after.createdAt(), after.id(), Limit.of(limit)));
     }
 
     @Override
-    public List<Transaction> findByReceiver(String receiver) {
-        return mongoTransactionRepository.findByReceiver(receiver).stream()
-                .map(transactionDocumentMapper::toEntity)
-                .collect(Collectors.toList());
+    public List<TransactionSummary> findAllSummaries(TransactionCursor after, int limit) {
+        return toSummaries(
+                mongoTransactionRepository.findSummaryPage(
+                        after.createdAt(), after.id(), Limit.of(limit)));
     }
 
     @Override
-    public List<Transaction> findByStatus(Transaction.TransactionStatus status) {
-        return mongoTransactionRepository.findByStatus(status).stream()
-                .map(transactionDocumentMapper::toEntity)
-                .collect(Collectors.toList());
+    public List<TransactionSummary> findSummariesBySender(
+            String sender, TransactionCursor after, int limit) {
+        return toSummaries(
+                mongoTransactionRepository.findSummaryPageBySender(
+                        sender, after.createdAt(), after.id(), Limit.of(limit)));
+    }
+
+    @Override
+    public List<TransactionSummary> findSummariesByReceiver(
+            String receiver, TransactionCursor after, int limit) {
+        return toSummaries(
+                mongoTransactionRepository.findSummaryPageByReceiver(
+                        receiver, after.createdAt(), after.id(), Limit.of(limit)));
+    }
+
+    @Override
+    public List<TransactionSummary> findSummariesByStatus(
+            Transaction.TransactionStatus status, TransactionCursor after, int limit) {
+        return toSummaries(
+                mongoTransactionRepository.findSummaryPageByStatus(
+                        status, after.createdAt(), after.id(), Limit.of(limit)));
+    }
+
+    /**
+     * Streams every matching transaction in {@code (createdAt, id)} order from a server-side
+     * cursor, holding only one batch in memory at a time. The caller must close the returned
+     * stream.
+     */
+    public Stream<Transaction> stream(TransactionFilter filter) {
+        Query query =
+                Query.query(criteria(filter))
+                        .with(Sort.by("createdAt", "id"))
+                        .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoOperations.stream(query, TransactionDocument.class)
+                .map(transactionDocumentMapper::toEntity);
     }
 
     @Override
@@ -59,4 +120,67 @@ public class MongoTransactionStore implements TransactionDataStore {
     public void deleteById(Long id) {
         mongoTransactionRepository.deleteById(id);
     }
+
+    /** Read-model documents of {@code ids} as they are before a projection replaces them. */
+    public List<TransactionDocument> findDocuments(Collection<Long> ids) {
+        return mongoTransactionRepository.findAllById(ids);
+    }
+
+    /**
+     * Applies a projection batch as a single unordered bulk write: upserts the current state of
+     * {@code upserts} and removes {@code deletedIds}. Replays are idempotent.
+     */
+    public void applyProjection(Collection<Transaction> upserts, Collection<Long> deletedIds) {
+        if (upserts.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk =
+                mongoOperations.bulkOps(
+                        BulkOperations.BulkMode.UNORDERED, TransactionDocument.class);
+        for (Transaction transaction : upserts) {
+            bulk.replaceOne(
+                    byId(transaction.getId()),
+                    transactionDocumentMapper.toDocument(transaction),
+                    FindAndReplaceOptions.options().upsert());
+        }
+        for (Long id : deletedIds) {
+            bulk.remove(byId(id));
+        }
+        bulk.execute();
+    }
+
+    private List<Transaction> toEntities(List<TransactionDocument> documents) {
+        return documents.stream().map(transactionDocumentMapper::toEntity).toList();
+    }
+
+    private List<TransactionSummary> toSummaries(List<TransactionDocument> documents) {
+        return documents.stream().map(transactionDocumentMapper::toSummary).toList();
+    }
+
+    private Query byId(Long id) {
+        return Query.query(Criteria.where("id").is(id));
+    }
+
+    private Criteria criteria(TransactionFilter filter) {
+        Criteria criteria = new Criteria();
+        if (filter.sender() != null) {
+            criteria.and("sender").is(filter.sender());
+        }
+        if (filter.receiver() != null) {
+            criteria.and("receiver").is(filter.receiver());
+        }
+        if (filter.status() != null) {
+            criteria.and("status").is(filter.status());
+        }
+        if (filter.from() != null || filter.to() != null) {
+            Criteria createdAt = criteria.and("createdAt");
+            if (filter.from() != null) {
+                createdAt.gte(filter.from());
+            }
+            if (filter.to() != null) {
+                createdAt.lt(filter.to());
+            }
+        }
+        return criteria;
+    }
 }
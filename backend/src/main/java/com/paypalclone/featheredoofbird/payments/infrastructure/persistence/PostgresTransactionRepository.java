@@ -1,16 +1,103 @@
 package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
 
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummary;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Keyset page queries over the monthly-partitioned {@code transactions} table.
+ *
+ * <p>Each page query repeats the cursor's {@code createdAt} as a plain upper bound next to the row
+ * comparison: Postgres does not prune partitions on row comparisons, but does on {@code created_at
+ * <= ?}, so later pages skip every partition newer than the cursor.
+ */
 @Repository
 public interface PostgresTransactionRepository extends JpaRepository<Transaction, Long> {
 
-    List<Transaction> findBySender(String sender);
+    /** Constructor expression for {@link TransactionSummary} reads; skips the unused columns. */
+    String SUMMARY =
+            "select new com.paypalclone.featheredoofbird.payments.domain.TransactionSummary("
+                    + "t.id, t.sender, t.receiver, t.amount, t.currency, t.status, t.createdAt)"
+                    + " from Transaction t";
 
-    List<Transaction> findByReceiver(String receiver);
+    @Query(
+            """
+            select t from Transaction t
+            where t.createdAt <= :createdAt and (t.createdAt, t.id) < (:createdAt, :id)
+            order by t.createdAt desc, t.id desc
+            """)
+    List<Transaction> findPage(LocalDateTime createdAt, Long id, Limit limit);
 
-    List<Transaction> findByStatus(Transaction.TransactionStatus status);
+    @Query(
+            """
+            select t from Transaction t
+            where t.sender = :sender and t.createdAt <= :createdAt
+                and (t.createdAt, t.id) < (:createdAt, :id)
+            order by t.createdAt desc, t.id desc
+            """)
+    List<Transaction> findPageBySender(
+            String sender, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            """
+            select t from Transaction t
+            where t.receiver = :receiver and t.createdAt <= :createdAt
+                and (t.createdAt, t.id) < (:createdAt, :id)
+            order by t.createdAt desc, t.id desc
+            """)
+    List<Transaction> findPageByReceiver(
+            String receiver, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            """
+            select t from Transaction t
+            where t.status = :status and t.createdAt <= :createdAt
+                and (t.createdAt, t.id) < (:createdAt, :id)
+            order by t.createdAt desc, t.id desc
+            """)
+    List<Transaction> findPageByStatus(
+            Transaction.TransactionStatus status, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            SUMMARY
+                    + """
+                     where t.createdAt <= :createdAt and (t.createdAt, t.id) < (:createdAt, :id)
+                    order by t.createdAt desc, t.id desc
+                    """)
+    List<TransactionSummary> findSummaryPage(LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            SUMMARY
+                    + """
+                     where t.sender = :sender and t.createdAt <= :createdAt
+                        and (t.createdAt, t.id) < (:createdAt, :id)
+                    order by t.createdAt desc, t.id desc
+                    """)
+    List<TransactionSummary> findSummaryPageBySender(
+            String sender, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            SUMMARY
+                    + """
+                     where t.receiver = :receiver and t.createdAt <= :createdAt
+                        and (t.createdAt, t.id) < (:createdAt, :id)
+                    order by t.createdAt desc, t.id desc
+                    """)
+    List<TransactionSummary> findSummaryPageByReceiver(
+            String receiver, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(
+            SUMMARY
+                    + """
+                     where t.status = :status and t.createdAt <= :createdAt
+                        and (t.createdAt, t.id) < (:createdAt, :id)
+                    order by t.createdAt desc, t.id desc
+                    """)
+    List<TransactionSummary> findSummaryPageByStatus(
+            Transaction.TransactionStatus status, LocalDateTime createdAt, Long id, Limit limit);
 }
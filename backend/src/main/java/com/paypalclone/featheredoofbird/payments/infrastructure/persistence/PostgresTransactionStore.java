@@ -1,20 +1,39 @@
 package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
 
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionCursor;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummary;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import lombok.RequiredArgsConstructor;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
-@RequiredArgsConstructor
 public class PostgresTransactionStore implements TransactionDataStore {
 
     private final PostgresTransactionRepository postgresTransactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresTransactionStore(
+            PostgresTransactionRepository postgresTransactionRepository, DataSource dataSource) {
+        this.postgresTransactionRepository = postgresTransactionRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
 
     @Override
-    public List<Transaction> findAll() {
-        return postgresTransactionRepository.findAll();
+    public List<Transaction> findAll(TransactionCursor after, int limit) {
+        return postgresTransactionRepository.findPage(
+                after.createdAt(), after.id(), Limit.of(limit));
     }
 
     @Override
@@ -23,18 +42,53 @@ public class PostgresTransactionStore implements TransactionDataStore {
     }
 
     @Override
-    public List<Transaction> findBySender(String sender) {
-        return postgresTransactionRepository.findBySender(sender);
+    public List<Transaction> findBySender(String sender, TransactionCursor after, int limit) {
+        return postgresTransactionRepository.findPageBySender(
+                sender, after.createdAt(), after.id(), Limit.of(limit));
+    }
+
+    @Override
+    public List<Transaction> findByReceiver(String receiver, TransactionCursor after, int limit) {
+        return postgresTransactionRepository.findPageByReceiver(
+                receiver, after.createdAt(), after.id(), Limit.of(limit));
+    }
+
+    @Override
+    public List<Transaction> findByStatus(
+            Transaction.TransactionStatus status, TransactionCursor after, int limit) {
+        return postgresTransactionRepository.findPageByStatus(
+                status, after.createdAt(), after.id(), Limit.of(limit));
+    }
+
+    @Override
+    public List<TransactionSummary> findAllSummaries(TransactionCursor after, int limit) {
+        return postgresTransactionRepository.findSummaryPage(
+                after.createdAt(), after.id(), Limit.of(limit));
+    }
+
+    @Override
+    public List<TransactionSummary> findSummariesBySender(
+            String sender, TransactionCursor after, int limit) {
+        return postgresTransactionRepository.findSummaryPageBySender(
+                sender, after.createdAt(), after.id(), Limit.of(limit));
     }
 
     @Override
-    public List<Transaction> findByReceiver(String receiver) {
-        return postgresTransactionRepository.findByReceiver(receiver);
+    public List<TransactionSummary> findSummariesByReceiver(
+            String receiver, TransactionCursor after, int limit) {
+        return postgresTransactionRepository.findSummaryPageByReceiver(
+                receiver, after.createdAt(), after.id(), Limit.of(limit));
     }
 
     @Override
-    public List<Transaction> findByStatus(Transaction.TransactionStatus status) {
-        return postgresTransactionRepository.findByStatus(status);
+    public List<TransactionSummary> findSummariesByStatus(
+            Transaction.TransactionStatus status, TransactionCursor after, int limit) {
+        return postgresTransactionRepository.findSummaryPageByStatus(
+                status, after.createdAt(), after.id(), Limit.of(limit));
+    }
+
+    public List<Transaction> findAllById(Iterable<Long> ids) {
+        return postgresTransactionRepository.findAllById(ids);
     }
 
     @Override
@@ -42,8 +96,86 @@ public class PostgresTransactionStore implements TransactionDataStore {
         return postgresTransactionRepository.save(transaction);
     }
 
+    public List<Transaction> saveAll(List<Transaction> transactions) {
+        return postgresTransactionRepository.saveAll(transactions);
+    }
+
+    /**
+     * Sets the status of those {@code ids} whose status is still {@code from} to {@code to} and
+     * returns them in their new state; ids that are missing or in another status are left untouched
+     * and omitted.
+     *
+     * <p>A single {@code update ... where id = any(?) and status = ? returning ...}: the rows are
+     * matched, checked and written in one statement, so a transition costs one round trip however
+     * many ids it covers, and a row another caller has already moved simply does not match. It runs
+     * on the JDBC connection of the surrounding transaction and bypasses the persistence context.
+     * The read model follows through the outbox, like every other write.
+     */
+    public List<Transaction> transitionStatus(
+            Collection<Long> ids,
+            Transaction.TransactionStatus from,
+            Transaction.TransactionStatus to) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement =
+                            connection.prepareStatement(
+                                    """
+                                    update transactions set status = ?, updated_at = ?
+                                    where id = any(?) and status = ?
+                                    returning id, sender, receiver, amount, currency, description,
+                                        created_at, updated_at, status
+                                    """);
+                    statement.setString(1, to.name());
+                    statement.setObject(2, LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+                    statement.setArray(3, connection.createArrayOf("bigint", ids.toArray()));
+                    statement.setString(4, from.name());
+                    return statement;
+                },
+                (rs, rowNum) -> transaction(rs));
+    }
+
+    /** Current status of each of {@code ids} that exists. */
+    public Map<Long, Transaction.TransactionStatus> findStatuses(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return jdbcTemplate
+                .query(
+                        connection -> {
+                            PreparedStatement statement =
+                                    connection.prepareStatement(
+                                            "select id, status from transactions where id = any(?)");
+                            statement.setArray(
+                                    1, connection.createArrayOf("bigint", ids.toArray()));
+                            return statement;
+                        },
+                        (rs, rowNum) ->
+                                Map.entry(
+                                        rs.getLong("id"),
+                                        Transaction.TransactionStatus.valueOf(
+                                                rs.getString("status"))))
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
     @Override
     public void deleteById(Long id) {
         postgresTransactionRepository.deleteById(id);
     }
+
+    private static Transaction transaction(ResultSet rs) throws SQLException {
+        return new Transaction(
+                rs.getLong("id"),
+                rs.getString("sender"),
+                rs.getString("receiver"),
+                rs.getBigDecimal("amount"),
+                rs.getString("currency"),
+                rs.getString("description"),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("updated_at", LocalDateTime.class),
+                Transaction.TransactionStatus.valueOf(rs.getString("status")));
+    }
 }
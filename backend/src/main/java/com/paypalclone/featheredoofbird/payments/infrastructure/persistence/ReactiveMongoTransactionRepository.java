@@ -0,0 +1,30 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking queries on the Mongo read model, served by the reactive driver. The driver fetches
+ * the next cursor batch only once the subscriber has requested more documents, and a cancelled
+ * subscription kills the cursor.
+ */
+@Repository
+public interface ReactiveMongoTransactionRepository
+        extends ReactiveMongoRepository<TransactionDocument, Long> {
+
+    /** Most documents fetched per cursor round trip by the {@code stream*} queries. */
+    int STREAM_CURSOR_BATCH_SIZE = 256;
+
+    /** Every transaction sent by {@code sender}, newest first. */
+    @Query(value = "{ 'sender': ?0 }", sort = MongoTransactionRepository.NEWEST_FIRST)
+    @Meta(cursorBatchSize = STREAM_CURSOR_BATCH_SIZE)
+    Flux<TransactionDocument> streamBySender(String sender);
+
+    /** Every transaction received by {@code receiver}, newest first. */
+    @Query(value = "{ 'receiver': ?0 }", sort = MongoTransactionRepository.NEWEST_FIRST)
+    @Meta(cursorBatchSize = STREAM_CURSOR_BATCH_SIZE)
+    Flux<TransactionDocument> streamByReceiver(String receiver);
+}
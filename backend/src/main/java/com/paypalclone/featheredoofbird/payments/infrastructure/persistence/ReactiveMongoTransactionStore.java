@@ -0,0 +1,38 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Streams transactions from the Mongo read model as demand-driven {@link Flux}es.
+ *
+ * <p>Each flux is a cursor of {@link ReactiveMongoTransactionRepository} on the reactive driver, so
+ * no thread is held while a reader waits: the driver fetches another batch only when the subscriber
+ * has requested more documents, and a slow reader pauses the cursor instead of buffering. The
+ * cursor is closed on completion, error and cancellation. Reads are eventually consistent with
+ * Postgres, like every other Mongo-backed read.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveMongoTransactionStore {
+
+    private final ReactiveMongoTransactionRepository reactiveMongoTransactionRepository;
+    private final TransactionDocumentMapper transactionDocumentMapper =
+            new TransactionDocumentMapper();
+
+    /** Every transaction sent by {@code sender}, newest first. */
+    public Flux<Transaction> streamBySender(String sender) {
+        return reactiveMongoTransactionRepository
+                .streamBySender(sender)
+                .map(transactionDocumentMapper::toEntity);
+    }
+
+    /** Every transaction received by {@code receiver}, newest first. */
+    public Flux<Transaction> streamByReceiver(String receiver) {
+        return reactiveMongoTransactionRepository
+                .streamByReceiver(receiver)
+                .map(transactionDocumentMapper::toEntity);
+    }
+}
@@ -1,20 +1,44 @@
 package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
 
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionCursor;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummary;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Storage port shared by the Postgres write model and the Mongo read model.
+ *
+ * <p>List reads are keyset-paginated: they return at most {@code limit} transactions that sort
+ * strictly after {@code after} in {@code (createdAt DESC, id DESC)} order, so every page is an
+ * index range scan of the same cost regardless of how deep the client has paged.
+ *
+ * <p>The {@code find*Summaries} variants page identically but read only the {@link
+ * TransactionSummary} fields.
+ */
 public interface TransactionDataStore {
 
-    List<Transaction> findAll();
+    List<Transaction> findAll(TransactionCursor after, int limit);
 
     Optional<Transaction> findById(Long id);
 
-    List<Transaction> findBySender(String sender);
+    List<Transaction> findBySender(String sender, TransactionCursor after, int limit);
 
-    List<Transaction> findByReceiver(String receiver);
+    List<Transaction> findByReceiver(String receiver, TransactionCursor after, int limit);
 
-    List<Transaction> findByStatus(Transaction.TransactionStatus status);
+    List<Transaction> findByStatus(
+            Transaction.TransactionStatus status, TransactionCursor after, int limit);
+
+    List<TransactionSummary> findAllSummaries(TransactionCursor after, int limit);
+
+    List<TransactionSummary> findSummariesBySender(
+            String sender, TransactionCursor after, int limit);
+
+    List<TransactionSummary> findSummariesByReceiver(
+            String receiver, TransactionCursor after, int limit);
+
+    List<TransactionSummary> findSummariesByStatus(
+            Transaction.TransactionStatus status, TransactionCursor after, int limit);
 
     Transaction save(Transaction transaction);
 
@@ -0,0 +1,128 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Wraps every {@link TransactionDataStore} bean in a decorator that times each public call.
+ *
+ * <p>Calls are recorded in {@code transactions.store.requests}, tagged with the store ({@code
+ * postgres}, {@code mongo}), the method and the outcome, with a percentile histogram so that
+ * latency quantiles can be aggregated across nodes. Failed calls also count towards {@code
+ * transactions.store.errors} with the exception type, and are rethrown unchanged. The decorator
+ * subclasses the store, so store-specific methods such as batch writes and projection are timed
+ * alongside the port methods; methods returning a lazy stream are timed until the cursor is open.
+ * Meters are registered on the first call of each method and outcome and reused after that, so a
+ * timed call costs a map lookup rather than a registry lookup.
+ */
+@Component
+public class TransactionDataStoreInstrumentation implements BeanPostProcessor {
+
+    static final String REQUESTS = "transactions.store.requests";
+
+    static final String ERRORS = "transactions.store.errors";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private volatile MeterRegistry registry;
+
+    /** The registry is looked up on first use so that this post-processor does not create it. */
+    public TransactionDataStoreInstrumentation(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof TransactionDataStore)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new Interceptor(store(bean)));
+        return proxyFactory.getProxy();
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry current = registry;
+        if (current == null) {
+            current = meterRegistry.getObject();
+            registry = current;
+        }
+        return current;
+    }
+
+    /** {@code PostgresTransactionStore} becomes {@code postgres}. */
+    static String store(Object bean) {
+        return ClassUtils.getUserClass(bean)
+                .getSimpleName()
+                .replace("TransactionStore", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private final class Interceptor implements MethodInterceptor {
+
+        private final String store;
+        private final Map<Method, Timer> successes = new ConcurrentHashMap<>();
+        private final Map<Method, Timer> failures = new ConcurrentHashMap<>();
+        private final Map<Failure, Counter> errors = new ConcurrentHashMap<>();
+
+        private Interceptor(String store) {
+            this.store = store;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            MeterRegistry registry = registry();
+            Timer.Sample sample = Timer.start(registry);
+            try {
+                Object result = invocation.proceed();
+                sample.stop(successes.computeIfAbsent(method, m -> timer(registry, m, "success")));
+                return result;
+            } catch (Throwable e) {
+                sample.stop(failures.computeIfAbsent(method, m -> timer(registry, m, "error")));
+                errors.computeIfAbsent(
+                                new Failure(method, e.getClass()),
+                                failure -> errorCounter(registry, failure))
+                        .increment();
+                throw e;
+            }
+        }
+
+        private Timer timer(MeterRegistry registry, Method method, String outcome) {
+            return Timer.builder(REQUESTS)
+                    .description("Latency of transaction store calls")
+                    .tag("store", store)
+                    .tag("method", method.getName())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private Counter errorCounter(MeterRegistry registry, Failure failure) {
+            return Counter.builder(ERRORS)
+                    .description("Transaction store calls that threw")
+                    .tag("store", store)
+                    .tag("method", failure.method().getName())
+                    .tag("exception", failure.exception().getSimpleName())
+                    .register(registry);
+        }
+    }
+
+    private record Failure(Method method, Class<?> exception) {}
+}
@@ -7,9 +7,30 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+/**
+ * Mongo read model of a {@link Transaction}.
+ *
+ * <p>Each compound index matches one list query shape in {@link MongoTransactionRepository}: an
+ * equality prefix followed by the {@code (createdAt, _id)} keyset, so paged and streamed reads are
+ * served by an index range scan without an in-memory sort.
+ */
 @Document(collection = "transactions")
+@CompoundIndexes({
+    @CompoundIndex(name = "created_at_id", def = "{ 'createdAt': -1, '_id': -1 }"),
+    @CompoundIndex(
+            name = "sender_created_at_id",
+            def = "{ 'sender': 1, 'createdAt': -1, '_id': -1 }"),
+    @CompoundIndex(
+            name = "receiver_created_at_id",
+            def = "{ 'receiver': 1, 'createdAt': -1, '_id': -1 }"),
+    @CompoundIndex(
+            name = "status_created_at_id",
+            def = "{ 'status': 1, 'createdAt': -1, '_id': -1 }")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,9 +1,19 @@
 package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
 
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummary;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 
 public class TransactionDocumentMapper {
 
+    /**
+     * Columns read by {@link #toDocument(ResultSet)}, for plain JDBC scans of {@code transactions}.
+     */
+    public static final String COLUMNS =
+            "id, sender, receiver, amount, currency, description, created_at, updated_at, status";
+
     public TransactionDocument toDocument(Transaction transaction) {
         if (transaction == null) {
             return null;
@@ -36,4 +46,35 @@ public class TransactionDocumentMapper {
         transaction.setStatus(document.getStatus());
         return transaction;
     }
+
+    /** Maps a full or {@code SUMMARY_FIELDS}-restricted document to a summary. */
+    public TransactionSummary toSummary(TransactionDocument document) {
+        if (document == null) {
+            return null;
+        }
+        return new TransactionSummary(
+                document.getId(),
+                document.getSender(),
+                document.getReceiver(),
+                document.getAmount(),
+                document.getCurrency(),
+                document.getStatus(),
+                document.getCreatedAt());
+    }
+
+    /** Maps a {@link #COLUMNS} row straight to a document, skipping the JPA entity. */
+    public TransactionDocument toDocument(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new TransactionDocument(
+                rs.getLong("id"),
+                rs.getString("sender"),
+                rs.getString("receiver"),
+                rs.getBigDecimal("amount"),
+                rs.getString("currency"),
+                rs.getString("description"),
+                createdAt == null ? null : createdAt.toLocalDateTime(),
+                updatedAt == null ? null : updatedAt.toLocalDateTime(),
+                Transaction.TransactionStatus.valueOf(rs.getString("status")));
+    }
 }
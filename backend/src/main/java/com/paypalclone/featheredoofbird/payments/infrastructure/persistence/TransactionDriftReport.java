@@ -0,0 +1,34 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Outcome of one {@link TransactionDriftVerifier} run. Ids whose change was still waiting in the
+ * outbox are counted in {@code inFlight} rather than reported as drift.
+ *
+ * @param truncated the run stopped descending after {@code maxReportedIds} differences; a rebuild
+ *     is likely cheaper than repairing id by id
+ * @param repaired differing ids were queued on the outbox for re-projection
+ */
+public record TransactionDriftReport(
+        Instant startedAt,
+        Duration duration,
+        long bucketsCompared,
+        long rowsCompared,
+        List<Long> missingInMongo,
+        List<Long> extraInMongo,
+        List<Long> differing,
+        long inFlight,
+        boolean truncated,
+        boolean repaired) {
+
+    public int driftedIds() {
+        return missingInMongo.size() + extraInMongo.size() + differing.size();
+    }
+
+    public boolean hasDrift() {
+        return driftedIds() > 0;
+    }
+}
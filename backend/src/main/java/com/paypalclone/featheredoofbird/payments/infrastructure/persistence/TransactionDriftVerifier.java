@@ -0,0 +1,409 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import com.mongodb.client.MongoCollection;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Detects divergence between Postgres and the Mongo read model without comparing every row.
+ *
+ * <p>The id range is split into buckets, and each side computes one checksum per bucket in a single
+ * grouped query: a SQL aggregate on Postgres and an aggregation pipeline on Mongo, so only the
+ * checksums cross the wire. A checksum is the row count plus sums of the id, the {@code updatedAt}
+ * epoch millis (exact decimals on both sides), the amount, a status code and the text lengths;
+ * every write bumps {@code updatedAt}, so a missed update, insert or delete changes the bucket's
+ * checksum. Buckets that differ are split again, Merkle-style, until they are small enough to
+ * compare row by row.
+ *
+ * <p>Runs are serialised across nodes with an advisory lock. Differences whose id still has an
+ * outbox entry are the projector's normal lag and are not reported. Documents created before the
+ * oldest attached partition belong to archived partitions; Postgres no longer holds them, so they
+ * are left out of the comparison rather than reported (and repaired) as extra.
+ */
+@Component
+public class TransactionDriftVerifier {
+
+    static final long DRIFT_LOCK_KEY = 0x6472696674L;
+
+    private static final String CHECKSUM_SQL =
+            """
+            select (id - ?) / ? as bucket,
+                   count(*),
+                   sum(id),
+                   coalesce(sum(floor(extract(epoch from updated_at) * 1000)), 0),
+                   coalesce(sum(amount), 0),
+                   sum(case status %s else 0 end),
+                   sum(length(sender) + length(receiver) + length(currency)
+                       + coalesce(length(description), 0))
+            from transactions
+            where id >= ? and id < ?
+            group by bucket
+            """
+                    .formatted(
+                            Arrays.stream(Transaction.TransactionStatus.values())
+                                    .map(s -> "when '" + s.name() + "' then " + statusCode(s))
+                                    .collect(Collectors.joining(" ")));
+
+    private final MongoOperations mongoOperations;
+    private final TransactionOutboxRepository transactionOutboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionPartitionManager transactionPartitionManager;
+    private final AppConfig.Drift config;
+    private final TransactionDocumentMapper transactionDocumentMapper =
+            new TransactionDocumentMapper();
+
+    public TransactionDriftVerifier(
+            MongoOperations mongoOperations,
+            TransactionOutboxRepository transactionOutboxRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            TransactionPartitionManager transactionPartitionManager,
+            AppConfig appConfig) {
+        this.mongoOperations = mongoOperations;
+        this.transactionOutboxRepository = transactionOutboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionPartitionManager = transactionPartitionManager;
+        this.config = appConfig.payments().drift();
+    }
+
+    /** Half-open id range {@code [from, to)}. */
+    record IdRange(long from, long to) {
+
+        long size() {
+            return to - from;
+        }
+    }
+
+    /** Order-independent digest of the rows in one bucket. */
+    record Checksum(
+            long count,
+            long idSum,
+            BigDecimal updatedAtSum,
+            BigDecimal amountSum,
+            long statusSum,
+            long textLength) {
+
+        Checksum {
+            updatedAtSum = updatedAtSum.stripTrailingZeros();
+            amountSum = amountSum.stripTrailingZeros();
+        }
+    }
+
+    /**
+     * Compares both stores and, if {@code app.payments.drift.repair} is on, queues differing ids on
+     * the outbox.
+     *
+     * @return the report, or empty if another node is running a verification
+     */
+    public Optional<TransactionDriftReport> verify() {
+        return transactionTemplate.execute(
+                status -> {
+                    if (!transactionOutboxRepository.tryAdvisoryLock(DRIFT_LOCK_KEY)) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(run());
+                });
+    }
+
+    private TransactionDriftReport run() {
+        Instant startedAt = Instant.now();
+        Set<Long> missing = new HashSet<>();
+        Set<Long> extra = new HashSet<>();
+        Set<Long> differing = new HashSet<>();
+        long buckets = 0;
+        long rows = 0;
+        Optional<LocalDateTime> archivedBefore = transactionPartitionManager.archivedBefore();
+
+        Deque<IdRange> pending = new ArrayDeque<>();
+        bounds(archivedBefore).ifPresent(pending::push);
+        while (!pending.isEmpty()
+                && missing.size() + extra.size() + differing.size() < config.maxReportedIds()) {
+            IdRange range = pending.pop();
+            if (range.size() <= config.leafSize()) {
+                rows += compareRows(range, archivedBefore, missing, extra, differing);
+                continue;
+            }
+            long width = Math.ceilDiv(range.size(), config.fanout());
+            Map<Long, Checksum> postgres = postgresChecksums(range, width);
+            Map<Long, Checksum> mongo = mongoChecksums(range, width, archivedBefore);
+            Set<Long> keys = new HashSet<>(postgres.keySet());
+            keys.addAll(mongo.keySet());
+            buckets += keys.size();
+            for (Long bucket : keys) {
+                if (!Objects.equals(postgres.get(bucket), mongo.get(bucket))) {
+                    long from = range.from() + bucket * width;
+                    pending.push(new IdRange(from, Math.min(from + width, range.to())));
+                }
+            }
+        }
+        boolean truncated = !pending.isEmpty();
+
+        Set<Long> drifted = new HashSet<>(missing);
+        drifted.addAll(extra);
+        drifted.addAll(differing);
+        Set<Long> inFlight =
+                drifted.isEmpty()
+                        ? Set.of()
+                        : transactionOutboxRepository.findPendingTransactionIds(drifted);
+        drifted.removeAll(inFlight);
+        boolean repair = config.repair() && !drifted.isEmpty();
+        if (repair) {
+            transactionOutboxRepository.saveAll(
+                    drifted.stream().map(TransactionOutboxEntry::new).toList());
+        }
+        return new TransactionDriftReport(
+                startedAt,
+                Duration.between(startedAt, Instant.now()),
+                buckets,
+                rows,
+                sorted(missing, inFlight),
+                sorted(extra, inFlight),
+                sorted(differing, inFlight),
+                inFlight.size(),
+                truncated,
+                repair);
+    }
+
+    /** The smallest range covering the ids of both stores, or empty if both are empty. */
+    private Optional<IdRange> bounds(Optional<LocalDateTime> archivedBefore) {
+        Long[] postgres = new Long[2];
+        jdbcTemplate.query(
+                "select min(id), max(id) from transactions",
+                rs -> {
+                    postgres[0] = rs.getObject(1, Long.class);
+                    postgres[1] = rs.getObject(2, Long.class);
+                });
+        Long mongoMin = mongoBoundary(Sort.Direction.ASC, archivedBefore);
+        Long mongoMax = mongoBoundary(Sort.Direction.DESC, archivedBefore);
+        Optional<Long> min =
+                Stream.of(postgres[0], mongoMin).filter(Objects::nonNull).min(Long::compare);
+        Optional<Long> max =
+                Stream.of(postgres[1], mongoMax).filter(Objects::nonNull).max(Long::compare);
+        return min.map(from -> new IdRange(from, max.orElseThrow() + 1));
+    }
+
+    private Long mongoBoundary(Sort.Direction direction, Optional<LocalDateTime> archivedBefore) {
+        Query query = new Query().with(Sort.by(direction, "id")).limit(1);
+        archivedBefore.ifPresent(from -> query.addCriteria(Criteria.where("createdAt").gte(from)));
+        query.fields().include("id");
+        TransactionDocument document = mongoOperations.findOne(query, TransactionDocument.class);
+        return document == null ? null : document.getId();
+    }
+
+    private Map<Long, Checksum> postgresChecksums(IdRange range, long width) {
+        Map<Long, Checksum> checksums = new HashMap<>();
+        jdbcTemplate.query(
+                CHECKSUM_SQL,
+                rs -> {
+                    checksums.put(
+                            rs.getLong(1),
+                            new Checksum(
+                                    rs.getLong(2),
+                                    rs.getLong(3),
+                                    rs.getBigDecimal(4),
+                                    rs.getBigDecimal(5),
+                                    rs.getLong(6),
+                                    rs.getLong(7)));
+                },
+                range.from(),
+                width,
+                range.from(),
+                range.to());
+        return checksums;
+    }
+
+    /**
+     * Mongo side of {@link #CHECKSUM_SQL}. {@code LocalDateTime}s are stored as UTC dates (see
+     * {@code MongoConfig}), so their epoch millis equal what Postgres extracts from the {@code
+     * timestamp without time zone} column, with no zone on either side. The epoch millis are summed
+     * as decimals: a long overflows from about five million rows per bucket, and {@code $sum} would
+     * silently continue in doubles.
+     */
+    private Map<Long, Checksum> mongoChecksums(
+            IdRange range, long width, Optional<LocalDateTime> archivedBefore) {
+        List<Document> statusBranches = new ArrayList<>();
+        for (Transaction.TransactionStatus status : Transaction.TransactionStatus.values()) {
+            statusBranches.add(
+                    new Document("case", operator("$eq", "$status", status.name()))
+                            .append("then", statusCode(status)));
+        }
+        Document bucket =
+                new Document(
+                        "$floor",
+                        operator("$divide", operator("$subtract", "$_id", range.from()), width));
+        Document textLength =
+                operator(
+                        "$add",
+                        new Document("$strLenCP", "$sender"),
+                        new Document("$strLenCP", "$receiver"),
+                        new Document("$strLenCP", "$currency"),
+                        new Document("$strLenCP", operator("$ifNull", "$description", "")));
+        Document group =
+                new Document("_id", bucket)
+                        .append("count", sum(1))
+                        .append("idSum", sum("$_id"))
+                        .append(
+                                "updatedAtSum",
+                                sum(
+                                        new Document(
+                                                "$toDecimal",
+                                                operator(
+                                                        "$ifNull",
+                                                        new Document("$toLong", "$updatedAt"),
+                                                        0L))))
+                        .append("amountSum", sum(new Document("$toDecimal", "$amount")))
+                        .append(
+                                "statusSum",
+                                sum(
+                                        new Document(
+                                                "$switch",
+                                                new Document("branches", statusBranches)
+                                                        .append("default", 0))))
+                        .append("textLength", sum(textLength));
+        List<Document> pipeline =
+                List.of(
+                        new Document(
+                                "$match",
+                                attached(
+                                                Criteria.where("_id")
+                                                        .gte(range.from())
+                                                        .lt(range.to()),
+                                                archivedBefore)
+                                        .getCriteriaObject()),
+                        new Document("$group", group));
+        MongoCollection<Document> collection =
+                mongoOperations.getCollection(
+                        mongoOperations.getCollectionName(TransactionDocument.class));
+        Map<Long, Checksum> checksums = new HashMap<>();
+        for (Document result : collection.aggregate(pipeline).allowDiskUse(true)) {
+            checksums.put(
+                    ((Number) result.get("_id")).longValue(),
+                    new Checksum(
+                            ((Number) result.get("count")).longValue(),
+                            ((Number) result.get("idSum")).longValue(),
+                            decimal(result.get("updatedAtSum")),
+                            decimal(result.get("amountSum")),
+                            ((Number) result.get("statusSum")).longValue(),
+                            ((Number) result.get("textLength")).longValue()));
+        }
+        return checksums;
+    }
+
+    /** Compares a leaf range row by row and records the differing ids. */
+    private long compareRows(
+            IdRange range,
+            Optional<LocalDateTime> archivedBefore,
+            Set<Long> missing,
+            Set<Long> extra,
+            Set<Long> differing) {
+        Map<Long, TransactionDocument> rows = new HashMap<>();
+        jdbcTemplate.query(
+                "select "
+                        + TransactionDocumentMapper.COLUMNS
+                        + " from transactions where id >= ? and id < ?",
+                rs -> {
+                    TransactionDocument row = transactionDocumentMapper.toDocument(rs);
+                    rows.put(row.getId(), row);
+                },
+                range.from(),
+                range.to());
+        Map<Long, TransactionDocument> documents = new HashMap<>();
+        mongoOperations
+                .find(
+                        Query.query(
+                                attached(
+                                        Criteria.where("id").gte(range.from()).lt(range.to()),
+                                        archivedBefore)),
+                        TransactionDocument.class)
+                .forEach(document -> documents.put(document.getId(), document));
+        rows.forEach(
+                (id, row) -> {
+                    TransactionDocument document = documents.remove(id);
+                    if (document == null) {
+                        missing.add(id);
+                    } else if (!sameContent(row, document)) {
+                        differing.add(id);
+                    }
+                });
+        extra.addAll(documents.keySet());
+        return rows.size();
+    }
+
+    /**
+     * Narrows {@code criteria} to documents of transactions that Postgres still holds: those of
+     * archived partitions are kept in the read model and are not drift.
+     */
+    private static Criteria attached(Criteria criteria, Optional<LocalDateTime> archivedBefore) {
+        return archivedBefore.map(from -> criteria.and("createdAt").gte(from)).orElse(criteria);
+    }
+
+    static boolean sameContent(TransactionDocument row, TransactionDocument document) {
+        return Objects.equals(row.getSender(), document.getSender())
+                && Objects.equals(row.getReceiver(), document.getReceiver())
+                && Objects.equals(row.getCurrency(), document.getCurrency())
+                && Objects.equals(row.getDescription(), document.getDescription())
+                && row.getStatus() == document.getStatus()
+                && (row.getAmount() == null
+                        ? document.getAmount() == null
+                        : document.getAmount() != null
+                                && row.getAmount().compareTo(document.getAmount()) == 0)
+                && Objects.equals(millis(row.getCreatedAt()), millis(document.getCreatedAt()))
+                && Objects.equals(millis(row.getUpdatedAt()), millis(document.getUpdatedAt()));
+    }
+
+    private static LocalDateTime millis(LocalDateTime value) {
+        return value == null ? null : value.truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private static int statusCode(Transaction.TransactionStatus status) {
+        return status.ordinal() + 1;
+    }
+
+    private static Document sum(Object expression) {
+        return new Document("$sum", expression);
+    }
+
+    private static Document operator(String name, Object... arguments) {
+        return new Document(name, List.of(arguments));
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        return BigDecimal.valueOf(((Number) value).longValue());
+    }
+
+    private static List<Long> sorted(Set<Long> ids, Set<Long> exclude) {
+        return ids.stream().filter(id -> !exclude.contains(id)).sorted().toList();
+    }
+}
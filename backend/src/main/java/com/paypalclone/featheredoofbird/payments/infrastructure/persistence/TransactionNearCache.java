@@ -0,0 +1,91 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, TTL-evicted in-process cache of transactions by id.
+ *
+ * <p>Only hits are cached, so a lookup for an id that does not exist yet never hides the row once
+ * it has been created. Cached instances are shared between callers and must not be mutated. Hit,
+ * miss and eviction counts are published as {@code cache.*} meters tagged {@code
+ * cache=transactions.by-id}.
+ *
+ * <p>Loads run on the calling thread and outside any cache lock. Only a placeholder future is
+ * published under the lock, so a blocking Mongo call never pins a virtual thread's carrier, while
+ * concurrent lookups of the same id still share one load. An invalidation during a load discards
+ * the placeholder, so a value read before a write is returned to its caller but never cached.
+ */
+@Component
+public class TransactionNearCache {
+
+    static final String CACHE_NAME = "transactions.by-id";
+
+    private final AsyncCache<Long, Transaction> cache;
+
+    public TransactionNearCache(AppConfig appConfig, MeterRegistry meterRegistry) {
+        AppConfig.NearCache config = appConfig.payments().nearCache();
+        if (config.enabled()) {
+            cache =
+                    Caffeine.newBuilder()
+                            .maximumSize(config.maximumSize())
+                            .expireAfterWrite(config.ttl())
+                            .recordStats()
+                            .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        } else {
+            cache = null;
+        }
+    }
+
+    public Optional<Transaction> get(Long id, Function<Long, Optional<Transaction>> loader) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        CompletableFuture<Transaction> cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.ofNullable(cached.join());
+        }
+        CompletableFuture<Transaction> load = new CompletableFuture<>();
+        CompletableFuture<Transaction> concurrent = cache.asMap().putIfAbsent(id, load);
+        if (concurrent != null) {
+            return Optional.ofNullable(concurrent.join());
+        }
+        try {
+            Optional<Transaction> transaction = loader.apply(id);
+            load.complete(transaction.orElse(null));
+            return transaction;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void invalidate(Long id) {
+        if (cache != null) {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    public void invalidateAll(Collection<Long> ids) {
+        if (cache != null) {
+            cache.synchronous().invalidateAll(ids);
+        }
+    }
+
+    /** Drops every entry, e.g. after the read model collection has been replaced. */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.synchronous().invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Records that a transaction changed and must be re-projected into Mongo.
+ *
+ * <p>Entries are written in the same Postgres transaction as the change itself and carry only the
+ * transaction id: the projector re-reads the current row, so replaying or coalescing entries is
+ * always safe and a missing row means the transaction was deleted.
+ */
+@Entity
+@Table(name = "transaction_outbox")
+@Getter
+@NoArgsConstructor
+public class TransactionOutboxEntry {
+
+    static final String ID_SEQUENCE = "transaction_outbox_seq";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(
+            name = ID_SEQUENCE,
+            sequenceName = ID_SEQUENCE,
+            allocationSize = Transaction.ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "transaction_id", nullable = false, updatable = false)
+    private Long transactionId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public TransactionOutboxEntry(Long transactionId) {
+        this.transactionId = transactionId;
+        this.createdAt = Instant.now();
+    }
+}
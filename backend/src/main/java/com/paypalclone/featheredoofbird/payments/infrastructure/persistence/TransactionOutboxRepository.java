@@ -0,0 +1,31 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransactionOutboxRepository extends JpaRepository<TransactionOutboxEntry, Long> {
+
+    List<TransactionOutboxEntry> findByOrderByIdAsc(Limit limit);
+
+    Optional<TransactionOutboxEntry> findFirstByOrderByIdAsc();
+
+    /** Ids among {@code transactionIds} that still wait to be projected. */
+    @Query(
+            "select distinct e.transactionId from TransactionOutboxEntry e"
+                    + " where e.transactionId in :transactionIds")
+    Set<Long> findPendingTransactionIds(Collection<Long> transactionIds);
+
+    /**
+     * Takes a transaction-scoped advisory lock so that only one application node drains the outbox
+     * at a time, which keeps projection order equal to commit order.
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryLock(long key);
+}
@@ -0,0 +1,315 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the Postgres {@code transactions} table range-partitioned by month of {@code created_at}.
+ *
+ * <p>At startup, after Hibernate has updated the schema, a plain {@code transactions} table is
+ * converted once: it is renamed to {@code transactions_legacy}, a partitioned table with the same
+ * columns, a {@code (id, created_at)} primary key and the entity's indexes takes its name, and the
+ * old table is attached as the partition for everything before the month after its newest row.
+ * Attaching scans the old table once to validate the bound. Indexes added to the entity later are
+ * created on the partitioned table at the next startup; building one blocks writes to the table
+ * until it is done.
+ *
+ * <p>{@link #maintain()} then runs at startup and on {@code app.payments.partitioning.cron}: it
+ * creates the partitions of the current and the next {@code premadeMonths} months, and with a
+ * retention set detaches expired partitions into the archive schema. Archiving only moves rows out
+ * of the live table: their read-model documents and rollups are kept, and the drift check, read
+ * model rebuild and rollup backfill cover only what is still attached ({@link #archivedBefore()}).
+ * There is no default partition, so rows always land in a monthly partition and new partitions
+ * never have to scan one. All of it runs under an advisory lock, so only one node changes the
+ * layout at a time.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class TransactionPartitionManager implements InitializingBean, SchedulingConfigurer {
+
+    static final long PARTITION_LOCK_KEY = 0x7061727469746eL;
+
+    static final String TABLE = "transactions";
+
+    static final String LEGACY_PARTITION = "transactions_legacy";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final Pattern BOUNDS =
+            Pattern.compile("FROM \\((?:'([^']+)'|MINVALUE)\\) TO \\('([^']+)'\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AppConfig.Partitioning config;
+
+    public TransactionPartitionManager(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            AppConfig appConfig) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = appConfig.payments().partitioning();
+    }
+
+    /** An attached partition covering {@code [from, to)}; {@code from} is null for MINVALUE. */
+    public record Partition(String name, LocalDateTime from, LocalDateTime to) {}
+
+    @Override
+    public void afterPropertiesSet() {
+        if (config.enabled()) {
+            convertIfUnpartitioned();
+            createMissingIndexes();
+            maintain();
+        }
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (config.enabled()) {
+            taskRegistrar.addCronTask(this::maintain, config.cron());
+        }
+    }
+
+    /** Attached partitions ordered by their upper bound. */
+    public List<Partition> partitions() {
+        return jdbcTemplate
+                .query(
+                        """
+                        select c.relname, pg_get_expr(c.relpartbound, c.oid)
+                        from pg_inherits i join pg_class c on c.oid = i.inhrelid
+                        where i.inhparent = to_regclass(?)
+                        """,
+                        (rs, rowNum) -> partition(rs.getString(1), rs.getString(2)),
+                        TABLE)
+                .stream()
+                .sorted(Comparator.comparing(Partition::to))
+                .toList();
+    }
+
+    /**
+     * Start of the oldest attached partition, or empty if it reaches back to MINVALUE or the table
+     * is not partitioned. Rows created earlier were archived out of the live table but stay in the
+     * Mongo read model, so comparisons and rebuilds against Postgres leave them alone.
+     */
+    public Optional<LocalDateTime> archivedBefore() {
+        List<Partition> partitions = partitions();
+        return partitions.isEmpty()
+                ? Optional.empty()
+                : Optional.ofNullable(partitions.getFirst().from());
+    }
+
+    public void maintain() {
+        maintain(YearMonth.now());
+    }
+
+    void maintain(YearMonth current) {
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    if (!tryLock()) {
+                        return;
+                    }
+                    List<Partition> partitions = partitions();
+                    YearMonth month = current;
+                    if (!partitions.isEmpty()) {
+                        YearMonth coveredUntil = YearMonth.from(partitions.getLast().to());
+                        if (coveredUntil.isAfter(month)) {
+                            month = coveredUntil;
+                        }
+                    }
+                    for (;
+                            !month.isAfter(current.plusMonths(config.premadeMonths()));
+                            month = month.plusMonths(1)) {
+                        createPartition(month);
+                    }
+                    if (config.retentionMonths() > 0) {
+                        LocalDateTime cutoff =
+                                current.minusMonths(config.retentionMonths())
+                                        .atDay(1)
+                                        .atStartOfDay();
+                        partitions.stream()
+                                .filter(partition -> !partition.to().isAfter(cutoff))
+                                .forEach(this::archive);
+                    }
+                });
+    }
+
+    /** Creates the partition for {@code month}; the caller must hold the partition lock. */
+    void createPartition(YearMonth month) {
+        String name = TABLE + "_p" + month.format(PARTITION_SUFFIX);
+        jdbcTemplate.execute(
+                "create table if not exists "
+                        + name
+                        + " partition of "
+                        + TABLE
+                        + " for values from ('"
+                        + month.atDay(1).atStartOfDay()
+                        + "') to ('"
+                        + month.plusMonths(1).atDay(1).atStartOfDay()
+                        + "')");
+    }
+
+    /** Converts a plain {@code transactions} table left by an earlier version or by Hibernate. */
+    void convertIfUnpartitioned() {
+        if (!"r".equals(relkind())) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    jdbcTemplate.query(
+                            "select pg_advisory_xact_lock(?)", rs -> {}, PARTITION_LOCK_KEY);
+                    if (!"r".equals(relkind())) {
+                        return;
+                    }
+                    jdbcTemplate.execute("lock table " + TABLE + " in access exclusive mode");
+                    Timestamp newest =
+                            jdbcTemplate.queryForObject(
+                                    "select max(created_at) from " + TABLE, Timestamp.class);
+                    jdbcTemplate.execute("alter table " + TABLE + " rename to " + LEGACY_PARTITION);
+                    jdbcTemplate
+                            .queryForList(
+                                    "select indexname from pg_indexes"
+                                            + " where schemaname = current_schema()"
+                                            + " and tablename = ?",
+                                    String.class,
+                                    LEGACY_PARTITION)
+                            .forEach(
+                                    index ->
+                                            jdbcTemplate.execute(
+                                                    "alter index "
+                                                            + index
+                                                            + " rename to "
+                                                            + index
+                                                            + "_legacy"));
+                    jdbcTemplate.execute(
+                            "create table "
+                                    + TABLE
+                                    + " (like "
+                                    + LEGACY_PARTITION
+                                    + " including defaults including constraints)"
+                                    + " partition by range (created_at)");
+                    jdbcTemplate.execute(
+                            "alter table "
+                                    + TABLE
+                                    + " add constraint "
+                                    + TABLE
+                                    + "_pkey primary key (id, created_at)");
+                    createIndexes();
+                    if (newest == null) {
+                        jdbcTemplate.execute("drop table " + LEGACY_PARTITION);
+                        log.info("Converted empty {} to a partitioned table", TABLE);
+                        return;
+                    }
+                    LocalDateTime upper =
+                            YearMonth.from(newest.toLocalDateTime())
+                                    .plusMonths(1)
+                                    .atDay(1)
+                                    .atStartOfDay();
+                    jdbcTemplate.execute(
+                            "alter table "
+                                    + TABLE
+                                    + " attach partition "
+                                    + LEGACY_PARTITION
+                                    + " for values from (minvalue) to ('"
+                                    + upper
+                                    + "')");
+                    log.info(
+                            "Converted {} to a partitioned table; existing rows before {} are in {}",
+                            TABLE,
+                            upper,
+                            LEGACY_PARTITION);
+                });
+    }
+
+    /**
+     * Creates entity indexes that the partitioned table lacks, without relying on Hibernate's
+     * schema update to handle a partitioned table.
+     */
+    void createMissingIndexes() {
+        if (!"p".equals(relkind())) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    jdbcTemplate.query(
+                            "select pg_advisory_xact_lock(?)", rs -> {}, PARTITION_LOCK_KEY);
+                    createIndexes();
+                });
+    }
+
+    private void createIndexes() {
+        for (Index index : Transaction.class.getAnnotation(Table.class).indexes()) {
+            jdbcTemplate.execute(
+                    "create index if not exists "
+                            + index.name()
+                            + " on "
+                            + TABLE
+                            + " ("
+                            + index.columnList()
+                            + ")");
+        }
+    }
+
+    private void archive(Partition partition) {
+        jdbcTemplate.execute("create schema if not exists " + config.archiveSchema());
+        jdbcTemplate.execute("alter table " + TABLE + " detach partition " + partition.name());
+        jdbcTemplate.execute(
+                "alter table " + partition.name() + " set schema " + config.archiveSchema());
+        log.info(
+                "Archived partition {} (rows before {}) into schema {}",
+                partition.name(),
+                partition.to(),
+                config.archiveSchema());
+    }
+
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject(
+                        "select pg_try_advisory_xact_lock(?)", Boolean.class, PARTITION_LOCK_KEY));
+    }
+
+    private String relkind() {
+        List<String> kinds =
+                jdbcTemplate.queryForList(
+                        "select relkind::text from pg_class where oid = to_regclass(?)",
+                        String.class,
+                        TABLE);
+        return kinds.isEmpty() ? null : kinds.getFirst();
+    }
+
+    static Partition partition(String name, String bound) {
+        Matcher matcher = BOUNDS.matcher(bound);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected partition bound of " + name + ": " + bound);
+        }
+        return new Partition(
+                name,
+                matcher.group(1) == null ? null : timestamp(matcher.group(1)),
+                timestamp(matcher.group(2)));
+    }
+
+    private static LocalDateTime timestamp(String value) {
+        return LocalDateTime.parse(value.replace(' ', 'T'));
+    }
+}
@@ -0,0 +1,221 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains {@link TransactionOutboxEntry} rows into the Mongo read model in the background.
+ *
+ * <p>Each batch is applied as one unordered Mongo bulk write inside a Postgres transaction that
+ * deletes the drained entries, so entries are only removed once Mongo has accepted the batch. A
+ * failed batch is rolled back and retried on the next tick.
+ *
+ * <p>The daily rollups are updated after the bulk write from the difference between the replaced
+ * documents and the new state. A rollup update that fails is logged with the affected days and does
+ * not fail the batch, since a retry would find the documents already replaced and could not recover
+ * the difference; those days are repaired with {@link TransactionRollupStore#backfill}. The same
+ * applies to a bulk write that fails after replacing some documents: the batch is retried, but its
+ * days are logged and counted as failed rollups as well.
+ */
+@Slf4j
+@Component
+public class TransactionProjector implements SchedulingConfigurer {
+
+    static final long PROJECTION_LOCK_KEY = 0x66656174686572L;
+
+    private final TransactionOutboxRepository transactionOutboxRepository;
+    private final PostgresTransactionStore postgresTransactionStore;
+    private final MongoTransactionStore mongoTransactionStore;
+    private final TransactionNearCache transactionNearCache;
+    private final TransactionRollupStore transactionRollupStore;
+    private final TransactionReadModelRebuilder transactionReadModelRebuilder;
+    private final TransactionTemplate transactionTemplate;
+    private final AppConfig.Projection config;
+
+    private final Timer batchTimer;
+    private final Timer projectionDelay;
+    private final Counter projectedEntries;
+    private final Counter failedBatches;
+    private final Counter failedRollups;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public TransactionProjector(
+            TransactionOutboxRepository transactionOutboxRepository,
+            PostgresTransactionStore postgresTransactionStore,
+            MongoTransactionStore mongoTransactionStore,
+            TransactionNearCache transactionNearCache,
+            TransactionRollupStore transactionRollupStore,
+            TransactionReadModelRebuilder transactionReadModelRebuilder,
+            TransactionTemplate transactionTemplate,
+            AppConfig appConfig,
+            MeterRegistry meterRegistry) {
+        this.transactionOutboxRepository = transactionOutboxRepository;
+        this.postgresTransactionStore = postgresTransactionStore;
+        this.mongoTransactionStore = mongoTransactionStore;
+        this.transactionNearCache = transactionNearCache;
+        this.transactionRollupStore = transactionRollupStore;
+        this.transactionReadModelRebuilder = transactionReadModelRebuilder;
+        this.transactionTemplate = transactionTemplate;
+        this.config = appConfig.payments().projection();
+        this.batchTimer =
+                Timer.builder("transactions.projection.batch")
+                        .description("Time to apply one outbox batch to Mongo")
+                        .register(meterRegistry);
+        this.projectionDelay =
+                Timer.builder("transactions.projection.delay")
+                        .description("Time between a Postgres write and its Mongo projection")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+        this.projectedEntries =
+                Counter.builder("transactions.projection.entries")
+                        .description("Outbox entries projected into Mongo")
+                        .register(meterRegistry);
+        this.failedBatches =
+                Counter.builder("transactions.projection.failures")
+                        .description("Outbox batches that failed and will be retried")
+                        .register(meterRegistry);
+        this.failedRollups =
+                Counter.builder("transactions.rollups.failures")
+                        .description("Projected batches whose rollup update failed")
+                        .register(meterRegistry);
+        TimeGauge.builder(
+                        "transactions.projection.lag",
+                        lagMillis,
+                        TimeUnit.MILLISECONDS,
+                        AtomicLong::get)
+                .description("Age of the oldest outbox entry not yet projected")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::drain, config.flushInterval());
+    }
+
+    /** Projects batches until the outbox is empty (or another node holds the lock). */
+    public int drain() {
+        int projected = 0;
+        int batch;
+        try {
+            do {
+                batch = projectBatch();
+                projected += batch;
+            } while (batch == config.batchSize());
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            throw e;
+        } finally {
+            updateLag();
+        }
+        return projected;
+    }
+
+    int projectBatch() {
+        Integer projected =
+                transactionTemplate.execute(
+                        status -> {
+                            if (!transactionOutboxRepository.tryAdvisoryLock(PROJECTION_LOCK_KEY)) {
+                                return 0;
+                            }
+                            List<TransactionOutboxEntry> entries =
+                                    transactionOutboxRepository.findByOrderByIdAsc(
+                                            Limit.of(config.batchSize()));
+                            if (entries.isEmpty()) {
+                                return 0;
+                            }
+                            batchTimer.record(() -> apply(entries));
+                            transactionOutboxRepository.deleteAllInBatch(entries);
+                            return entries.size();
+                        });
+        return projected == null ? 0 : projected;
+    }
+
+    private void apply(List<TransactionOutboxEntry> entries) {
+        Set<Long> ids = new LinkedHashSet<>();
+        entries.forEach(entry -> ids.add(entry.getTransactionId()));
+
+        List<Transaction> current = postgresTransactionStore.findAllById(ids);
+        Set<Long> deleted = new HashSet<>(ids);
+        current.forEach(transaction -> deleted.remove(transaction.getId()));
+        Map<TransactionRollupStore.Key, TransactionRollupStore.Change> rollupChanges =
+                transactionRollupStore.changes(mongoTransactionStore.findDocuments(ids), current);
+        try {
+            mongoTransactionStore.applyProjection(current, deleted);
+        } catch (RuntimeException e) {
+            if (!(e instanceof BulkOperationException bulk) || applied(bulk.getResult()) > 0) {
+                rollupsNeedBackfill(rollupChanges, "Projection batch partly applied", e);
+            }
+            throw e;
+        }
+        transactionReadModelRebuilder.recordDeletions(deleted);
+        applyRollups(rollupChanges);
+        transactionNearCache.invalidateAll(ids);
+
+        Instant now = Instant.now();
+        entries.forEach(
+                entry -> projectionDelay.record(Duration.between(entry.getCreatedAt(), now)));
+        projectedEntries.increment(entries.size());
+    }
+
+    private void applyRollups(
+            Map<TransactionRollupStore.Key, TransactionRollupStore.Change> changes) {
+        try {
+            transactionRollupStore.apply(changes);
+        } catch (RuntimeException e) {
+            rollupsNeedBackfill(changes, "Rollup update failed", e);
+        }
+    }
+
+    private void rollupsNeedBackfill(
+            Map<TransactionRollupStore.Key, TransactionRollupStore.Change> changes,
+            String reason,
+            RuntimeException cause) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        failedRollups.increment();
+        log.warn(
+                "{}; backfill days {}",
+                reason,
+                changes.keySet().stream()
+                        .map(TransactionRollupStore.Key::day)
+                        .collect(Collectors.toCollection(TreeSet::new)),
+                cause);
+    }
+
+    private static int applied(BulkWriteResult result) {
+        return result.getModifiedCount() + result.getUpserts().size() + result.getDeletedCount();
+    }
+
+    private void updateLag() {
+        lagMillis.set(
+                transactionOutboxRepository
+                        .findFirstByOrderByIdAsc()
+                        .map(entry -> Duration.between(entry.getCreatedAt(), Instant.now()))
+                        .orElse(Duration.ZERO)
+                        .toMillis());
+    }
+}
@@ -0,0 +1,507 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rebuilds the Mongo read model from Postgres without replaying writes one at a time.
+ *
+ * <p>A run copies the Postgres id range chunk by chunk into a shadow collection. Each chunk is
+ * streamed with a JDBC fetch size, bypassing Hibernate, and written with unordered bulk inserts;
+ * the read model's indexes are built once the data is in. Chunks are recorded as they complete, so
+ * an interrupted run resumes where it stopped, and a chunk is cleared from the shadow collection
+ * before it is copied so that retrying a half-written chunk is safe.
+ *
+ * <p>Only one run may be active in the cluster: {@link #tryClaim()} takes a session-level advisory
+ * lock on a connection that is held until the run ends, and a run is only begun or resumed under
+ * that claim. A node that dies releases the lock with its connection, so its run can be resumed
+ * elsewhere, and the claim is checked again right before the swap.
+ *
+ * <p>{@link #finish} carries over the live collection's documents of archived partitions, which
+ * Postgres no longer holds, then copies rows that changed while the chunks were running, found
+ * through the index on {@code updated_at}, in passes from a moving watermark. Once a pass is small
+ * it pauses the {@link TransactionProjector} by taking its advisory lock, copies the last delta,
+ * removes the rows the projector recorded as deleted during the run ({@link #recordDeletions}) and
+ * atomically renames the shadow collection over the live one. Outbox entries still pending at that
+ * point are projected into the new collection afterwards.
+ */
+@Slf4j
+@Component
+public class TransactionReadModelRebuilder {
+
+    static final long REBUILD_LOCK_KEY = 0x72656275696c64L;
+
+    static final String SHADOW_PREFIX = "transactions_rebuild_";
+
+    private static final int MAX_CATCH_UP_PASSES = 5;
+
+    private final TransactionRebuildRepository rebuildRepository;
+    private final TransactionRebuildChunkRepository chunkRepository;
+    private final TransactionRebuildDeletionRepository deletionRepository;
+    private final MongoOperations mongoOperations;
+    private final TransactionNearCache transactionNearCache;
+    private final TransactionPartitionManager transactionPartitionManager;
+    private final TransactionDocumentMapper transactionDocumentMapper =
+            new TransactionDocumentMapper();
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final AppConfig.Rebuild config;
+    private final Counter copiedRows;
+
+    public TransactionReadModelRebuilder(
+            TransactionRebuildRepository rebuildRepository,
+            TransactionRebuildChunkRepository chunkRepository,
+            TransactionRebuildDeletionRepository deletionRepository,
+            MongoOperations mongoOperations,
+            TransactionNearCache transactionNearCache,
+            TransactionPartitionManager transactionPartitionManager,
+            PlatformTransactionManager transactionManager,
+            DataSource dataSource,
+            AppConfig appConfig,
+            MeterRegistry meterRegistry) {
+        this.rebuildRepository = rebuildRepository;
+        this.chunkRepository = chunkRepository;
+        this.deletionRepository = deletionRepository;
+        this.mongoOperations = mongoOperations;
+        this.transactionNearCache = transactionNearCache;
+        this.transactionPartitionManager = transactionPartitionManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.config = appConfig.payments().rebuild();
+        this.dataSource = dataSource;
+        // The Postgres driver only streams with a fetch size inside a transaction.
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(config.fetchSize());
+        this.copiedRows =
+                Counter.builder("transactions.rebuild.rows")
+                        .description("Rows copied into the read model by rebuilds")
+                        .register(meterRegistry);
+    }
+
+    /** Half-open id range {@code [from, to)} copied as one unit. */
+    public record IdRange(long from, long to) {}
+
+    public Optional<TransactionRebuild> latest() {
+        return rebuildRepository.findFirstByOrderByIdDesc();
+    }
+
+    /**
+     * Takes the cluster-wide rebuild lock on a connection of its own.
+     *
+     * @return the claim to hold for the length of the run, or empty if another run holds the lock
+     */
+    public Optional<Claim> tryClaim() {
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new CannotGetJdbcConnectionException("Could not claim the rebuild lock", e);
+        }
+        try {
+            if (Claim.advisoryLock(connection, "select pg_try_advisory_lock(?)")) {
+                return Optional.of(new Claim(connection));
+            }
+            connection.close();
+            return Optional.empty();
+        } catch (SQLException e) {
+            JdbcUtils.closeConnection(connection);
+            throw new CannotGetJdbcConnectionException("Could not claim the rebuild lock", e);
+        }
+    }
+
+    /**
+     * Resumes the latest run if it did not complete, otherwise starts a new one over the current id
+     * range of {@code transactions}. Holding the claim guarantees that no other node is still
+     * working on an unfinished run.
+     */
+    public TransactionRebuild begin(Claim claim) {
+        claim.verify();
+        return transactionTemplate.execute(
+                status -> {
+                    Optional<TransactionRebuild> unfinished =
+                            latest().filter(
+                                            rebuild ->
+                                                    rebuild.getStatus()
+                                                            != TransactionRebuild.Status.COMPLETED);
+                    if (unfinished.isPresent()) {
+                        TransactionRebuild rebuild = unfinished.get();
+                        rebuild.setStatus(TransactionRebuild.Status.RUNNING);
+                        rebuild.setError(null);
+                        return rebuildRepository.save(rebuild);
+                    }
+                    TransactionRebuild rebuild = new TransactionRebuild();
+                    jdbcTemplate.query(
+                            "select min(id), max(id) from transactions",
+                            rs -> {
+                                rebuild.setMinId(rs.getObject(1, Long.class));
+                                rebuild.setMaxId(rs.getObject(2, Long.class));
+                            });
+                    rebuild.setChunkSize(config.chunkSize());
+                    rebuild.setStartedAt(Instant.now());
+                    rebuildRepository.save(rebuild);
+                    rebuild.setShadowCollection(SHADOW_PREFIX + rebuild.getId());
+                    mongoOperations.dropCollection(rebuild.getShadowCollection());
+                    mongoOperations.createCollection(rebuild.getShadowCollection());
+                    return rebuild;
+                });
+    }
+
+    /** Every chunk of the run's id range. */
+    public List<IdRange> chunks(TransactionRebuild rebuild) {
+        return chunks(rebuild, Set.of());
+    }
+
+    /** Chunks of the run's id range that have not been copied yet, in id order. */
+    public List<IdRange> pendingChunks(TransactionRebuild rebuild) {
+        Set<Long> done = new HashSet<>();
+        chunkRepository
+                .findByRebuildId(rebuild.getId())
+                .forEach(chunk -> done.add(chunk.getFromId()));
+        return chunks(rebuild, done);
+    }
+
+    public long copiedRows(TransactionRebuild rebuild) {
+        return chunkRepository.sumCopiedRows(rebuild.getId());
+    }
+
+    public long completedChunks(TransactionRebuild rebuild) {
+        return chunkRepository.countByRebuildId(rebuild.getId());
+    }
+
+    static List<IdRange> chunks(TransactionRebuild rebuild, Set<Long> done) {
+        List<IdRange> chunks = new ArrayList<>();
+        if (rebuild.getMinId() == null) {
+            return chunks;
+        }
+        long end = rebuild.getMaxId() + 1;
+        for (long from = rebuild.getMinId(); from < end; from += rebuild.getChunkSize()) {
+            if (!done.contains(from)) {
+                chunks.add(new IdRange(from, Math.min(from + rebuild.getChunkSize(), end)));
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Copies one chunk into the shadow collection and records it as done.
+     *
+     * @return the number of rows copied
+     */
+    public long copyChunk(TransactionRebuild rebuild, IdRange range) {
+        String shadow = rebuild.getShadowCollection();
+        mongoOperations.remove(idRange(range), TransactionDocument.class, shadow);
+        List<TransactionDocument> batch = new ArrayList<>(config.writeBatchSize());
+        long[] copied = {0};
+        readOnlyTransactionTemplate.executeWithoutResult(
+                status ->
+                        jdbcTemplate.query(
+                                "select "
+                                        + TransactionDocumentMapper.COLUMNS
+                                        + " from transactions where id >= ? and id < ?",
+                                rs -> {
+                                    batch.add(transactionDocumentMapper.toDocument(rs));
+                                    if (batch.size() == config.writeBatchSize()) {
+                                        copied[0] += insert(shadow, batch);
+                                    }
+                                },
+                                range.from(),
+                                range.to()));
+        copied[0] += insert(shadow, batch);
+        chunkRepository.save(
+                new TransactionRebuildChunk(rebuild.getId(), range.from(), range.to(), copied[0]));
+        copiedRows.increment(copied[0]);
+        return copied[0];
+    }
+
+    /**
+     * Builds the read model indexes on the shadow collection, catches it up with writes made during
+     * the run and swaps it in. Catch-up passes run while the projector keeps going, until a pass
+     * finds little to copy; projection is only paused for the last pass, the removal of deleted
+     * rows and the rename.
+     */
+    public void finish(TransactionRebuild rebuild, Claim claim) {
+        String shadow = rebuild.getShadowCollection();
+        retainArchived(shadow);
+        IndexOperations indexes = mongoOperations.indexOps(shadow);
+        new MongoPersistentEntityIndexResolver(mongoOperations.getConverter().getMappingContext())
+                .resolveIndexFor(TransactionDocument.class)
+                .forEach(indexes::createIndex);
+
+        Instant watermark = rebuild.getStartedAt();
+        long caughtUp = 0;
+        for (int pass = 1; pass <= MAX_CATCH_UP_PASSES; pass++) {
+            Instant passStart = Instant.now();
+            long copied = catchUp(shadow, watermark);
+            caughtUp += copied;
+            watermark = passStart;
+            if (copied <= config.writeBatchSize()) {
+                break;
+            }
+        }
+
+        Instant lastWatermark = watermark;
+        long finalCatchUp = caughtUp;
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    jdbcTemplate.query(
+                            "select pg_advisory_xact_lock(?)",
+                            rs -> {},
+                            TransactionProjector.PROJECTION_LOCK_KEY);
+                    claim.verify();
+                    long copied = catchUp(shadow, lastWatermark);
+                    long removed = removeDeleted(rebuild);
+                    deletionRepository.deleteByRebuildId(rebuild.getId());
+                    complete(rebuild, TransactionRebuild.Status.COMPLETED, null);
+                    MongoNamespace shadowNamespace =
+                            mongoOperations.getCollection(shadow).getNamespace();
+                    mongoOperations
+                            .getCollection(shadow)
+                            .renameCollection(
+                                    new MongoNamespace(
+                                            shadowNamespace.getDatabaseName(),
+                                            mongoOperations.getCollectionName(
+                                                    TransactionDocument.class)),
+                                    new RenameCollectionOptions().dropTarget(true));
+                    log.info(
+                            "Read model rebuild {} swapped in: {} rows caught up ({} while paused),"
+                                    + " {} removed",
+                            rebuild.getId(),
+                            finalCatchUp + copied,
+                            copied,
+                            removed);
+                });
+        transactionNearCache.invalidateAll();
+    }
+
+    /**
+     * Records transactions that the projector found deleted, if a run is unfinished, so that the
+     * swap removes them from its shadow collection. Runs in the projector's transaction.
+     */
+    public void recordDeletions(Collection<Long> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return;
+        }
+        latest().filter(rebuild -> rebuild.getStatus() != TransactionRebuild.Status.COMPLETED)
+                .ifPresent(
+                        rebuild ->
+                                deletionRepository.saveAll(
+                                        transactionIds.stream()
+                                                .map(
+                                                        id ->
+                                                                new TransactionRebuildDeletion(
+                                                                        rebuild.getId(), id))
+                                                .toList()));
+    }
+
+    public void fail(TransactionRebuild rebuild, Exception cause) {
+        String message = String.valueOf(cause.getMessage());
+        complete(
+                rebuild,
+                TransactionRebuild.Status.FAILED,
+                message.length() > 1000 ? message.substring(0, 1000) : message);
+    }
+
+    private void complete(
+            TransactionRebuild rebuild, TransactionRebuild.Status status, String error) {
+        rebuild.setStatus(status);
+        rebuild.setError(error);
+        rebuild.setFinishedAt(Instant.now());
+        rebuildRepository.save(rebuild);
+    }
+
+    /**
+     * Re-copies rows written since {@code catchUpMargin} before {@code since}, including new ids.
+     * The margin covers transactions that were still open at {@code since}.
+     */
+    private long catchUp(String shadow, Instant since) {
+        List<TransactionDocument> batch = new ArrayList<>(config.writeBatchSize());
+        long[] upserted = {0};
+        readOnlyTransactionTemplate.executeWithoutResult(
+                status ->
+                        jdbcTemplate.query(
+                                "select "
+                                        + TransactionDocumentMapper.COLUMNS
+                                        + " from transactions where updated_at >= ?",
+                                rs -> {
+                                    batch.add(transactionDocumentMapper.toDocument(rs));
+                                    if (batch.size() == config.writeBatchSize()) {
+                                        upserted[0] += upsert(shadow, batch);
+                                    }
+                                },
+                                Timestamp.from(since.minus(config.catchUpMargin()))));
+        upserted[0] += upsert(shadow, batch);
+        return upserted[0];
+    }
+
+    /**
+     * Copies the documents of archived partitions from the live collection into the shadow
+     * collection, since Postgres no longer holds their rows. They are never written again, so one
+     * copy before the catch-up passes is enough, and a resumed run copies them idempotently.
+     */
+    private void retainArchived(String shadow) {
+        transactionPartitionManager
+                .archivedBefore()
+                .ifPresent(
+                        archivedBefore -> {
+                            List<Document> pipeline =
+                                    List.of(
+                                            new Document(
+                                                    "$match",
+                                                    Criteria.where("createdAt")
+                                                            .lt(archivedBefore)
+                                                            .getCriteriaObject()),
+                                            new Document(
+                                                    "$merge",
+                                                    new Document("into", shadow)
+                                                            .append("whenMatched", "keepExisting")
+                                                            .append("whenNotMatched", "insert")));
+                            mongoOperations
+                                    .getCollection(
+                                            mongoOperations.getCollectionName(
+                                                    TransactionDocument.class))
+                                    .aggregate(pipeline)
+                                    .allowDiskUse(true)
+                                    .toCollection();
+                            log.info(
+                                    "Read model rebuild keeps documents created before {}",
+                                    archivedBefore);
+                        });
+    }
+
+    /** Removes the rows that the projector found deleted while the run was unfinished. */
+    private long removeDeleted(TransactionRebuild rebuild) {
+        List<Long> deleted = List.copyOf(deletionRepository.findTransactionIds(rebuild.getId()));
+        long removed = 0;
+        for (int from = 0; from < deleted.size(); from += config.writeBatchSize()) {
+            List<Long> ids =
+                    deleted.subList(from, Math.min(from + config.writeBatchSize(), deleted.size()));
+            removed +=
+                    mongoOperations
+                            .remove(
+                                    Query.query(Criteria.where("id").in(ids)),
+                                    rebuild.getShadowCollection())
+                            .getDeletedCount();
+        }
+        return removed;
+    }
+
+    private long insert(String collection, List<TransactionDocument> documents) {
+        if (documents.isEmpty()) {
+            return 0;
+        }
+        int inserted =
+                mongoOperations
+                        .bulkOps(
+                                BulkOperations.BulkMode.UNORDERED,
+                                TransactionDocument.class,
+                                collection)
+                        .insert(documents)
+                        .execute()
+                        .getInsertedCount();
+        documents.clear();
+        return inserted;
+    }
+
+    private long upsert(String collection, List<TransactionDocument> documents) {
+        if (documents.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk =
+                mongoOperations.bulkOps(
+                        BulkOperations.BulkMode.UNORDERED, TransactionDocument.class, collection);
+        for (TransactionDocument document : documents) {
+            bulk.replaceOne(
+                    Query.query(Criteria.where("id").is(document.getId())),
+                    document,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+        int upserted = documents.size();
+        documents.clear();
+        return upserted;
+    }
+
+    private static Query idRange(IdRange range) {
+        return Query.query(Criteria.where("id").gte(range.from()).lt(range.to()));
+    }
+
+    /**
+     * The rebuild lock, held by the session of one pooled connection. Closing the claim releases
+     * the lock before the connection goes back to the pool.
+     */
+    public static final class Claim implements AutoCloseable {
+
+        private final Connection connection;
+
+        private Claim(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Fails if the connection holding the lock was lost: the lock went with its session and
+         * another node may have claimed the run since.
+         */
+        public void verify() {
+            try {
+                if (connection.isValid(5)) {
+                    return;
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Lost the read model rebuild lock", e);
+            }
+            throw new IllegalStateException("Lost the read model rebuild lock");
+        }
+
+        @Override
+        public void close() {
+            try (connection) {
+                advisoryLock(connection, "select pg_advisory_unlock(?)");
+            } catch (SQLException e) {
+                log.warn("Could not release the read model rebuild lock", e);
+            }
+        }
+
+        private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, REBUILD_LOCK_KEY);
+                try (ResultSet rs = statement.executeQuery()) {
+                    return rs.next() && rs.getBoolean(1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One run of {@link TransactionReadModelRebuilder}: the Postgres id range being copied, the shadow
+ * collection it is copied into and the run's outcome. Completed chunks are recorded separately as
+ * {@link TransactionRebuildChunk} rows so that an interrupted run can resume.
+ */
+@Entity
+@Table(name = "transaction_rebuilds")
+@Getter
+@Setter
+@NoArgsConstructor
+public class TransactionRebuild {
+
+    static final String ID_SEQUENCE = "transaction_rebuilds_seq";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = 1)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.RUNNING;
+
+    @Column(name = "shadow_collection")
+    private String shadowCollection;
+
+    /** Lowest id to copy, or {@code null} if {@code transactions} was empty. */
+    @Column(name = "min_id")
+    private Long minId;
+
+    /** Highest id to copy; rows inserted later are picked up by the catch-up pass. */
+    @Column(name = "max_id")
+    private Long maxId;
+
+    @Column(name = "chunk_size", nullable = false)
+    private int chunkSize;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(length = 1000)
+    private String error;
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,56 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/** Marks the id range {@code [fromId, toId)} of a {@link TransactionRebuild} as copied. */
+@Entity
+@Table(
+        name = "transaction_rebuild_chunks",
+        uniqueConstraints =
+                @UniqueConstraint(
+                        name = "uk_transaction_rebuild_chunks_range",
+                        columnNames = {"rebuild_id", "from_id"}))
+@Getter
+@NoArgsConstructor
+public class TransactionRebuildChunk {
+
+    static final String ID_SEQUENCE = "transaction_rebuild_chunks_seq";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = 50)
+    private Long id;
+
+    @Column(name = "rebuild_id", nullable = false, updatable = false)
+    private Long rebuildId;
+
+    @Column(name = "from_id", nullable = false, updatable = false)
+    private long fromId;
+
+    @Column(name = "to_id", nullable = false, updatable = false)
+    private long toId;
+
+    @Column(name = "copied_rows", nullable = false, updatable = false)
+    private long copiedRows;
+
+    @Column(name = "completed_at", nullable = false, updatable = false)
+    private Instant completedAt;
+
+    public TransactionRebuildChunk(Long rebuildId, long fromId, long toId, long copiedRows) {
+        this.rebuildId = rebuildId;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.copiedRows = copiedRows;
+        this.completedAt = Instant.now();
+    }
+}
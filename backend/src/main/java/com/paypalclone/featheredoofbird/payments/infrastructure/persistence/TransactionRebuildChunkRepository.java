@@ -0,0 +1,20 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransactionRebuildChunkRepository
+        extends JpaRepository<TransactionRebuildChunk, Long> {
+
+    List<TransactionRebuildChunk> findByRebuildId(Long rebuildId);
+
+    long countByRebuildId(Long rebuildId);
+
+    @Query(
+            "select coalesce(sum(c.copiedRows), 0) from TransactionRebuildChunk c"
+                    + " where c.rebuildId = :rebuildId")
+    long sumCopiedRows(Long rebuildId);
+}
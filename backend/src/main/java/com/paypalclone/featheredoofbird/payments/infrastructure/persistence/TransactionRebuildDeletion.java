@@ -0,0 +1,47 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A transaction the {@link TransactionProjector} found deleted while a {@link TransactionRebuild}
+ * was unfinished. The swap removes these ids from the shadow collection, since a chunk copied
+ * earlier may still hold them.
+ */
+@Entity
+@Table(
+        name = "transaction_rebuild_deletions",
+        indexes =
+                @Index(
+                        name = "idx_transaction_rebuild_deletions_rebuild",
+                        columnList = "rebuild_id"))
+@Getter
+@NoArgsConstructor
+public class TransactionRebuildDeletion {
+
+    static final String ID_SEQUENCE = "transaction_rebuild_deletions_seq";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = 50)
+    private Long id;
+
+    @Column(name = "rebuild_id", nullable = false, updatable = false)
+    private Long rebuildId;
+
+    @Column(name = "transaction_id", nullable = false, updatable = false)
+    private Long transactionId;
+
+    public TransactionRebuildDeletion(Long rebuildId, Long transactionId) {
+        this.rebuildId = rebuildId;
+        this.transactionId = transactionId;
+    }
+}
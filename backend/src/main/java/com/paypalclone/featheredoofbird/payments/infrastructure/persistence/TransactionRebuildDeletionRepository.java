@@ -0,0 +1,21 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import java.util.Set;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransactionRebuildDeletionRepository
+        extends JpaRepository<TransactionRebuildDeletion, Long> {
+
+    @Query(
+            "select distinct d.transactionId from TransactionRebuildDeletion d"
+                    + " where d.rebuildId = :rebuildId")
+    Set<Long> findTransactionIds(Long rebuildId);
+
+    @Modifying
+    @Query("delete from TransactionRebuildDeletion d where d.rebuildId = :rebuildId")
+    int deleteByRebuildId(Long rebuildId);
+}
@@ -0,0 +1,11 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransactionRebuildRepository extends JpaRepository<TransactionRebuild, Long> {
+
+    Optional<TransactionRebuild> findFirstByOrderByIdDesc();
+}
@@ -1,45 +1,149 @@
 package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
 
+import com.paypalclone.featheredoofbird.payments.domain.ConsistencyToken;
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionCursor;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionFilter;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionPage;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummaryPage;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionTransition;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionWrite;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Facade over the two transaction stores: Postgres is the system of record and Mongo the read
+ * model.
+ *
+ * <p>Writes touch Postgres only and append a {@link TransactionOutboxEntry} in the same database
+ * transaction; {@link TransactionProjector} later applies them to Mongo, so write latency does not
+ * depend on Mongo and a Mongo outage cannot lose an update. Callers must run writes inside a
+ * Spring-managed transaction.
+ *
+ * <p>Every write returns a {@link ConsistencyToken}. Reads that pass it back are routed to Postgres
+ * until the projector has applied that write, so a client always sees its own writes; reads with
+ * {@link ConsistencyToken#NONE} stay on Mongo.
+ */
 @Repository
 @RequiredArgsConstructor
 public class TransactionRepository {
 
     private final PostgresTransactionStore postgresTransactionStore;
     private final MongoTransactionStore mongoTransactionStore;
+    private final TransactionOutboxRepository transactionOutboxRepository;
+    private final TransactionNearCache transactionNearCache;
 
-    public List<Transaction> findAll() {
-        return mongoTransactionStore.findAll();
+    public TransactionPage findAll(
+            TransactionCursor after, int pageSize, ConsistencyToken readAfter) {
+        return TransactionPage.of(readStore(readAfter).findAll(after, pageSize + 1), pageSize);
     }
 
-    public Optional<Transaction> findById(Long id) {
-        return mongoTransactionStore.findById(id);
+    /**
+     * Token-less lookups go through {@link TransactionNearCache}. Reads with a token bypass it: a
+     * cached copy may predate the caller's write even after the projector has applied it.
+     */
+    public Optional<Transaction> findById(Long id, ConsistencyToken readAfter) {
+        if (readAfter.isNone()) {
+            return transactionNearCache.get(id, mongoTransactionStore::findById);
+        }
+        return readStore(readAfter).findById(id);
     }
 
-    public List<Transaction> findBySender(String sender) {
-        return mongoTransactionStore.findBySender(sender);
+    public TransactionPage findBySender(
+            String sender, TransactionCursor after, int pageSize, ConsistencyToken readAfter) {
+        return TransactionPage.of(
+                readStore(readAfter).findBySender(sender, after, pageSize + 1), pageSize);
     }
 
-    public List<Transaction> findByReceiver(String receiver) {
-        return mongoTransactionStore.findByReceiver(receiver);
+    public TransactionPage findByReceiver(
+            String receiver, TransactionCursor after, int pageSize, ConsistencyToken readAfter) {
+        return TransactionPage.of(
+                readStore(readAfter).findByReceiver(receiver, after, pageSize + 1), pageSize);
     }
 
-    public List<Transaction> findByStatus(Transaction.TransactionStatus status) {
-        return mongoTransactionStore.findByStatus(status);
+    public TransactionPage findByStatus(
+            Transaction.TransactionStatus status,
+            TransactionCursor after,
+            int pageSize,
+            ConsistencyToken readAfter) {
+        return TransactionPage.of(
+                readStore(readAfter).findByStatus(status, after, pageSize + 1), pageSize);
     }
 
-    public Transaction save(Transaction transaction) {
+    public TransactionSummaryPage findAllSummaries(
+            TransactionCursor after, int pageSize, ConsistencyToken readAfter) {
+        return TransactionSummaryPage.of(
+                readStore(readAfter).findAllSummaries(after, pageSize + 1), pageSize);
+    }
+
+    public TransactionSummaryPage findSummariesBySender(
+            String sender, TransactionCursor after, int pageSize, ConsistencyToken readAfter) {
+        return TransactionSummaryPage.of(
+                readStore(readAfter).findSummariesBySender(sender, after, pageSize + 1), pageSize);
+    }
+
+    public TransactionSummaryPage findSummariesByReceiver(
+            String receiver, TransactionCursor after, int pageSize, ConsistencyToken readAfter) {
+        return TransactionSummaryPage.of(
+                readStore(readAfter).findSummariesByReceiver(receiver, after, pageSize + 1),
+                pageSize);
+    }
+
+    public TransactionSummaryPage findSummariesByStatus(
+            Transaction.TransactionStatus status,
+            TransactionCursor after,
+            int pageSize,
+            ConsistencyToken readAfter) {
+        return TransactionSummaryPage.of(
+                readStore(readAfter).findSummariesByStatus(status, after, pageSize + 1), pageSize);
+    }
+
+    /** Newest page for {@code sender} read from Postgres, for caches that must not lag writes. */
+    public TransactionPage findFirstPageBySender(String sender, int pageSize) {
+        return TransactionPage.of(
+                postgresTransactionStore.findBySender(
+                        sender, TransactionCursor.FIRST, pageSize + 1),
+                pageSize);
+    }
+
+    /** Newest page for {@code receiver} read from Postgres, for caches that must not lag writes. */
+    public TransactionPage findFirstPageByReceiver(String receiver, int pageSize) {
+        return TransactionPage.of(
+                postgresTransactionStore.findByReceiver(
+                        receiver, TransactionCursor.FIRST, pageSize + 1),
+                pageSize);
+    }
+
+    /** Current Postgres row, bypassing the read model and the near cache. */
+    public Optional<Transaction> findCurrentById(Long id) {
+        return postgresTransactionStore.findById(id);
+    }
+
+    /** Always reads Mongo: exports are bulk reads and do not honour consistency tokens. */
+    public Stream<Transaction> stream(TransactionFilter filter) {
+        return mongoTransactionStore.stream(filter);
+    }
+
+    public TransactionWrite save(Transaction transaction) {
         Transaction savedTransaction = postgresTransactionStore.save(transaction);
-        mongoTransactionStore.save(savedTransaction);
-        return savedTransaction;
+        return new TransactionWrite(savedTransaction, appendOutboxEntry(savedTransaction.getId()));
+    }
+
+    /**
+     * Inserts {@code transactions} and their outbox entries as JDBC batches and assigns their ids
+     * in place. The token covers the whole batch: the projector drains entries in id order, so once
+     * the highest entry is gone every entry of the batch has been applied.
+     */
+    public ConsistencyToken saveAll(List<Transaction> transactions) {
+        return appendOutboxEntries(postgresTransactionStore.saveAll(transactions));
     }
 
-    public Transaction update(Long id, Transaction updatedTransaction) {
+    public TransactionWrite update(Long id, Transaction updatedTransaction) {
         Transaction savedTransaction =
                 postgresTransactionStore
                         .findById(id)
@@ -55,12 +159,69 @@ public class TransactionRepository {
                                 })
                         .orElseThrow(
                                 () -> new RuntimeException("Transaction not found with id: " + id));
-        mongoTransactionStore.save(savedTransaction);
-        return savedTransaction;
+        transactionNearCache.invalidate(id);
+        return new TransactionWrite(savedTransaction, appendOutboxEntry(savedTransaction.getId()));
+    }
+
+    /**
+     * Moves those {@code ids} still in status {@code from} to {@code to} with one conditional
+     * Postgres update and appends an outbox entry for each moved transaction. Nothing is read or
+     * locked beforehand: ids that are missing or already in another status are skipped, and {@link
+     * #findCurrentStatuses} tells the two apart when the caller needs to know.
+     */
+    public TransactionTransition transitionStatus(
+            Collection<Long> ids,
+            Transaction.TransactionStatus from,
+            Transaction.TransactionStatus to) {
+        List<Transaction> transitioned = postgresTransactionStore.transitionStatus(ids, from, to);
+        transitioned.forEach(transaction -> transactionNearCache.invalidate(transaction.getId()));
+        return new TransactionTransition(transitioned, appendOutboxEntries(transitioned));
+    }
+
+    /** Current Postgres status of each of {@code ids} that exists. */
+    public Map<Long, Transaction.TransactionStatus> findCurrentStatuses(Collection<Long> ids) {
+        return postgresTransactionStore.findStatuses(ids);
     }
 
-    public void deleteById(Long id) {
+    public ConsistencyToken deleteById(Long id) {
         postgresTransactionStore.deleteById(id);
-        mongoTransactionStore.deleteById(id);
+        transactionNearCache.invalidate(id);
+        return appendOutboxEntry(id);
+    }
+
+    private ConsistencyToken appendOutboxEntry(Long transactionId) {
+        return new ConsistencyToken(
+                transactionOutboxRepository
+                        .save(new TransactionOutboxEntry(transactionId))
+                        .getId());
+    }
+
+    /** One outbox entry per transaction, saved as a batch; the token covers all of them. */
+    private ConsistencyToken appendOutboxEntries(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return ConsistencyToken.NONE;
+        }
+        return transactionOutboxRepository
+                .saveAll(
+                        transactions.stream()
+                                .map(transaction -> new TransactionOutboxEntry(transaction.getId()))
+                                .toList())
+                .stream()
+                .map(TransactionOutboxEntry::getId)
+                .max(Long::compare)
+                .map(ConsistencyToken::new)
+                .orElse(ConsistencyToken.NONE);
+    }
+
+    /**
+     * Mongo, unless the caller presents a token for a write that is still waiting in the outbox.
+     * Projected entries are deleted, so a pending entry is a cheap primary-key hit and an applied
+     * one sends the read back to the read model.
+     */
+    private TransactionDataStore readStore(ConsistencyToken readAfter) {
+        if (readAfter.isNone() || !transactionOutboxRepository.existsById(readAfter.version())) {
+            return mongoTransactionStore;
+        }
+        return postgresTransactionStore;
     }
 }
@@ -0,0 +1,54 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * Count and amount total of the transactions of one party, currency and status on one day.
+ *
+ * <p>Every transaction is counted in three rollups: its sender's, its receiver's and the {@link
+ * Dimension#CURRENCY} rollup (with an empty party) that totals all parties. {@code day} is the ISO
+ * date of {@code createdAt}, so ranges sort and compare as strings. The unique index is both the
+ * upsert key and the range index for reads, which fix dimension and party and scan days.
+ */
+@Document(collection = "transaction_rollups")
+@CompoundIndex(
+        name = "dimension_party_day_currency_status",
+        def = "{ 'dimension': 1, 'party': 1, 'day': 1, 'currency': 1, 'status': 1 }",
+        unique = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRollupDocument {
+
+    @Id private String id;
+
+    private Dimension dimension;
+
+    private String party;
+
+    private String day;
+
+    private String currency;
+
+    private Transaction.TransactionStatus status;
+
+    private long count;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal total;
+
+    public enum Dimension {
+        SENDER,
+        RECEIVER,
+        CURRENCY
+    }
+}
@@ -0,0 +1,355 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import com.mongodb.client.MongoCollection;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupDocument.Dimension;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the per-day {@link TransactionRollupDocument}s.
+ *
+ * <p>The {@link TransactionProjector} computes {@link #changes} between the read-model documents a
+ * batch replaces and the state it writes, and {@link #apply applies} them as {@code $inc} upserts,
+ * so keeping the rollups current costs one small bulk write per batch however long a party's
+ * history is. Because the difference is taken against the read model, re-projections issued by the
+ * drift check correct the rollups along with the documents.
+ *
+ * <p>{@link #backfill} recomputes a day range from the transactions collection with an aggregation
+ * that merges its groups straight into the rollups. It seeds the rollups for existing data and
+ * repairs days whose increments were lost; projection is paused while it runs. A read model rebuild
+ * replaces the documents the rollups were derived from, so it ends with {@link #backfillAll}.
+ */
+@Component
+public class TransactionRollupStore {
+
+    private final MongoOperations mongoOperations;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionPartitionManager transactionPartitionManager;
+    private final TransactionDocumentMapper transactionDocumentMapper =
+            new TransactionDocumentMapper();
+
+    public TransactionRollupStore(
+            MongoOperations mongoOperations,
+            PlatformTransactionManager transactionManager,
+            DataSource dataSource,
+            TransactionPartitionManager transactionPartitionManager) {
+        this.mongoOperations = mongoOperations;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionPartitionManager = transactionPartitionManager;
+    }
+
+    /** Identifies one rollup document. */
+    public record Key(
+            Dimension dimension,
+            String party,
+            String day,
+            String currency,
+            Transaction.TransactionStatus status) {}
+
+    /** Amount to add to a rollup's count and total; negative when transactions leave it. */
+    public record Change(long count, BigDecimal total) {
+
+        Change plus(Change other) {
+            return new Change(count + other.count, total.add(other.total));
+        }
+
+        boolean isZero() {
+            return count == 0 && total.signum() == 0;
+        }
+    }
+
+    /**
+     * Net rollup changes of replacing the {@code before} documents with {@code after}. A missing
+     * {@code after} state means the transaction was deleted; unchanged contributions cancel out.
+     */
+    public Map<Key, Change> changes(
+            Collection<TransactionDocument> before, Collection<Transaction> after) {
+        Map<Key, Change> changes = new LinkedHashMap<>();
+        before.forEach(document -> add(changes, document, -1));
+        after.forEach(
+                transaction -> add(changes, transactionDocumentMapper.toDocument(transaction), 1));
+        changes.values().removeIf(Change::isZero);
+        return changes;
+    }
+
+    public void apply(Map<Key, Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk =
+                mongoOperations.bulkOps(
+                        BulkOperations.BulkMode.UNORDERED, TransactionRollupDocument.class);
+        changes.forEach(
+                (key, change) ->
+                        bulk.upsert(
+                                Query.query(
+                                        Criteria.where("dimension")
+                                                .is(key.dimension())
+                                                .and("party")
+                                                .is(key.party())
+                                                .and("day")
+                                                .is(key.day())
+                                                .and("currency")
+                                                .is(key.currency())
+                                                .and("status")
+                                                .is(key.status())),
+                                new Update()
+                                        .inc("count", change.count())
+                                        .inc("total", new Decimal128(change.total()))));
+        bulk.execute();
+    }
+
+    /**
+     * Rollups of one party (or, for {@link Dimension#CURRENCY}, of everyone) between two days
+     * inclusive, ordered by day. {@code currency} and {@code status} narrow the result when set.
+     */
+    public List<TransactionRollupDocument> find(
+            Dimension dimension,
+            String party,
+            LocalDate from,
+            LocalDate to,
+            String currency,
+            Transaction.TransactionStatus status) {
+        Criteria criteria =
+                Criteria.where("dimension")
+                        .is(dimension)
+                        .and("party")
+                        .is(party)
+                        .and("day")
+                        .gte(from.toString())
+                        .lte(to.toString());
+        if (currency != null) {
+            criteria.and("currency").is(currency);
+        }
+        if (status != null) {
+            criteria.and("status").is(status);
+        }
+        return mongoOperations.find(
+                Query.query(criteria).with(Sort.by("day", "currency", "status")),
+                TransactionRollupDocument.class);
+    }
+
+    /**
+     * Replaces the rollups of the days {@code [from, to]} with totals aggregated from the
+     * transactions collection and returns the number of rollups written. Projection is paused for
+     * the duration, so no increment lands between the aggregation and the merge; readers see the
+     * range empty until the merge completes.
+     */
+    public long backfill(LocalDate from, LocalDate to) {
+        Long written =
+                transactionTemplate.execute(
+                        status -> {
+                            jdbcTemplate.query(
+                                    "select pg_advisory_xact_lock(?)",
+                                    rs -> {},
+                                    TransactionProjector.PROJECTION_LOCK_KEY);
+                            mongoOperations.remove(
+                                    Query.query(
+                                            Criteria.where("day")
+                                                    .gte(from.toString())
+                                                    .lte(to.toString())),
+                                    TransactionRollupDocument.class);
+                            for (Dimension dimension : Dimension.values()) {
+                                aggregateInto(dimension, from, to);
+                            }
+                            return mongoOperations.count(
+                                    Query.query(
+                                            Criteria.where("day")
+                                                    .gte(from.toString())
+                                                    .lte(to.toString())),
+                                    TransactionRollupDocument.class);
+                        });
+        return written == null ? 0 : written;
+    }
+
+    /**
+     * Backfills every day that has transactions in the read model or rollups, one calendar month
+     * per {@link #backfill} call so that projection is only paused for one month at a time. Returns
+     * the number of rollups written.
+     *
+     * <p>Months of archived partitions are skipped: the rebuild that precedes this keeps their
+     * documents, but their rollups are left as they are rather than recomputed from whatever a read
+     * model holds for them.
+     */
+    public long backfillAll() {
+        Optional<LocalDate> first = boundaryDay(Sort.Direction.ASC);
+        Optional<LocalDate> last = boundaryDay(Sort.Direction.DESC);
+        if (first.isEmpty()) {
+            return 0;
+        }
+        LocalDate start = first.get().withDayOfMonth(1);
+        Optional<LocalDate> attachedFrom =
+                transactionPartitionManager.archivedBefore().map(LocalDateTime::toLocalDate);
+        if (attachedFrom.isPresent() && attachedFrom.get().isAfter(start)) {
+            start = attachedFrom.get();
+        }
+        long written = 0;
+        for (LocalDate month = start;
+                !month.isAfter(last.orElseThrow());
+                month = month.plusMonths(1)) {
+            written += backfill(month, month.plusMonths(1).minusDays(1));
+        }
+        return written;
+    }
+
+    /** The first or last day of either the transactions or the currency-wide rollups. */
+    private Optional<LocalDate> boundaryDay(Sort.Direction direction) {
+        Query transactions = new Query().with(Sort.by(direction, "createdAt")).limit(1);
+        transactions.fields().include("createdAt");
+        Optional<LocalDate> transactionDay =
+                Optional.ofNullable(
+                                mongoOperations.findOne(transactions, TransactionDocument.class))
+                        .map(document -> document.getCreatedAt().toLocalDate());
+        Query rollups =
+                Query.query(Criteria.where("dimension").is(Dimension.CURRENCY).and("party").is(""))
+                        .with(Sort.by(direction, "day"))
+                        .limit(1);
+        rollups.fields().include("day");
+        Optional<LocalDate> rollupDay =
+                Optional.ofNullable(
+                                mongoOperations.findOne(rollups, TransactionRollupDocument.class))
+                        .map(document -> LocalDate.parse(document.getDay()));
+        Comparator<LocalDate> order =
+                direction.isAscending()
+                        ? Comparator.naturalOrder()
+                        : Comparator.<LocalDate>naturalOrder().reversed();
+        return Stream.concat(transactionDay.stream(), rollupDay.stream()).min(order);
+    }
+
+    private void aggregateInto(Dimension dimension, LocalDate from, LocalDate to) {
+        // createdAt is stored as its wall-clock time in UTC (see MongoConfig), so UTC days, which
+        // $dateToString uses by default, are the local days the projector's increments use.
+        ZoneOffset zone = ZoneOffset.UTC;
+        Object party =
+                switch (dimension) {
+                    case SENDER -> "$sender";
+                    case RECEIVER -> "$receiver";
+                    case CURRENCY -> "";
+                };
+        Document key =
+                new Document("party", party)
+                        .append(
+                                "day",
+                                new Document(
+                                        "$dateToString",
+                                        new Document("format", "%Y-%m-%d")
+                                                .append("date", "$createdAt")))
+                        .append("currency", "$currency")
+                        .append("status", "$status");
+        List<Document> pipeline =
+                List.of(
+                        new Document(
+                                "$match",
+                                new Document(
+                                        "createdAt",
+                                        new Document(
+                                                        "$gte",
+                                                        Date.from(
+                                                                from.atStartOfDay(zone)
+                                                                        .toInstant()))
+                                                .append(
+                                                        "$lt",
+                                                        Date.from(
+                                                                to.plusDays(1)
+                                                                        .atStartOfDay(zone)
+                                                                        .toInstant())))),
+                        new Document(
+                                "$group",
+                                new Document("_id", key)
+                                        .append("count", new Document("$sum", 1))
+                                        .append(
+                                                "total",
+                                                new Document(
+                                                        "$sum",
+                                                        new Document("$toDecimal", "$amount")))),
+                        new Document(
+                                "$project",
+                                new Document("_id", 0)
+                                        .append("dimension", dimension.name())
+                                        .append("party", "$_id.party")
+                                        .append("day", "$_id.day")
+                                        .append("currency", "$_id.currency")
+                                        .append("status", "$_id.status")
+                                        .append("count", 1)
+                                        .append("total", 1)),
+                        new Document(
+                                "$merge",
+                                new Document(
+                                                "into",
+                                                mongoOperations.getCollectionName(
+                                                        TransactionRollupDocument.class))
+                                        .append(
+                                                "on",
+                                                List.of(
+                                                        "dimension",
+                                                        "party",
+                                                        "day",
+                                                        "currency",
+                                                        "status"))
+                                        .append("whenMatched", "replace")
+                                        .append("whenNotMatched", "insert")));
+        MongoCollection<Document> transactions =
+                mongoOperations.getCollection(
+                        mongoOperations.getCollectionName(TransactionDocument.class));
+        transactions.aggregate(pipeline).allowDiskUse(true).toCollection();
+    }
+
+    private static void add(Map<Key, Change> changes, TransactionDocument document, int sign) {
+        if (document.getCreatedAt() == null
+                || document.getAmount() == null
+                || document.getCurrency() == null) {
+            return;
+        }
+        String day = document.getCreatedAt().toLocalDate().toString();
+        Change change =
+                new Change(sign, sign < 0 ? document.getAmount().negate() : document.getAmount());
+        for (Key key :
+                List.of(
+                        new Key(
+                                Dimension.SENDER,
+                                document.getSender(),
+                                day,
+                                document.getCurrency(),
+                                document.getStatus()),
+                        new Key(
+                                Dimension.RECEIVER,
+                                document.getReceiver(),
+                                day,
+                                document.getCurrency(),
+                                document.getStatus()),
+                        new Key(
+                                Dimension.CURRENCY,
+                                "",
+                                day,
+                                document.getCurrency(),
+                                document.getStatus()))) {
+            changes.merge(key, change, Change::plus);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the id sequences past rows inserted before ids came from sequences.
+ *
+ * <p>{@code transactions} and {@code transaction_outbox} used identity columns before they switched
+ * to pooled sequences. On an existing database, the new sequences start at 1 while the tables
+ * already hold higher ids. This runs once at startup, after Hibernate has updated the schema. It
+ * only moves a sequence when rows exist beyond every block it has handed out, so it never touches a
+ * sequence that other nodes are already using.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class TransactionSequenceAligner implements InitializingBean {
+
+    private static final Map<String, String> SEQUENCES_BY_TABLE =
+            Map.of(
+                    "transactions", Transaction.ID_SEQUENCE,
+                    "transaction_outbox", TransactionOutboxEntry.ID_SEQUENCE);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        SEQUENCES_BY_TABLE.forEach(this::align);
+    }
+
+    private void align(String table, String sequence) {
+        long maxId =
+                jdbcTemplate.queryForObject(
+                        "select coalesce(max(id), 0) from " + table, Long.class);
+        long nextFree =
+                jdbcTemplate.queryForObject(
+                        "select case when is_called then last_value + "
+                                + Transaction.ID_ALLOCATION_SIZE
+                                + " else last_value end from "
+                                + sequence,
+                        Long.class);
+        if (maxId >= nextFree) {
+            jdbcTemplate.queryForObject(
+                    "select setval('" + sequence + "', ?, false)", Long.class, maxId + 1);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+public class InvalidFieldsetException extends RuntimeException {
+
+    public InvalidFieldsetException(String fields) {
+        super("Invalid fields parameter: " + fields);
+    }
+}
@@ -1,72 +1,287 @@
 package com.paypalclone.featheredoofbird.payments.infrastructure.web;
 
+import com.paypalclone.featheredoofbird.payments.application.TransactionBatchResult;
 import com.paypalclone.featheredoofbird.payments.application.TransactionService;
+import com.paypalclone.featheredoofbird.payments.application.TransactionTransitionResult;
+import com.paypalclone.featheredoofbird.payments.domain.ConsistencyToken;
+import com.paypalclone.featheredoofbird.payments.domain.InvalidConsistencyTokenException;
+import com.paypalclone.featheredoofbird.payments.domain.InvalidCursorException;
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionCursor;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionFilter;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionPage;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummaryPage;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionWrite;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/transactions")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "*")
+@CrossOrigin(
+        origins = "*",
+        exposedHeaders = {
+            TransactionController.NEXT_CURSOR_HEADER,
+            TransactionController.CONSISTENCY_TOKEN_HEADER
+        })
 @Validated
 public class TransactionController {
 
+    /** Carries the opaque cursor for the next page; absent on the last page. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Returned by writes; sending it back on reads guarantees they reflect that write even if the
+     * Mongo read model has not caught up yet.
+     */
+    public static final String CONSISTENCY_TOKEN_HEADER = "X-Consistency-Token";
+
+    private static final String DEFAULT_LIMIT = "50";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
     private final TransactionService transactionService;
+    private final TransactionExportWriter transactionExportWriter;
 
     @GetMapping
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
-        return ResponseEntity.ok(transactionService.getAllTransactions());
+    public ResponseEntity<List<Transaction>> getAllTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit,
+            @RequestHeader(name = CONSISTENCY_TOKEN_HEADER, required = false) String readAfter) {
+        return pageResponse(
+                transactionService.getAllTransactions(
+                        TransactionCursor.decode(cursor),
+                        limit,
+                        ConsistencyToken.decode(readAfter)));
+    }
+
+    /**
+     * Streams every matching transaction as NDJSON (default) or CSV. Rows are pulled from a
+     * database cursor and written as they arrive, so the export never materialises the result set.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) String sender,
+            @RequestParam(required = false) String receiver,
+            @RequestParam(required = false) Transaction.TransactionStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        TransactionFilter filter = new TransactionFilter(sender, receiver, status, from, to);
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body =
+                out -> {
+                    try (Stream<Transaction> transactions =
+                            transactionService.exportTransactions(filter)) {
+                        if (csv) {
+                            transactionExportWriter.writeCsv(transactions, out);
+                        } else {
+                            transactionExportWriter.writeNdjson(transactions, out);
+                        }
+                    }
+                };
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Transaction> getTransactionById(@PathVariable @NonNull @NotNull Long id) {
+    public ResponseEntity<Transaction> getTransactionById(
+            @PathVariable @NonNull @NotNull Long id,
+            @RequestHeader(name = CONSISTENCY_TOKEN_HEADER, required = false) String readAfter) {
         return transactionService
-                .getTransactionById(id)
+                .getTransactionById(id, ConsistencyToken.decode(readAfter))
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/sender/{sender}")
     public ResponseEntity<List<Transaction>> getTransactionsBySender(
-            @PathVariable @NonNull @NotNull String sender) {
-        return ResponseEntity.ok(transactionService.getTransactionsBySender(sender));
+            @PathVariable @NonNull @NotNull String sender,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit,
+            @RequestHeader(name = CONSISTENCY_TOKEN_HEADER, required = false) String readAfter) {
+        return pageResponse(
+                transactionService.getTransactionsBySender(
+                        sender,
+                        TransactionCursor.decode(cursor),
+                        limit,
+                        ConsistencyToken.decode(readAfter)));
     }
 
     @GetMapping("/receiver/{receiver}")
     public ResponseEntity<List<Transaction>> getTransactionsByReceiver(
-            @PathVariable @NonNull @NotNull String receiver) {
-        return ResponseEntity.ok(transactionService.getTransactionsByReceiver(receiver));
+            @PathVariable @NonNull @NotNull String receiver,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit,
+            @RequestHeader(name = CONSISTENCY_TOKEN_HEADER, required = false) String readAfter) {
+        return pageResponse(
+                transactionService.getTransactionsByReceiver(
+                        receiver,
+                        TransactionCursor.decode(cursor),
+                        limit,
+                        ConsistencyToken.decode(readAfter)));
     }
 
     @GetMapping("/status/{status}")
     public ResponseEntity<List<Transaction>> getTransactionsByStatus(
-            @PathVariable @NonNull @NotNull Transaction.TransactionStatus status) {
-        return ResponseEntity.ok(transactionService.getTransactionsByStatus(status));
+            @PathVariable @NonNull @NotNull Transaction.TransactionStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit,
+            @RequestHeader(name = CONSISTENCY_TOKEN_HEADER, required = false) String readAfter) {
+        return pageResponse(
+                transactionService.getTransactionsByStatus(
+                        status,
+                        TransactionCursor.decode(cursor),
+                        limit,
+                        ConsistencyToken.decode(readAfter)));
+    }
+
+    /**
+     * Sparse-fieldset variant of {@link #getAllTransactions}: {@code fields=id,sender,amount}
+     * returns only those properties. Fieldsets within the summary fields (everything except
+     * description and updatedAt) are read with the lighter summary queries.
+     */
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllTransactionFields(
+            @RequestParam String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit,
+            @RequestHeader(name = CONSISTENCY_TOKEN_HEADER, required = false) String readAfter) {
+        TransactionFieldset fieldset = TransactionFieldset.parse(fields);
+        TransactionCursor after = TransactionCursor.decode(cursor);
+        ConsistencyToken token = ConsistencyToken.decode(readAfter);
+        if (fieldset.isSummary()) {
+            return pageResponse(
+                    fieldset, transactionService.getTransactionSummaries(after, limit, token));
+        }
+        return pageResponse(fieldset, transactionService.getAllTransactions(after, limit, token));
+    }
+
+    @GetMapping(value = "/sender/{sender}", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getTransactionFieldsBySender(
+            @PathVariable @NonNull @NotNull String sender,
+            @RequestParam String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit,
+            @RequestHeader(name = CONSISTENCY_TOKEN_HEADER, required = false) String readAfter) {
+        TransactionFieldset fieldset = TransactionFieldset.parse(fields);
+        TransactionCursor after = TransactionCursor.decode(cursor);
+        ConsistencyToken token = ConsistencyToken.decode(readAfter);
+        if (fieldset.isSummary()) {
+            return pageResponse(
+                    fieldset,
+                    transactionService.getTransactionSummariesBySender(
+                            sender, after, limit, token));
+        }
+        return pageResponse(
+                fieldset, transactionService.getTransactionsBySender(sender, after, limit, token));
+    }
+
+    @GetMapping(value = "/receiver/{receiver}", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getTransactionFieldsByReceiver(
+            @PathVariable @NonNull @NotNull String receiver,
+            @RequestParam String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit,
+            @RequestHeader(name = CONSISTENCY_TOKEN_HEADER, required = false) String readAfter) {
+        TransactionFieldset fieldset = TransactionFieldset.parse(fields);
+        TransactionCursor after = TransactionCursor.decode(cursor);
+        ConsistencyToken token = ConsistencyToken.decode(readAfter);
+        if (fieldset.isSummary()) {
+            return pageResponse(
+                    fieldset,
+                    transactionService.getTransactionSummariesByReceiver(
+                            receiver, after, limit, token));
+        }
+        return pageResponse(
+                fieldset,
+                transactionService.getTransactionsByReceiver(receiver, after, limit, token));
+    }
+
+    @GetMapping(value = "/status/{status}", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getTransactionFieldsByStatus(
+            @PathVariable @NonNull @NotNull Transaction.TransactionStatus status,
+            @RequestParam String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit,
+            @RequestHeader(name = CONSISTENCY_TOKEN_HEADER, required = false) String readAfter) {
+        TransactionFieldset fieldset = TransactionFieldset.parse(fields);
+        TransactionCursor after = TransactionCursor.decode(cursor);
+        ConsistencyToken token = ConsistencyToken.decode(readAfter);
+        if (fieldset.isSummary()) {
+            return pageResponse(
+                    fieldset,
+                    transactionService.getTransactionSummariesByStatus(
+                            status, after, limit, token));
+        }
+        return pageResponse(
+                fieldset, transactionService.getTransactionsByStatus(status, after, limit, token));
     }
 
     @PostMapping
     @PreAuthorize("hasAuthority('SCOPE_write:transactions') or hasAuthority('write:transactions')")
     public ResponseEntity<Transaction> createTransaction(
             @Valid @RequestBody @NonNull @NotNull Transaction transaction) {
-        Transaction createdTransaction = transactionService.createTransaction(transaction);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdTransaction);
+        TransactionWrite write = transactionService.createTransaction(transaction);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(CONSISTENCY_TOKEN_HEADER, write.token().encode())
+                .body(write.transaction());
+    }
+
+    /**
+     * Creates up to {@link TransactionService#MAX_BATCH_SIZE} transactions in one database
+     * transaction. Responds 200 with a per-item result; invalid items are rejected individually.
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasAuthority('SCOPE_write:transactions') or hasAuthority('write:transactions')")
+    public ResponseEntity<TransactionBatchResult> createTransactions(
+            @RequestBody @NonNull @NotNull List<Transaction> transactions) {
+        if (transactions.isEmpty() || transactions.size() > TransactionService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        TransactionBatchResult result = transactionService.createTransactions(transactions);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!result.token().isNone()) {
+            response.header(CONSISTENCY_TOKEN_HEADER, result.token().encode());
+        }
+        return response.body(result);
     }
 
     @PutMapping("/{id}")
@@ -75,17 +290,107 @@ public class TransactionController {
             @PathVariable @NonNull @NotNull Long id,
             @Valid @RequestBody @NonNull @NotNull Transaction transaction) {
         try {
-            Transaction updatedTransaction = transactionService.updateTransaction(id, transaction);
-            return ResponseEntity.ok(updatedTransaction);
+            TransactionWrite write = transactionService.updateTransaction(id, transaction);
+            return ResponseEntity.ok()
+                    .header(CONSISTENCY_TOKEN_HEADER, write.token().encode())
+                    .body(write.transaction());
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Moves one transaction from {@code from} to {@code to} if it is still in {@code from}.
+     * Responds 204 when it moved, 409 with the current status when it is in another status, 404
+     * when it does not exist.
+     */
+    @PatchMapping("/{id}/status")
+    @PreAuthorize("hasAuthority('SCOPE_write:transactions') or hasAuthority('write:transactions')")
+    public ResponseEntity<TransactionTransitionResult.Conflict> transitionStatus(
+            @PathVariable @NonNull @NotNull Long id,
+            @RequestParam @NonNull @NotNull Transaction.TransactionStatus from,
+            @RequestParam @NonNull @NotNull Transaction.TransactionStatus to) {
+        if (from == to) {
+            return ResponseEntity.badRequest().build();
+        }
+        TransactionTransitionResult result =
+                transactionService.transitionStatus(List.of(id), from, to);
+        if (result.conflicts().isEmpty()) {
+            return ResponseEntity.noContent()
+                    .header(CONSISTENCY_TOKEN_HEADER, result.token().encode())
+                    .build();
+        }
+        TransactionTransitionResult.Conflict conflict = result.conflicts().getFirst();
+        if (conflict.isMissing()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(conflict);
+    }
+
+    /**
+     * Moves up to {@link TransactionService#MAX_BATCH_SIZE} transactions from one status to another
+     * with a single conditional update. Responds 200 with the moved ids and the conflicts; a
+     * conflict is an id in another status, or with a null status one that does not exist.
+     */
+    @PostMapping("/status-transitions")
+    @PreAuthorize("hasAuthority('SCOPE_write:transactions') or hasAuthority('write:transactions')")
+    public ResponseEntity<TransactionTransitionResult> transitionStatuses(
+            @Valid @RequestBody @NonNull @NotNull TransactionTransitionRequest request) {
+        if (request.ids().size() > TransactionService.MAX_BATCH_SIZE
+                || request.from() == request.to()) {
+            return ResponseEntity.badRequest().build();
+        }
+        TransactionTransitionResult result =
+                transactionService.transitionStatus(request.ids(), request.from(), request.to());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!result.token().isNone()) {
+            response.header(CONSISTENCY_TOKEN_HEADER, result.token().encode());
+        }
+        return response.body(result);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('SCOPE_write:transactions') or hasAuthority('write:transactions')")
     public ResponseEntity<Void> deleteTransaction(@PathVariable @NonNull @NotNull Long id) {
-        transactionService.deleteTransaction(id);
-        return ResponseEntity.noContent().build();
+        ConsistencyToken token = transactionService.deleteTransaction(id);
+        return ResponseEntity.noContent().header(CONSISTENCY_TOKEN_HEADER, token.encode()).build();
+    }
+
+    @ExceptionHandler({
+        InvalidCursorException.class,
+        InvalidConsistencyTokenException.class,
+        InvalidFieldsetException.class
+    })
+    public ResponseEntity<Void> handleInvalidToken() {
+        return ResponseEntity.badRequest().build();
+    }
+
+    private ResponseEntity<List<Transaction>> pageResponse(TransactionPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor().encode());
+        }
+        return response.body(page.transactions());
+    }
+
+    private ResponseEntity<List<Map<String, Object>>> pageResponse(
+            TransactionFieldset fieldset, TransactionPage page) {
+        return pageResponse(
+                page.transactions().stream().map(fieldset::select).toList(), page.nextCursor());
+    }
+
+    private ResponseEntity<List<Map<String, Object>>> pageResponse(
+            TransactionFieldset fieldset, TransactionSummaryPage page) {
+        return pageResponse(
+                page.transactions().stream().map(fieldset::select).toList(), page.nextCursor());
+    }
+
+    private ResponseEntity<List<Map<String, Object>>> pageResponse(
+            List<Map<String, Object>> rows, TransactionCursor nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor.encode());
+        }
+        return response.body(rows);
     }
 }
@@ -0,0 +1,103 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serialises a stream of transactions straight to the response body, one row at a time, so that
+ * export memory stays flat regardless of row count.
+ */
+@Component
+public class TransactionExportWriter {
+
+    static final String CSV_HEADER =
+            "id,sender,receiver,amount,currency,description,status,createdAt,updatedAt";
+
+    /** Leading characters that make a spreadsheet evaluate a cell as a formula. */
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final ObjectMapper objectMapper;
+
+    public TransactionExportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /** Writes newline-delimited JSON: one {@link Transaction} object per line. */
+    public void writeNdjson(Stream<Transaction> transactions, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                objectMapper.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes RFC 4180 CSV with a header row. Text fields starting like a formula are prefixed with
+     * {@code '} and quoted, so a spreadsheet opening the export shows them as text rather than
+     * evaluating them.
+     */
+    public void writeCsv(Stream<Transaction> transactions, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        Iterator<Transaction> iterator = transactions.iterator();
+        while (iterator.hasNext()) {
+            Transaction transaction = iterator.next();
+            writer.write(
+                    String.join(
+                            ",",
+                            csv(transaction.getId()),
+                            text(transaction.getSender()),
+                            text(transaction.getReceiver()),
+                            csv(
+                                    transaction.getAmount() == null
+                                            ? null
+                                            : transaction.getAmount().toPlainString()),
+                            csv(transaction.getCurrency()),
+                            text(transaction.getDescription()),
+                            csv(transaction.getStatus()),
+                            csv(transaction.getCreatedAt()),
+                            csv(transaction.getUpdatedAt())));
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private String text(String value) {
+        if (value != null && !value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            return quote("'" + value);
+        }
+        return csv(value);
+    }
+
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",")
+                || text.contains("\"")
+                || text.contains("\n")
+                || text.contains("\r")) {
+            return quote(text);
+        }
+        return text;
+    }
+
+    private static String quote(String text) {
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
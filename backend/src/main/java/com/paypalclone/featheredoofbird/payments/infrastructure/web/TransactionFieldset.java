@@ -0,0 +1,97 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummary;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldset requested with {@code fields=id,sender,amount}: the transaction properties a list
+ * response should contain, in their usual order.
+ *
+ * <p>When every requested property is part of {@link TransactionSummary}, the list is read through
+ * the summary queries, so the omitted columns are neither read from the store nor allocated.
+ */
+final class TransactionFieldset {
+
+    private static final Map<String, Function<Transaction, Object>> TRANSACTION_FIELDS =
+            fields(
+                    Map.entry("id", Transaction::getId),
+                    Map.entry("sender", Transaction::getSender),
+                    Map.entry("receiver", Transaction::getReceiver),
+                    Map.entry("amount", Transaction::getAmount),
+                    Map.entry("currency", Transaction::getCurrency),
+                    Map.entry("description", Transaction::getDescription),
+                    Map.entry("createdAt", Transaction::getCreatedAt),
+                    Map.entry("updatedAt", Transaction::getUpdatedAt),
+                    Map.entry("status", Transaction::getStatus));
+
+    private static final Map<String, Function<TransactionSummary, Object>> SUMMARY_FIELDS =
+            fields(
+                    Map.entry("id", TransactionSummary::id),
+                    Map.entry("sender", TransactionSummary::sender),
+                    Map.entry("receiver", TransactionSummary::receiver),
+                    Map.entry("amount", TransactionSummary::amount),
+                    Map.entry("currency", TransactionSummary::currency),
+                    Map.entry("createdAt", TransactionSummary::createdAt),
+                    Map.entry("status", TransactionSummary::status));
+
+    private final List<String> fields;
+
+    private TransactionFieldset(List<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parses a comma-separated list of property names.
+     *
+     * @throws InvalidFieldsetException if the list is empty or names an unknown property
+     */
+    static TransactionFieldset parse(String fields) {
+        Set<String> requested =
+                Arrays.stream(fields.split(","))
+                        .map(String::trim)
+                        .filter(field -> !field.isEmpty())
+                        .collect(Collectors.toSet());
+        if (requested.isEmpty() || !TRANSACTION_FIELDS.keySet().containsAll(requested)) {
+            throw new InvalidFieldsetException(fields);
+        }
+        return new TransactionFieldset(
+                TRANSACTION_FIELDS.keySet().stream().filter(requested::contains).toList());
+    }
+
+    boolean isSummary() {
+        return SUMMARY_FIELDS.keySet().containsAll(fields);
+    }
+
+    Map<String, Object> select(Transaction transaction) {
+        return select(TRANSACTION_FIELDS, transaction);
+    }
+
+    Map<String, Object> select(TransactionSummary summary) {
+        return select(SUMMARY_FIELDS, summary);
+    }
+
+    private <T> Map<String, Object> select(Map<String, Function<T, Object>> accessors, T source) {
+        Map<String, Object> selected = new LinkedHashMap<>(fields.size() * 2);
+        for (String field : fields) {
+            selected.put(field, accessors.get(field).apply(source));
+        }
+        return selected;
+    }
+
+    @SafeVarargs
+    private static <T> Map<String, Function<T, Object>> fields(
+            Map.Entry<String, Function<T, Object>>... entries) {
+        Map<String, Function<T, Object>> fields = new LinkedHashMap<>();
+        for (Map.Entry<String, Function<T, Object>> entry : entries) {
+            fields.put(entry.getKey(), entry.getValue());
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,53 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+import com.paypalclone.featheredoofbird.payments.application.TransactionStreamService;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Streaming variants of the party reads in {@link TransactionController}, served as NDJSON or
+ * server-sent events.
+ *
+ * <p>Returning a {@link Flux} turns each request into an async request: the servlet thread is
+ * released as soon as the query is subscribed, and Spring MVC requests the next item only after the
+ * previous one has been written, so a slow reader applies backpressure all the way to the Mongo
+ * cursor.
+ */
+@RestController
+@RequestMapping("/api/transactions/stream")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@Validated
+public class TransactionStreamController {
+
+    private final TransactionStreamService transactionStreamService;
+
+    @GetMapping(
+            value = "/sender/{sender}",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Transaction> streamBySender(
+            @PathVariable @NonNull @NotNull String sender,
+            @RequestParam(defaultValue = "0") int limit) {
+        return transactionStreamService.streamBySender(sender, limit);
+    }
+
+    @GetMapping(
+            value = "/receiver/{receiver}",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Transaction> streamByReceiver(
+            @PathVariable @NonNull @NotNull String receiver,
+            @RequestParam(defaultValue = "0") int limit) {
+        return transactionStreamService.streamByReceiver(receiver, limit);
+    }
+}
@@ -0,0 +1,12 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+/** Body of a bulk status transition: move {@code ids} from {@code from} to {@code to}. */
+public record TransactionTransitionRequest(
+        @NotNull Transaction.TransactionStatus from,
+        @NotNull Transaction.TransactionStatus to,
+        @NotEmpty List<@NotNull Long> ids) {}
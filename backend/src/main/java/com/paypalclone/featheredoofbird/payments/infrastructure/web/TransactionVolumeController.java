@@ -0,0 +1,67 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+import com.paypalclone.featheredoofbird.payments.application.TransactionVolumeService;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionVolume;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Daily volume totals per sender, per receiver and across all parties for the days {@code [from,
+ * to]} (ISO dates, inclusive), optionally narrowed to one currency or status.
+ */
+@RestController
+@RequestMapping("/api/transactions/volume")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@Validated
+public class TransactionVolumeController {
+
+    private final TransactionVolumeService transactionVolumeService;
+
+    @GetMapping
+    public TransactionVolume getVolume(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) Transaction.TransactionStatus status) {
+        return transactionVolumeService.getVolume(from, to, currency, status);
+    }
+
+    @GetMapping("/sender/{sender}")
+    public TransactionVolume getVolumeBySender(
+            @PathVariable @NonNull @NotNull String sender,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) Transaction.TransactionStatus status) {
+        return transactionVolumeService.getVolumeBySender(sender, from, to, currency, status);
+    }
+
+    @GetMapping("/receiver/{receiver}")
+    public TransactionVolume getVolumeByReceiver(
+            @PathVariable @NonNull @NotNull String receiver,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) Transaction.TransactionStatus status) {
+        return transactionVolumeService.getVolumeByReceiver(receiver, from, to, currency, status);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleInvalidRange() {
+        return ResponseEntity.badRequest().build();
+    }
+}
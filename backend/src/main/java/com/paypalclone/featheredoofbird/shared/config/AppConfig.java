@@ -1,10 +1,17 @@
 package com.paypalclone.featheredoofbird.shared.config;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
 import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.validation.annotation.Validated;
 
 /**
@@ -32,7 +39,10 @@ import org.springframework.validation.annotation.Validated;
  */
 @ConfigurationProperties(prefix = "app")
 @Validated
-public record AppConfig(@Valid @NotNull Auth auth) {
+public record AppConfig(
+        @Valid @NotNull Auth auth,
+        @Valid @DefaultValue Payments payments,
+        @Valid @DefaultValue Observability observability) {
 
     /**
      * Auth / identity-provider settings.
@@ -45,7 +55,11 @@ public record AppConfig(@Valid @NotNull Auth auth) {
             @NotBlank(message = "app.auth.provider must be set") String provider,
             String issuerUri,
             String audience,
-            @Valid @NotNull LocalJwt localJwt) {
+            @Valid @NotNull LocalJwt localJwt,
+            @Valid @DefaultValue TokenCache tokenCache,
+            @Valid @DefaultValue PasswordHashing passwordHashing,
+            @Valid @DefaultValue Jwks jwks,
+            @Valid @DefaultValue RefreshTokens refreshTokens) {
 
         /**
          * Returns {@code true} when the active provider has all required values.
@@ -81,4 +95,179 @@ public record AppConfig(@Valid @NotNull Auth auth) {
             return !issuer.isBlank() && !secret.isBlank() && !accessTokenTtl.isZero();
         }
     }
+
+    /**
+     * In-process cache of validated bearer tokens, keyed by a SHA-256 digest of the token. Each
+     * entry expires at the token's {@code exp}; tokens without one are not cached.
+     */
+    public record TokenCache(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("10000") @Positive long maximumSize) {}
+
+    /**
+     * Dedicated pool that runs password hashing for login and registration, so that a burst of
+     * logins cannot take every core from the rest of the API. {@code threads} of 0 sizes the pool
+     * to one less than the available processors, at least one. Requests that find the queue full
+     * are rejected with 429 and {@code Retry-After: retryAfter}.
+     *
+     * <p>{@code strength} is the BCrypt work factor. At 0 it is calibrated at startup to the
+     * highest factor whose hash time stays within {@code targetHashTime} on this machine, and never
+     * below {@code minimumStrength}. Stored hashes with a lower factor are upgraded on login.
+     */
+    public record PasswordHashing(
+            @DefaultValue("0") @Min(0) int threads,
+            @DefaultValue("64") @Positive int queueCapacity,
+            @DefaultValue("1s") @NotNull Duration retryAfter,
+            @DefaultValue("0") @Min(0) @Max(31) int strength,
+            @DefaultValue("250ms") @NotNull Duration targetHashTime,
+            @DefaultValue("10") @Min(4) @Max(31) int minimumStrength) {
+
+        public int effectiveThreads() {
+            return threads > 0
+                    ? threads
+                    : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        }
+
+        public boolean isCalibrated() {
+            return strength == 0;
+        }
+    }
+
+    /**
+     * Signing keys of an external issuer ({@code jwt} and {@code auth0} providers), discovered from
+     * its metadata and cached for {@code ttl}. The key set is refreshed in the background {@code
+     * refreshAhead} before it expires, and requests waiting for a refresh give up after {@code
+     * refreshTimeout}. A token with an unknown {@code kid} triggers a refresh at most once per
+     * {@code unknownKidRefreshInterval}, and while the issuer is unreachable the last key set is
+     * served for up to {@code maxStale}.
+     */
+    public record Jwks(
+            @DefaultValue("5m") @NotNull Duration ttl,
+            @DefaultValue("30s") @NotNull Duration refreshAhead,
+            @DefaultValue("15s") @NotNull Duration refreshTimeout,
+            @DefaultValue("30s") @NotNull Duration unknownKidRefreshInterval,
+            @DefaultValue("1h") @NotNull Duration maxStale,
+            @DefaultValue("2s") @NotNull Duration connectTimeout,
+            @DefaultValue("2s") @NotNull Duration readTimeout) {}
+
+    /**
+     * Opaque refresh tokens of the {@code local-jwt} provider. A token is valid for {@code ttl} and
+     * can be exchanged once; expired tokens are deleted every {@code purgeInterval}. With {@code
+     * redisFront} live tokens are also kept in Redis, so a refresh finds its token without reading
+     * Postgres.
+     */
+    public record RefreshTokens(
+            @DefaultValue("14d") @NotNull Duration ttl,
+            @DefaultValue("1h") @NotNull Duration purgeInterval,
+            @DefaultValue("false") boolean redisFront) {}
+
+    /** Payments bounded context settings. Every value has a default, so the section is optional. */
+    public record Payments(
+            @Valid @DefaultValue Projection projection,
+            @Valid @DefaultValue NearCache nearCache,
+            @Valid @DefaultValue PartyCache partyCache,
+            @Valid @DefaultValue Rebuild rebuild,
+            @Valid @DefaultValue Drift drift,
+            @Valid @DefaultValue Partitioning partitioning) {}
+
+    /**
+     * Outbox-driven projection of Postgres writes into the Mongo read model.
+     *
+     * <p>{@code batchSize} bounds the outbox rows applied per Mongo bulk write; {@code
+     * flushInterval} is the pause between drains once the outbox is empty.
+     */
+    public record Projection(
+            @DefaultValue("500") @Positive int batchSize,
+            @DefaultValue("200ms") @NotNull Duration flushInterval) {}
+
+    /**
+     * In-process cache in front of single-transaction lookups.
+     *
+     * <p>Entries are invalidated on local writes and projections; {@code ttl} bounds how long a
+     * node can serve a value changed through another node.
+     */
+    public record NearCache(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("10000") @Positive long maximumSize,
+            @DefaultValue("5s") @NotNull Duration ttl) {}
+
+    /**
+     * Shared Redis cache of the first page of each sender's and receiver's transactions.
+     *
+     * <p>Each query type can be switched off on its own. {@code headSize} rows are cached per party
+     * and requests for a smaller first page are served from them; larger pages, later pages and
+     * consistency-token reads bypass the cache.
+     */
+    public record PartyCache(
+            @DefaultValue("true") boolean senderEnabled,
+            @DefaultValue("true") boolean receiverEnabled,
+            @DefaultValue("100") @Positive int headSize,
+            @DefaultValue("30s") @NotNull Duration ttl) {}
+
+    /**
+     * Admin-triggered rebuild of the Mongo read model from Postgres.
+     *
+     * <p>The id range is copied in {@code chunkSize} slices by {@code parallelism} workers, each
+     * streaming rows with {@code fetchSize} and inserting {@code writeBatchSize} documents per bulk
+     * write. Rows changed during the run are copied again before the swap, in passes that each
+     * reach back {@code catchUpMargin} before the previous one started, covering transactions that
+     * were still open at that point.
+     */
+    public record Rebuild(
+            @DefaultValue("100000") @Positive int chunkSize,
+            @DefaultValue("4") @Positive int parallelism,
+            @DefaultValue("5000") @Positive int fetchSize,
+            @DefaultValue("5000") @Positive int writeBatchSize,
+            @DefaultValue("5m") @NotNull Duration catchUpMargin) {}
+
+    /**
+     * Scheduled comparison of the Mongo read model against Postgres.
+     *
+     * <p>The id range is split into {@code fanout} buckets whose checksums are compared; mismatched
+     * buckets are split again until they hold at most {@code leafSize} ids, which are then compared
+     * row by row. With {@code repair} on, differing ids are queued on the outbox for re-projection.
+     * A run stops descending once {@code maxReportedIds} differences have been found.
+     */
+    public record Drift(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("0 0 * * * *") @NotBlank String cron,
+            @DefaultValue("16") @Min(2) int fanout,
+            @DefaultValue("1000") @Positive int leafSize,
+            @DefaultValue("true") boolean repair,
+            @DefaultValue("10000") @Positive int maxReportedIds) {}
+
+    /**
+     * Monthly range partitioning of the Postgres {@code transactions} table by {@code created_at}.
+     *
+     * <p>On {@code cron} (and at startup) partitions are created for the current month and the next
+     * {@code premadeMonths}. With {@code retentionMonths} above zero, partitions that ended more
+     * than that many months ago are detached and moved into {@code archiveSchema}; zero keeps every
+     * partition attached.
+     */
+    public record Partitioning(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("0 0 3 * * *") @NotBlank String cron,
+            @DefaultValue("3") @Min(1) int premadeMonths,
+            @DefaultValue("0") @Min(0) int retentionMonths,
+            @DefaultValue("transactions_archive") @Pattern(regexp = "[a-z_][a-z0-9_]*")
+                    String archiveSchema) {}
+
+    /** Diagnostics settings. Every value has a default, so the section is optional. */
+    public record Observability(@Valid @DefaultValue SlowQueries slowQueries) {}
+
+    /**
+     * Slow-query capture for Postgres (through Hibernate statistics) and Mongo (through a driver
+     * command listener).
+     *
+     * <p>Executions taking at least {@code threshold} are aggregated per normalized query shape; up
+     * to {@code maxShapes} shapes are kept and the slowest {@code topSize} are reported. {@code
+     * sqlLogSampleRate} is the fraction of Hibernate statements logged, replacing {@code
+     * spring.jpa.show-sql}; zero logs none.
+     */
+    public record SlowQueries(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("100ms") @NotNull Duration threshold,
+            @DefaultValue("50") @Positive int topSize,
+            @DefaultValue("1000") @Positive int maxShapes,
+            @DefaultValue("0") @DecimalMin("0") @DecimalMax("1") double sqlLogSampleRate) {}
 }
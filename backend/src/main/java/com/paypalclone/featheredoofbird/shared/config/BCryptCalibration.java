@@ -0,0 +1,64 @@
+package com.paypalclone.featheredoofbird.shared.config;
+
+import java.time.Duration;
+import java.util.function.IntToLongFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt work factor for this machine.
+ *
+ * <p>One hash is timed at {@code minimumStrength}; each step above it doubles the work, so the
+ * highest factor that stays within {@code targetHashTime} follows without hashing at the slower
+ * factors. A machine too slow to meet the target at the minimum still uses the minimum.
+ */
+@Slf4j
+final class BCryptCalibration {
+
+    private static final int MAXIMUM_STRENGTH = 31;
+    private static final int TIMED_RUNS = 3;
+
+    private BCryptCalibration() {}
+
+    /** The configured strength, or the calibrated one when {@code strength} is 0. */
+    static int strength(AppConfig.PasswordHashing config) {
+        if (!config.isCalibrated()) {
+            return config.strength();
+        }
+        int strength =
+                calibrate(
+                        config.targetHashTime(),
+                        config.minimumStrength(),
+                        BCryptCalibration::nanosPerHash);
+        log.info(
+                "BCrypt strength {} calibrated for a target hash time of {}",
+                strength,
+                config.targetHashTime());
+        return strength;
+    }
+
+    static int calibrate(
+            Duration targetHashTime, int minimumStrength, IntToLongFunction nanosPerHash) {
+        long target = targetHashTime.toNanos();
+        long estimate = nanosPerHash.applyAsLong(minimumStrength);
+        int strength = minimumStrength;
+        while (strength < MAXIMUM_STRENGTH && estimate <= target / 2) {
+            strength++;
+            estimate *= 2;
+        }
+        return strength;
+    }
+
+    /** Fastest of a few hashes after a warm-up, so JIT and scheduling noise do not inflate it. */
+    private static long nanosPerHash(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration");
+        long fastest = Long.MAX_VALUE;
+        for (int run = 0; run < TIMED_RUNS; run++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+}
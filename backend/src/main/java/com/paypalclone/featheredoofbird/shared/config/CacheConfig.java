@@ -0,0 +1,59 @@
+package com.paypalclone.featheredoofbird.shared.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring cache abstraction backed by the shared Redis instance.
+ *
+ * <p>The cache manager is transaction-aware: puts and evictions issued inside a database
+ * transaction run after it commits. That alone does not stop a reader that loaded the pre-commit
+ * state from caching it after the eviction; caches that must not serve such a page version their
+ * keys, as {@code TransactionPartyCache} does. Redis failures are logged and treated as cache
+ * misses rather than failing the request.
+ */
+@Slf4j
+@Configuration
+@EnableCaching
+public class CacheConfig implements CachingConfigurer {
+
+    /**
+     * Contexts register their caches through further {@link RedisCacheManagerBuilderCustomizer}s.
+     */
+    @Bean
+    RedisCacheManagerBuilderCustomizer transactionAwareRedisCaches() {
+        return builder -> builder.transactionAware();
+    }
+
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new CacheErrorHandler() {
+            @Override
+            public void handleCacheGetError(RuntimeException e, Cache cache, Object key) {
+                log.warn("Cache get failed for {}::{}", cache.getName(), key, e);
+            }
+
+            @Override
+            public void handleCachePutError(
+                    RuntimeException e, Cache cache, Object key, Object value) {
+                log.warn("Cache put failed for {}::{}", cache.getName(), key, e);
+            }
+
+            @Override
+            public void handleCacheEvictError(RuntimeException e, Cache cache, Object key) {
+                log.warn("Cache evict failed for {}::{}", cache.getName(), key, e);
+            }
+
+            @Override
+            public void handleCacheClearError(RuntimeException e, Cache cache) {
+                log.warn("Cache clear failed for {}", cache.getName(), e);
+            }
+        };
+    }
+}
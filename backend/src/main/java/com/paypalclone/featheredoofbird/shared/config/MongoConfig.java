@@ -0,0 +1,26 @@
+package com.paypalclone.featheredoofbird.shared.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/**
+ * Stores {@code LocalDateTime} and {@code LocalDate} values in Mongo as UTC dates, with the
+ * driver's own {@code java.time} codecs instead of Spring's default conversion through the JVM's
+ * zone.
+ *
+ * <p>Postgres keeps the same values as {@code timestamp without time zone}, so both stores hold the
+ * wall-clock time itself: epoch millis, day buckets and range bounds computed in either store agree
+ * without naming a zone, including in the repeated hour of a daylight-saving fall-back, which a
+ * zone-based conversion resolves differently in Java and in Postgres.
+ */
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    MongoCustomConversions mongoCustomConversions() {
+        return MongoCustomConversions.create(
+                MongoCustomConversions.MongoConverterConfigurationAdapter
+                        ::useNativeDriverJavaTimeCodecs);
+    }
+}
@@ -0,0 +1,50 @@
+package com.paypalclone.featheredoofbird.shared.config;
+
+import com.paypalclone.featheredoofbird.shared.observability.MongoSlowQueryListener;
+import com.paypalclone.featheredoofbird.shared.observability.SampledSqlLogger;
+import com.paypalclone.featheredoofbird.shared.observability.SlowQueryLog;
+import com.paypalclone.featheredoofbird.shared.observability.SlowQueryStatistics;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks the {@link SlowQueryLog} into Hibernate and the Mongo driver, and replaces logging of every
+ * SQL statement with sampled logging.
+ *
+ * <p>Hibernate only reports query durations with statistics enabled, so capture turns them on; the
+ * per-session metrics log that comes with them is switched off.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer slowQueryHibernateProperties(
+            AppConfig appConfig, SlowQueryLog slowQueryLog) {
+        AppConfig.SlowQueries config = appConfig.observability().slowQueries();
+        return properties -> {
+            if (config.enabled()) {
+                properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+                properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+                properties.put(
+                        AvailableSettings.STATS_BUILDER,
+                        (StatisticsFactory)
+                                sessionFactory ->
+                                        new SlowQueryStatistics(sessionFactory, slowQueryLog));
+            }
+            if (config.sqlLogSampleRate() > 0) {
+                properties.put(
+                        AvailableSettings.STATEMENT_INSPECTOR,
+                        new SampledSqlLogger(config.sqlLogSampleRate()));
+            }
+        };
+    }
+
+    @Bean
+    MongoClientSettingsBuilderCustomizer slowQueryCommandListener(SlowQueryLog slowQueryLog) {
+        return builder -> builder.addCommandListener(new MongoSlowQueryListener(slowQueryLog));
+    }
+}
@@ -0,0 +1,19 @@
+package com.paypalclone.featheredoofbird.shared.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables Spring's task scheduler for background jobs such as the read-model projector, and
+ * {@code @Async} methods.
+ *
+ * <p>Both use Boot's auto-configured {@code taskScheduler} and {@code applicationTaskExecutor}
+ * beans, which switch to virtual threads with {@code spring.threads.virtual.enabled=true}. Declare
+ * new executors through those beans (or {@code SimpleAsyncTaskExecutor} with virtual threads)
+ * rather than fixed platform-thread pools, so the mode keeps covering them.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class SchedulingConfig {}
@@ -9,7 +9,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class SecurityBeansConfig {
 
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(AppConfig appConfig) {
+        return new BCryptPasswordEncoder(
+                BCryptCalibration.strength(appConfig.auth().passwordHashing()));
     }
 }
@@ -1,6 +1,7 @@
 package com.paypalclone.featheredoofbird.shared.config;
 
 import com.paypalclone.featheredoofbird.auth.AuthenticationStrategy;
+import com.paypalclone.featheredoofbird.auth.ValidatedJwtCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -14,9 +15,12 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
     private final AuthenticationStrategy authenticationStrategy;
+    private final ValidatedJwtCache validatedJwtCache;
 
-    public SecurityConfig(AuthenticationStrategy authenticationStrategy) {
+    public SecurityConfig(
+            AuthenticationStrategy authenticationStrategy, ValidatedJwtCache validatedJwtCache) {
         this.authenticationStrategy = authenticationStrategy;
+        this.validatedJwtCache = validatedJwtCache;
     }
 
     @Bean
@@ -36,7 +40,7 @@ public class SecurityConfig {
                                                 "/actuator/health",
                                                 "/api/auth/**")
                                         .permitAll()
-                                        .requestMatchers("/api/admin/**")
+                                        .requestMatchers("/actuator/**", "/api/admin/**")
                                         .hasAuthority("SCOPE_admin:all")
                                         .requestMatchers("/api/**")
                                         .authenticated()
@@ -47,14 +51,15 @@ public class SecurityConfig {
                                 oauth.jwt(
                                         jwt ->
                                                 jwt.jwtAuthenticationConverter(
-                                                        authenticationStrategy
-                                                                .jwtAuthenticationConverter())));
+                                                        validatedJwtCache.converter(
+                                                                authenticationStrategy
+                                                                        .jwtAuthenticationConverter()))));
         return http.build();
     }
 
     @Bean
     @SuppressWarnings("unused")
     JwtDecoder jwtDecoder() {
-        return authenticationStrategy.jwtDecoder();
+        return validatedJwtCache.decoder(authenticationStrategy.jwtDecoder());
     }
 }
@@ -0,0 +1,69 @@
+package com.paypalclone.featheredoofbird.shared.observability;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mongo driver listener that hands each command's shape and duration to the {@link SlowQueryLog}.
+ * Completion events do not carry the command, so the parts of the shape are copied when it starts;
+ * they are masked and serialised only for commands that turn out to be slow. Handshake and session
+ * housekeeping commands are ignored.
+ */
+public class MongoSlowQueryListener implements CommandListener {
+
+    static final String STORE = "mongo";
+
+    private static final Set<String> IGNORED_COMMANDS =
+            Set.of(
+                    "hello",
+                    "ismaster",
+                    "ping",
+                    "buildinfo",
+                    "saslstart",
+                    "saslcontinue",
+                    "endsessions",
+                    "killcursors");
+
+    private final SlowQueryLog slowQueryLog;
+    private final Map<Integer, QueryShapes.MongoCommand> commands = new ConcurrentHashMap<>();
+
+    public MongoSlowQueryListener(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (slowQueryLog.isEnabled()
+                && !IGNORED_COMMANDS.contains(event.getCommandName().toLowerCase(Locale.ROOT))) {
+            commands.put(
+                    event.getRequestId(),
+                    QueryShapes.mongoCommand(event.getCommandName(), event.getCommand()));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void completed(int requestId, long elapsedNanos) {
+        QueryShapes.MongoCommand command = commands.remove(requestId);
+        Duration duration = Duration.ofNanos(elapsedNanos);
+        if (command != null && slowQueryLog.isSlow(duration)) {
+            slowQueryLog.record(STORE, command.shape(), duration);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.paypalclone.featheredoofbird.shared.observability;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+/**
+ * Reduces queries to their shape: literals and parameters become {@code ?}, so that executions of
+ * the same query with different values are counted together and no customer data is kept.
+ */
+public final class QueryShapes {
+
+    /** Longest shape kept; longer statements are cut, their prefix identifies them well enough. */
+    static final int MAX_LENGTH = 2_000;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern POSITIONAL_PARAMETER = Pattern.compile("\\?\\d+");
+    private static final Pattern PARAMETER_LIST =
+            Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    /** Mongo command fields that carry the query; everything else is options or payload. */
+    private static final List<String> QUERY_FIELDS =
+            List.of(
+                    "filter",
+                    "sort",
+                    "projection",
+                    "pipeline",
+                    "query",
+                    "updates",
+                    "deletes",
+                    "documents");
+
+    /** Query fields holding one entry per written document. */
+    private static final Set<String> WRITE_FIELDS = Set.of("updates", "deletes", "documents");
+
+    /** Fields whose values are part of the shape rather than data. */
+    private static final Set<String> KEPT_VALUES =
+            Set.of("sort", "projection", "$sort", "$project");
+
+    private QueryShapes() {}
+
+    /** Shape of an HQL or SQL statement. */
+    public static String sql(String statement) {
+        String shape = WHITESPACE.matcher(statement).replaceAll(" ").trim();
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = POSITIONAL_PARAMETER.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+        return truncate(shape);
+    }
+
+    /**
+     * Shape of a Mongo command: its name, the collection, and the query fields with their values
+     * masked. Field paths ({@code "$amount"}) and sort or projection values are kept.
+     */
+    public static String mongo(String commandName, BsonDocument command) {
+        return mongoCommand(commandName, command).shape();
+    }
+
+    /**
+     * The parts of a Mongo command its shape is built from, copied out of the driver's buffer.
+     * Write commands carry every written document in {@code updates}, {@code deletes} or {@code
+     * documents}; only the first one is kept, so capturing a bulk write costs the same as a single
+     * write and masking waits until the command turns out to be slow.
+     */
+    public static MongoCommand mongoCommand(String commandName, BsonDocument command) {
+        BsonValue target = command.get(commandName);
+        String collection =
+                target != null && target.isString()
+                        ? target.asString().getValue()
+                        : command.getString("collection", new BsonString("")).getValue();
+        BsonDocument query = new BsonDocument();
+        for (String field : QUERY_FIELDS) {
+            BsonValue value = command.get(field);
+            if (value != null) {
+                query.put(field, WRITE_FIELDS.contains(field) ? first(value) : value);
+            }
+        }
+        return new MongoCommand(commandName, collection, query.clone());
+    }
+
+    /** A Mongo command reduced to what {@link #shape()} needs. */
+    public record MongoCommand(String name, String collection, BsonDocument query) {
+
+        public String shape() {
+            BsonDocument masked = new BsonDocument();
+            query.forEach(
+                    (field, value) -> masked.put(field, mask(value, KEPT_VALUES.contains(field))));
+            String shape = (name + " " + collection).trim();
+            return truncate(masked.isEmpty() ? shape : shape + " " + masked.toJson());
+        }
+    }
+
+    private static BsonValue first(BsonValue value) {
+        if (!value.isArray()) {
+            return value;
+        }
+        Iterator<BsonValue> elements = value.asArray().iterator();
+        return elements.hasNext() ? new BsonArray(List.of(elements.next())) : new BsonArray();
+    }
+
+    private static BsonValue mask(BsonValue value, boolean keep) {
+        if (value.isDocument()) {
+            BsonDocument masked = new BsonDocument();
+            value.asDocument()
+                    .forEach(
+                            (key, child) ->
+                                    masked.put(
+                                            key, mask(child, keep || KEPT_VALUES.contains(key))));
+            return masked;
+        }
+        if (value.isArray()) {
+            BsonArray masked = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                BsonValue shape = mask(element, keep);
+                if (!element.isDocument() && !element.isArray()) {
+                    // Scalar lists ($in, $nin) collapse to one entry whatever their length.
+                    return new BsonArray(List.of(shape));
+                }
+                if (masked.isEmpty() || !masked.get(masked.size() - 1).equals(shape)) {
+                    masked.add(shape);
+                }
+            }
+            return masked;
+        }
+        if (keep || (value.isString() && value.asString().getValue().startsWith("$"))) {
+            return value;
+        }
+        return new BsonString("?");
+    }
+
+    private static String truncate(String shape) {
+        return shape.length() <= MAX_LENGTH ? shape : shape.substring(0, MAX_LENGTH);
+    }
+}
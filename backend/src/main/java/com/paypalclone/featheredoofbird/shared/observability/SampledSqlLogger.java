@@ -0,0 +1,27 @@
+package com.paypalclone.featheredoofbird.shared.observability;
+
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Logs a random sample of the SQL Hibernate sends, in place of {@code spring.jpa.show-sql}. Each
+ * statement is logged with probability {@code sampleRate}; the statement itself is not changed.
+ */
+@Slf4j
+public class SampledSqlLogger implements StatementInspector {
+
+    private final double sampleRate;
+
+    public SampledSqlLogger(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("SQL (sampled): {}", sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,109 @@
+package com.paypalclone.featheredoofbird.shared.observability;
+
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory record of the slowest query shapes seen by this node.
+ *
+ * <p>Executions at or above {@code app.observability.slow-queries.threshold} are aggregated per
+ * store and normalized shape (see {@link QueryShapes}), so a query run with different parameters
+ * counts as one entry. At most {@code maxShapes} entries are kept; when a new shape arrives at the
+ * limit, the entry with the lowest maximum duration makes room for it. Faster executions cost a
+ * single comparison.
+ */
+@Component
+public class SlowQueryLog {
+
+    private final AppConfig.SlowQueries config;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public SlowQueryLog(AppConfig appConfig) {
+        this.config = appConfig.observability().slowQueries();
+    }
+
+    /** Aggregated executions of one query shape against one store. */
+    public record SlowQuery(
+            String store,
+            String shape,
+            long count,
+            double maxMillis,
+            double meanMillis,
+            Instant lastSeen) {}
+
+    private record Key(String store, String shape) {}
+
+    public boolean isEnabled() {
+        return config.enabled();
+    }
+
+    /** Whether an execution that took {@code duration} would be recorded. */
+    public boolean isSlow(Duration duration) {
+        return config.enabled() && duration.compareTo(config.threshold()) >= 0;
+    }
+
+    public void record(String store, String shape, Duration duration) {
+        if (!isSlow(duration)) {
+            return;
+        }
+        Key key = new Key(store, shape);
+        if (!entries.containsKey(key) && entries.size() >= config.maxShapes()) {
+            evictFastest();
+        }
+        entries.computeIfAbsent(key, ignored -> new Entry()).add(duration.toNanos());
+    }
+
+    /** The {@code topSize} slowest shapes by maximum duration, slowest first. */
+    public List<SlowQuery> top() {
+        return entries.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble(SlowQuery::maxMillis).reversed())
+                .limit(config.topSize())
+                .toList();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private void evictFastest() {
+        entries.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().maxNanos()))
+                .ifPresent(entry -> entries.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private static final class Entry {
+
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private Instant lastSeen;
+
+        synchronized void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            lastSeen = Instant.now();
+        }
+
+        synchronized long maxNanos() {
+            return maxNanos;
+        }
+
+        synchronized SlowQuery snapshot(Key key) {
+            return new SlowQuery(
+                    key.store(),
+                    key.shape(),
+                    count,
+                    maxNanos / 1e6,
+                    count == 0 ? 0 : totalNanos / 1e6 / count,
+                    lastSeen);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.paypalclone.featheredoofbird.shared.observability;
+
+import java.time.Duration;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+/**
+ * Hibernate statistics that also hand every HQL and native query execution to the {@link
+ * SlowQueryLog}. Hibernate reports these executions, with their query string and duration in
+ * milliseconds, only while statistics are enabled; entity loads by id are not reported.
+ */
+public class SlowQueryStatistics extends StatisticsImpl {
+
+    static final String STORE = "postgres";
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryStatistics(
+            SessionFactoryImplementor sessionFactory, SlowQueryLog slowQueryLog) {
+        super(sessionFactory);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public void queryExecuted(String query, int rows, long time) {
+        super.queryExecuted(query, rows, time);
+        Duration duration = Duration.ofMillis(time);
+        if (slowQueryLog.isSlow(duration)) {
+            slowQueryLog.record(STORE, QueryShapes.sql(query), duration);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.paypalclone.featheredoofbird.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+class JwksJwtDecoderFactoryTest {
+
+    private static final Duration LONG_TTL = Duration.ofMinutes(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+    private final RSAKey currentKey = rsaKey("key-1");
+
+    private HttpServer server;
+    private String issuer;
+    private String metadataPath = "/.well-known/openid-configuration";
+    private volatile JWKSet published = new JWKSet(currentKey);
+    private volatile boolean issuerDown;
+    private JwksJwtDecoderFactory factory;
+
+    @BeforeEach
+    void startIssuer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        issuer = "http://localhost:" + server.getAddress().getPort();
+        server.createContext(
+                "/.well-known",
+                exchange -> {
+                    if (!exchange.getRequestURI().getPath().equals(metadataPath)) {
+                        respond(exchange, 404, "{}");
+                        return;
+                    }
+                    respond(
+                            exchange,
+                            200,
+                            "{\"issuer\":\"%s\",\"jwks_uri\":\"%s/jwks\"}"
+                                    .formatted(issuer, issuer));
+                });
+        server.createContext(
+                "/jwks",
+                exchange -> {
+                    jwksRequests.incrementAndGet();
+                    if (issuerDown) {
+                        respond(exchange, 500, "{}");
+                    } else {
+                        respond(exchange, 200, published.toPublicJWKSet().toString());
+                    }
+                });
+        server.start();
+    }
+
+    @AfterEach
+    void stopIssuer() throws IOException {
+        if (factory != null) {
+            factory.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void prefetchesTheKeySetAndServesLookupsFromTheCache() {
+        JwtDecoder decoder = decoder(LONG_TTL);
+        await(() -> fetches("success") == 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(decoder.decode(token(currentKey)).getSubject()).isEqualTo("user|123");
+        }
+
+        assertThat(jwksRequests).hasValue(1);
+        assertThat(lookups("hit")).isEqualTo(3);
+        assertThat(lookups("miss")).isZero();
+    }
+
+    @Test
+    void fallsBackToAuthorizationServerMetadata() {
+        metadataPath = "/.well-known/oauth-authorization-server";
+
+        JwtDecoder decoder = decoder(LONG_TTL);
+
+        assertThat(decoder.decode(token(currentKey)).getSubject()).isEqualTo("user|123");
+    }
+
+    @Test
+    void refreshesOnceForAKeyTheCacheHasNotSeen() {
+        JwtDecoder decoder = decoder(LONG_TTL);
+        await(() -> fetches("success") == 1);
+        decoder.decode(token(currentKey));
+
+        RSAKey rotatedKey = rsaKey("key-2");
+        published = new JWKSet(List.of(currentKey, rotatedKey));
+
+        assertThat(decoder.decode(token(rotatedKey)).getSubject()).isEqualTo("user|123");
+        assertThat(decoder.decode(token(rotatedKey)).getSubject()).isEqualTo("user|123");
+        assertThat(jwksRequests).hasValue(2);
+        assertThat(lookups("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsUnknownKeysWithoutHittingTheIssuerOnceRateLimited() {
+        RSAKey forgingKey = rsaKey("forged");
+        JwtDecoder decoder = decoder(LONG_TTL);
+        await(() -> fetches("success") == 1);
+        assertThatThrownBy(() -> decoder.decode(token(forgingKey, "forged-0")))
+                .isInstanceOf(BadJwtException.class);
+
+        for (int i = 1; i <= 20; i++) {
+            String forged = token(forgingKey, "forged-" + i);
+            assertThatThrownBy(() -> decoder.decode(forged)).isInstanceOf(BadJwtException.class);
+        }
+
+        assertThat(jwksRequests).hasValue(2);
+        assertThat(events("rate-limited")).isEqualTo(20);
+        assertThat(decoder.decode(token(currentKey)).getSubject()).isEqualTo("user|123");
+    }
+
+    @Test
+    void rejectsHmacTokensEvenWhenTheKeyIdMatches() throws Exception {
+        JwtDecoder decoder = decoder(LONG_TTL);
+        SignedJWT jwt =
+                new SignedJWT(
+                        new JWSHeader.Builder(JWSAlgorithm.HS256)
+                                .keyID(currentKey.getKeyID())
+                                .build(),
+                        claims());
+        jwt.sign(new MACSigner(currentKey.toPublicJWK().toRSAPublicKey().getEncoded()));
+
+        assertThatThrownBy(() -> decoder.decode(jwt.serialize()))
+                .isInstanceOf(BadJwtException.class);
+    }
+
+    @Test
+    void refreshesInTheBackgroundBeforeTheKeySetExpires() {
+        decoder(Duration.ofSeconds(1));
+
+        await(() -> jwksRequests.get() >= 2);
+
+        assertThat(events("scheduled-refresh")).isPositive();
+    }
+
+    @Test
+    void servesTheLastKeySetWhileTheIssuerIsDown() throws InterruptedException {
+        JwtDecoder decoder = decoder(Duration.ofSeconds(1));
+        await(() -> fetches("success") == 1);
+
+        issuerDown = true;
+        Thread.sleep(1_500);
+
+        assertThat(decoder.decode(token(currentKey)).getSubject()).isEqualTo("user|123");
+        assertThat(fetches("failure")).isPositive();
+        assertThat(events("stale-served")).isPositive();
+    }
+
+    @Test
+    void placesWellKnownSegmentsForIssuersWithPaths() {
+        assertThat(IssuerJwkSetSource.metadataLocations("https://idp.example.com/tenants/acme/"))
+                .containsExactly(
+                        URI.create(
+                                "https://idp.example.com/tenants/acme/.well-known/openid-configuration"),
+                        URI.create(
+                                "https://idp.example.com/.well-known/oauth-authorization-server/tenants/acme"));
+    }
+
+    private JwtDecoder decoder(Duration ttl) {
+        factory =
+                new JwksJwtDecoderFactory(
+                        new AppConfig.Jwks(
+                                ttl,
+                                Duration.ofMillis(300),
+                                Duration.ofMillis(200),
+                                ttl.dividedBy(2),
+                                Duration.ofHours(1),
+                                Duration.ofSeconds(2),
+                                Duration.ofSeconds(2)),
+                        meterRegistry);
+        return factory.create(issuer);
+    }
+
+    private long fetches(String outcome) {
+        return meterRegistry
+                .get(JwksJwtDecoderFactory.FETCHES)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    private double lookups(String result) {
+        return meterRegistry
+                .get(JwksJwtDecoderFactory.LOOKUPS)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private double events(String event) {
+        var counter =
+                meterRegistry.find(JwksJwtDecoderFactory.EVENTS).tag("event", event).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static String token(RSAKey key) {
+        return token(key, key.getKeyID());
+    }
+
+    private static String token(RSAKey key, String keyId) {
+        try {
+            SignedJWT jwt =
+                    new SignedJWT(
+                            new JWSHeader.Builder(JWSAlgorithm.RS256)
+                                    .keyID(keyId)
+                                    .type(JOSEObjectType.JWT)
+                                    .build(),
+                            claims());
+            jwt.sign(new RSASSASigner(key));
+            return jwt.serialize();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JWTClaimsSet claims() {
+        return new JWTClaimsSet.Builder()
+                .subject("user|123")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .build();
+    }
+
+    private static RSAKey rsaKey(String keyId) {
+        try {
+            return new RSAKeyGenerator(2048).keyID(keyId).generate();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.paypalclone.featheredoofbird.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.paypalclone.featheredoofbird.auth.auth0.Auth0JwtAuthenticationConverter;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import com.paypalclone.featheredoofbird.shared.config.TestAppConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+class ValidatedJwtCacheTest {
+
+    private final AtomicInteger decodes = new AtomicInteger();
+    private final AtomicInteger conversions = new AtomicInteger();
+
+    private final Converter<Jwt, AbstractAuthenticationToken> countingConverter =
+            jwt -> {
+                conversions.incrementAndGet();
+                return new Auth0JwtAuthenticationConverter().convert(jwt);
+            };
+
+    @Test
+    void decodesEachTokenOnce() {
+        ValidatedJwtCache cache = cache(true);
+        JwtDecoder decoder = cache.decoder(decoderExpiringIn(Duration.ofHours(1)));
+
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-a");
+        decoder.decode("token-b");
+
+        assertThat(second).isSameAs(first);
+        assertThat(decodes).hasValue(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotCacheRejectedTokens() {
+        JwtDecoder decoder =
+                cache(true)
+                        .decoder(
+                                token -> {
+                                    decodes.incrementAndGet();
+                                    throw new BadJwtException("bad signature");
+                                });
+
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+
+        assertThat(decodes).hasValue(2);
+    }
+
+    @Test
+    void doesNotCacheTokensWithoutExpiry() {
+        ValidatedJwtCache cache = cache(true);
+        JwtDecoder decoder =
+                cache.decoder(
+                        token -> {
+                            decodes.incrementAndGet();
+                            return jwt(token, null);
+                        });
+
+        decoder.decode("token-a");
+        decoder.decode("token-a");
+
+        assertThat(decodes).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void doesNotCacheExpiredTokens() {
+        ValidatedJwtCache cache = cache(true);
+        JwtDecoder decoder = cache.decoder(decoderExpiringIn(Duration.ofSeconds(-30)));
+
+        decoder.decode("token-a");
+        decoder.decode("token-a");
+
+        assertThat(decodes).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void convertsEachCachedTokenOnceAndReturnsFreshAuthentications() {
+        ValidatedJwtCache cache = cache(true);
+        JwtDecoder decoder = cache.decoder(decoderExpiringIn(Duration.ofHours(1)));
+        Converter<Jwt, AbstractAuthenticationToken> converter = cache.converter(countingConverter);
+
+        AbstractAuthenticationToken first = converter.convert(decoder.decode("token-a"));
+        AbstractAuthenticationToken second = converter.convert(decoder.decode("token-a"));
+
+        assertThat(conversions).hasValue(1);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo("user|123");
+        assertThat(second.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("SCOPE_transactions:read", "read:transactions");
+    }
+
+    @Test
+    void convertsUncachedTokensEveryTime() {
+        Converter<Jwt, AbstractAuthenticationToken> converter =
+                cache(true).converter(countingConverter);
+        Jwt jwt = jwt("token-a", Instant.now().plus(Duration.ofHours(1)));
+
+        converter.convert(jwt);
+        converter.convert(jwt);
+
+        assertThat(conversions).hasValue(2);
+    }
+
+    @Test
+    void passesThroughWhenDisabled() {
+        ValidatedJwtCache cache = cache(false);
+        JwtDecoder decoder = cache.decoder(decoderExpiringIn(Duration.ofHours(1)));
+        Converter<Jwt, AbstractAuthenticationToken> converter = cache.converter(countingConverter);
+
+        converter.convert(decoder.decode("token-a"));
+        converter.convert(decoder.decode("token-a"));
+
+        assertThat(decodes).hasValue(2);
+        assertThat(conversions).hasValue(2);
+    }
+
+    private JwtDecoder decoderExpiringIn(Duration ttl) {
+        return token -> {
+            decodes.incrementAndGet();
+            return jwt(token, Instant.now().plus(ttl));
+        };
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .subject("user|123")
+                .claim("scope", "transactions:read")
+                .claim("permissions", List.of("read:transactions"))
+                .issuedAt(Instant.now().minusSeconds(60))
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    private static ValidatedJwtCache cache(boolean enabled) {
+        AppConfig appConfig =
+                TestAppConfig.with(
+                        "app.auth.token-cache.enabled=" + enabled,
+                        "app.auth.token-cache.maximum-size=100");
+        return new ValidatedJwtCache(appConfig, new SimpleMeterRegistry());
+    }
+}
@@ -3,7 +3,7 @@ package com.paypalclone.featheredoofbird.auth.localjwt;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.paypalclone.featheredoofbird.shared.config.AppConfig;
-import java.time.Duration;
+import com.paypalclone.featheredoofbird.shared.config.TestAppConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
@@ -15,16 +15,7 @@ class LocalJwtAuthenticationStrategyTest {
 
     @BeforeEach
     void setUp() {
-        AppConfig appConfig =
-                new AppConfig(
-                        new AppConfig.Auth(
-                                "local-jwt",
-                                "",
-                                "",
-                                new AppConfig.LocalJwt(
-                                        "http://localhost:8080",
-                                        "dev-only-local-jwt-signing-secret-change-me",
-                                        Duration.ofHours(8))));
+        AppConfig appConfig = TestAppConfig.defaults();
         strategy = new LocalJwtAuthenticationStrategy(appConfig);
     }
 
@@ -0,0 +1,141 @@
+package com.paypalclone.featheredoofbird.identity.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.paypalclone.featheredoofbird.identity.domain.Role;
+import com.paypalclone.featheredoofbird.identity.infrastructure.persistence.RefreshTokenRepository;
+import com.paypalclone.featheredoofbird.identity.infrastructure.persistence.UserRepository;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@SpringBootTest(properties = "app.auth.password-hashing.strength=4")
+@Testcontainers
+@ActiveProfiles("dev")
+class AuthServiceIntegrationTest {
+
+    private static final int REGISTRATIONS = 8;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container private static final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.cache.type", () -> "none");
+    }
+
+    @Autowired private AuthService authService;
+
+    @Autowired private UserRepository userRepository;
+
+    @Autowired private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void parallelRegistrationsOfOneEmailCreateOneUser() {
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<AuthService.AuthResult>> registrations = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(REGISTRATIONS)) {
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                // Vary the case: the index is on lower(email), not on the stored value.
+                String email = i % 2 == 0 ? "race@example.com" : "Race@Example.com";
+                registrations.add(
+                        CompletableFuture.supplyAsync(
+                                () -> {
+                                    awaitQuietly(start);
+                                    return authService.register(email, "secret123", Role.PERSONAL);
+                                },
+                                executor));
+            }
+            start.countDown();
+        }
+
+        List<Throwable> failures =
+                registrations.stream()
+                        .filter(CompletableFuture::isCompletedExceptionally)
+                        .map(CompletableFuture::exceptionNow)
+                        .toList();
+        assertThat(failures)
+                .hasSize(REGISTRATIONS - 1)
+                .allSatisfy(
+                        failure -> assertThat(failure).isInstanceOf(DuplicateEmailException.class));
+        assertThat(
+                        jdbcTemplate.queryForObject(
+                                "select count(*) from users where lower(email) = ?",
+                                Long.class,
+                                "race@example.com"))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void loginLooksUpTheEmailThroughTheLowerEmailIndex() {
+        authService.register("indexed@example.com", "secret123", Role.PERSONAL);
+
+        assertThat(authService.login("Indexed@Example.com", "secret123").user().email())
+                .isEqualTo("indexed@example.com");
+        assertThat(
+                        planWithoutSequentialScans(
+                                "select * from users where lower(email) = lower('indexed@example.com')"))
+                .contains("ux_users_email_lower");
+    }
+
+    /** The table is tiny, so sequential scans are disabled to see whether the index applies. */
+    private String planWithoutSequentialScans(String sql) {
+        return jdbcTemplate.execute(
+                (ConnectionCallback<String>)
+                        connection -> {
+                            try (Statement statement = connection.createStatement()) {
+                                statement.execute("set enable_seqscan = off");
+                                StringBuilder plan = new StringBuilder();
+                                try (ResultSet rows = statement.executeQuery("explain " + sql)) {
+                                    while (rows.next()) {
+                                        plan.append(rows.getString(1)).append('\n');
+                                    }
+                                } finally {
+                                    statement.execute("reset enable_seqscan");
+                                }
+                                return plan.toString();
+                            }
+                        });
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,24 +3,36 @@ package com.paypalclone.featheredoofbird.identity.application;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.paypalclone.featheredoofbird.identity.domain.Role;
 import com.paypalclone.featheredoofbird.identity.domain.User;
 import com.paypalclone.featheredoofbird.identity.domain.UserStatus;
 import com.paypalclone.featheredoofbird.identity.infrastructure.persistence.UserRepository;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.ConstraintViolationException.ConstraintKind;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 
 class AuthServiceTest {
 
     private UserRepository userRepository;
     private PasswordHasher passwordHasher;
     private TokenIssuer tokenIssuer;
+    private RefreshTokenService refreshTokenService;
     private AuthService authService;
 
     @BeforeEach
@@ -28,7 +40,13 @@ class AuthServiceTest {
         userRepository = mock(UserRepository.class);
         passwordHasher = mock(PasswordHasher.class);
         tokenIssuer = mock(TokenIssuer.class);
-        authService = new AuthService(userRepository, passwordHasher, tokenIssuer);
+        refreshTokenService = mock(RefreshTokenService.class);
+        when(refreshTokenService.issue(anyLong()))
+                .thenReturn(
+                        new RefreshTokenService.IssuedRefreshToken(
+                                "refresh-token", Instant.parse("2026-03-25T12:00:00Z")));
+        authService =
+                new AuthService(userRepository, passwordHasher, tokenIssuer, refreshTokenService);
     }
 
     @Test
@@ -40,7 +58,6 @@ class AuthServiceTest {
         savedUser.setStatus(UserStatus.ACTIVE);
         savedUser.setPasswordHash("encoded");
 
-        when(userRepository.existsByEmailIgnoreCase("new@example.com")).thenReturn(false);
         when(passwordHasher.hash("secret123")).thenReturn("encoded");
         when(userRepository.save(any(User.class))).thenReturn(savedUser);
         when(tokenIssuer.issueToken(savedUser))
@@ -52,18 +69,39 @@ class AuthServiceTest {
                 authService.register("New@example.com", "secret123", Role.PERSONAL);
 
         assertThat(result.accessToken()).isEqualTo("token-value");
+        assertThat(result.refreshToken()).isEqualTo("refresh-token");
         assertThat(result.user().email()).isEqualTo("new@example.com");
         verify(passwordHasher).hash("secret123");
         verify(userRepository).save(any(User.class));
     }
 
     @Test
-    void registerRejectsDuplicateEmail() {
-        when(userRepository.existsByEmailIgnoreCase("taken@example.com")).thenReturn(true);
+    void registerMapsTheUniqueViolationToDuplicateEmail() {
+        when(passwordHasher.hash("secret123")).thenReturn("encoded");
+        when(userRepository.save(any(User.class)))
+                .thenThrow(
+                        violation(ConstraintKind.UNIQUE, "ux_users_email_lower"),
+                        new DuplicateKeyException("duplicate key"));
 
+        assertThatThrownBy(
+                        () -> authService.register("Taken@example.com", "secret123", Role.PERSONAL))
+                .isInstanceOf(DuplicateEmailException.class)
+                .hasMessageContaining("taken@example.com");
         assertThatThrownBy(
                         () -> authService.register("taken@example.com", "secret123", Role.PERSONAL))
                 .isInstanceOf(DuplicateEmailException.class);
+        verify(refreshTokenService, never()).issue(anyLong());
+    }
+
+    @Test
+    void registerRethrowsOtherIntegrityViolations() {
+        when(passwordHasher.hash("secret123")).thenReturn("encoded");
+        when(userRepository.save(any(User.class)))
+                .thenThrow(violation(ConstraintKind.OTHER, "users_role_check"));
+
+        assertThatThrownBy(
+                        () -> authService.register("new@example.com", "secret123", Role.PERSONAL))
+                .isInstanceOf(DataIntegrityViolationException.class);
     }
 
     @Test
@@ -103,4 +141,105 @@ class AuthServiceTest {
         assertThatThrownBy(() -> authService.login("user@example.com", "wrongpass"))
                 .isInstanceOf(InvalidCredentialsException.class);
     }
+
+    @Test
+    void loginUpgradesWeakerHashes() {
+        User user = activeUser("old-hash");
+        when(userRepository.findByEmailIgnoreCase("user@example.com"))
+                .thenReturn(Optional.of(user));
+        when(passwordHasher.matches("secret123", "old-hash")).thenReturn(true);
+        when(passwordHasher.needsRehash("old-hash")).thenReturn(true);
+        when(passwordHasher.hash("secret123")).thenReturn("new-hash");
+        when(userRepository.replacePasswordHash(
+                        eq(3L), eq("old-hash"), eq("new-hash"), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(tokenIssuer.issueToken(user))
+                .thenReturn(
+                        new TokenIssuer.IssuedToken(
+                                "jwt-token", Instant.parse("2026-03-11T13:00:00Z")));
+
+        AuthService.AuthResult result = authService.login("user@example.com", "secret123");
+
+        assertThat(result.accessToken()).isEqualTo("jwt-token");
+        assertThat(user.getPasswordHash()).isEqualTo("new-hash");
+    }
+
+    @Test
+    void loginSucceedsWhenTheRehashIsRejected() {
+        User user = activeUser("old-hash");
+        when(userRepository.findByEmailIgnoreCase("user@example.com"))
+                .thenReturn(Optional.of(user));
+        when(passwordHasher.matches("secret123", "old-hash")).thenReturn(true);
+        when(passwordHasher.needsRehash("old-hash")).thenReturn(true);
+        when(passwordHasher.hash("secret123"))
+                .thenThrow(new PasswordHashingBusyException(Duration.ofSeconds(1)));
+        when(tokenIssuer.issueToken(user))
+                .thenReturn(
+                        new TokenIssuer.IssuedToken(
+                                "jwt-token", Instant.parse("2026-03-11T13:00:00Z")));
+
+        AuthService.AuthResult result = authService.login("user@example.com", "secret123");
+
+        assertThat(result.accessToken()).isEqualTo("jwt-token");
+        assertThat(user.getPasswordHash()).isEqualTo("old-hash");
+        verify(userRepository, never()).replacePasswordHash(any(), any(), any(), any());
+    }
+
+    @Test
+    void refreshIssuesNewTokensWithoutCheckingThePassword() {
+        User user = activeUser("encoded");
+        RefreshTokenService.Rotation rotation = new RefreshTokenService.Rotation(3L, "family-1");
+        when(refreshTokenService.rotate("old-refresh-token")).thenReturn(rotation);
+        when(refreshTokenService.issue(rotation))
+                .thenReturn(
+                        new RefreshTokenService.IssuedRefreshToken(
+                                "next-refresh-token", Instant.parse("2026-03-25T13:00:00Z")));
+        when(userRepository.findById(3L)).thenReturn(Optional.of(user));
+        when(tokenIssuer.issueToken(user))
+                .thenReturn(
+                        new TokenIssuer.IssuedToken(
+                                "jwt-token", Instant.parse("2026-03-11T13:00:00Z")));
+
+        AuthService.AuthResult result = authService.refresh("old-refresh-token");
+
+        assertThat(result.accessToken()).isEqualTo("jwt-token");
+        assertThat(result.refreshToken()).isEqualTo("next-refresh-token");
+        assertThat(result.user().id()).isEqualTo(3L);
+        verifyNoInteractions(passwordHasher);
+    }
+
+    @Test
+    void refreshEndsTheSessionOfAnInactiveUser() {
+        User user = activeUser("encoded");
+        user.setStatus(UserStatus.SUSPENDED);
+        RefreshTokenService.Rotation rotation = new RefreshTokenService.Rotation(3L, "family-1");
+        when(refreshTokenService.rotate("old-refresh-token")).thenReturn(rotation);
+        when(userRepository.findById(3L)).thenReturn(Optional.of(user));
+
+        assertThatThrownBy(() -> authService.refresh("old-refresh-token"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        verify(refreshTokenService).revoke(rotation);
+        verify(refreshTokenService, never()).issue(rotation);
+    }
+
+    private static DataIntegrityViolationException violation(
+            ConstraintKind kind, String constraintName) {
+        return new DataIntegrityViolationException(
+                "could not execute statement",
+                new ConstraintViolationException(
+                        "could not execute statement",
+                        new SQLException("violation"),
+                        kind,
+                        constraintName));
+    }
+
+    private static User activeUser(String passwordHash) {
+        User user = new User();
+        user.setId(3L);
+        user.setEmail("user@example.com");
+        user.setRole(Role.PERSONAL);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setPasswordHash(passwordHash);
+        return user;
+    }
 }
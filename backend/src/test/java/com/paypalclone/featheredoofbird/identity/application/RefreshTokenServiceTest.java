@@ -0,0 +1,177 @@
+package com.paypalclone.featheredoofbird.identity.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.paypalclone.featheredoofbird.identity.domain.RefreshToken;
+import com.paypalclone.featheredoofbird.identity.infrastructure.persistence.RefreshTokenRepository;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import com.paypalclone.featheredoofbird.shared.config.TestAppConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class RefreshTokenServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, RefreshToken> stored = new HashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        when(refreshTokenRepository.save(any(RefreshToken.class)))
+                .thenAnswer(
+                        invocation -> {
+                            RefreshToken refreshToken = invocation.getArgument(0);
+                            refreshToken.setId(ids.incrementAndGet());
+                            stored.put(refreshToken.getTokenHash(), refreshToken);
+                            return refreshToken;
+                        });
+        when(refreshTokenRepository.findByTokenHash(anyString()))
+                .thenAnswer(
+                        invocation -> Optional.ofNullable(stored.get(invocation.getArgument(0))));
+    }
+
+    @Test
+    void storesOnlyTheDigestOfIssuedTokens() {
+        RefreshTokenService.IssuedRefreshToken issued = service(false).issue(7L);
+
+        RefreshToken refreshToken = stored.values().iterator().next();
+        assertThat(issued.token()).hasSize(43);
+        assertThat(refreshToken.getTokenHash())
+                .isEqualTo(RefreshTokenService.hash(issued.token()))
+                .isNotEqualTo(issued.token());
+        assertThat(refreshToken.getUserId()).isEqualTo(7L);
+        assertThat(issued.expiresAt())
+                .isBetween(
+                        Instant.now().plus(Duration.ofDays(14)).minusSeconds(5),
+                        Instant.now().plus(Duration.ofDays(14)));
+    }
+
+    @Test
+    void rotatesATokenIntoASuccessorOfTheSameFamily() {
+        RefreshTokenService service = service(false);
+        String token = service.issue(7L).token();
+        when(refreshTokenRepository.markRotated(eq(1L), any(Instant.class))).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = service.rotate(token);
+        service.issue(rotation);
+
+        assertThat(rotation.userId()).isEqualTo(7L);
+        assertThat(stored.values())
+                .extracting(RefreshToken::getFamilyId)
+                .containsOnly(rotation.familyId());
+        assertThat(refreshes("rotated")).isEqualTo(1);
+    }
+
+    @Test
+    void revokesTheFamilyWhenATokenIsUsedTwice() {
+        RefreshTokenService service = service(false);
+        String token = service.issue(7L).token();
+        RefreshToken refreshToken = stored.values().iterator().next();
+        String familyId = refreshToken.getFamilyId();
+        refreshToken.setRotatedAt(Instant.now().minusSeconds(30));
+        when(refreshTokenRepository.markRotated(eq(1L), any(Instant.class))).thenReturn(0);
+
+        assertThatThrownBy(() -> service.rotate(token))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+
+        verify(refreshTokenRepository).revokeFamily(eq(familyId), any(Instant.class));
+        assertThat(refreshes("reused")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsRevokedTokensWithoutTreatingThemAsReplays() {
+        RefreshTokenService service = service(false);
+        String token = service.issue(7L).token();
+        // Rotated and then revoked, as when the token's user turned out to be disabled.
+        RefreshToken refreshToken = stored.values().iterator().next();
+        refreshToken.setRotatedAt(Instant.now().minusSeconds(30));
+        refreshToken.setRevokedAt(Instant.now().minusSeconds(30));
+        when(refreshTokenRepository.markRotated(eq(1L), any(Instant.class))).thenReturn(0);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            assertThatThrownBy(() -> service.rotate(token))
+                    .isInstanceOf(InvalidRefreshTokenException.class);
+        }
+
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+        assertThat(refreshes("revoked")).isEqualTo(2);
+        assertThat(
+                        meterRegistry
+                                .find(RefreshTokenService.REFRESHES)
+                                .tag("outcome", "reused")
+                                .counter())
+                .isNull();
+    }
+
+    @Test
+    void rejectsExpiredTokensWithoutUsingThem() {
+        RefreshTokenService service = service(false);
+        String token = service.issue(7L).token();
+        stored.values().iterator().next().setExpiresAt(Instant.now().minusSeconds(1));
+
+        assertThatThrownBy(() -> service.rotate(token))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+
+        verify(refreshTokenRepository, never()).markRotated(anyLong(), any());
+        assertThat(refreshes("expired")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsUnknownTokens() {
+        assertThatThrownBy(() -> service(false).rotate("not-a-token"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+
+        assertThat(refreshes("invalid")).isEqualTo(1);
+    }
+
+    @Test
+    void redisFrontFindsLiveTokensWithoutReadingPostgres() {
+        RefreshTokenService service = service(true);
+        String token = service.issue(7L).token();
+        when(refreshTokenRepository.markRotated(eq(1L), any(Instant.class))).thenReturn(1);
+
+        assertThat(service.rotate(token).userId()).isEqualTo(7L);
+
+        verify(refreshTokenRepository, never()).findByTokenHash(anyString());
+        assertThat(
+                        cacheManager
+                                .getCache(RefreshTokenService.CACHE)
+                                .get(RefreshTokenService.hash(token)))
+                .isNull();
+    }
+
+    private double refreshes(String outcome) {
+        return meterRegistry
+                .get(RefreshTokenService.REFRESHES)
+                .tag("outcome", outcome)
+                .counter()
+                .count();
+    }
+
+    private RefreshTokenService service(boolean redisFront) {
+        AppConfig appConfig =
+                TestAppConfig.with("app.auth.refresh-tokens.redis-front=" + redisFront);
+        return new RefreshTokenService(
+                refreshTokenRepository, appConfig, cacheManager, meterRegistry);
+    }
+}
@@ -0,0 +1,131 @@
+package com.paypalclone.featheredoofbird.identity.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.paypalclone.featheredoofbird.identity.application.PasswordHashingBusyException;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import com.paypalclone.featheredoofbird.shared.config.TestAppConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class BCryptPasswordHasherTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BCryptPasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    void hashesAndMatchesOnThePool() {
+        hasher = hasher(new BCryptPasswordEncoder(4), 2);
+
+        String hash = hasher.hash("secret123");
+
+        assertThat(hasher.matches("secret123", hash)).isTrue();
+        assertThat(hasher.matches("wrong-password", hash)).isFalse();
+        assertThat(timerCount("hash")).isEqualTo(1);
+        assertThat(timerCount("matches")).isEqualTo(2);
+        assertThat(meterRegistry.get(BCryptPasswordHasher.WAIT).timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void flagsHashesWithALowerWorkFactorForRehash() {
+        hasher = hasher(new BCryptPasswordEncoder(5), 1);
+
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(4).encode("secret123"))).isTrue();
+        assertThat(hasher.needsRehash(hasher.hash("secret123"))).isFalse();
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(6).encode("secret123"))).isFalse();
+    }
+
+    @Test
+    void rejectsCallsOnceTheQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        hasher = hasher(blockingEncoder(started, release), 1);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.hash("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.hash("b"));
+        while (meterRegistry.get(BCryptPasswordHasher.QUEUE).gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> hasher.hash("c"))
+                .isInstanceOfSatisfying(
+                        PasswordHashingBusyException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(2)));
+        assertThat(meterRegistry.get(BCryptPasswordHasher.REJECTED).counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed-a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed-b");
+    }
+
+    @Test
+    void rethrowsEncoderFailures() {
+        hasher =
+                hasher(
+                        new BCryptPasswordEncoder(4) {
+                            @Override
+                            public boolean matches(CharSequence rawPassword, String encoded) {
+                                throw new IllegalArgumentException("Encoded password is malformed");
+                            }
+                        },
+                        1);
+
+        assertThatThrownBy(() -> hasher.matches("secret123", "not-a-hash"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Encoded password is malformed");
+    }
+
+    private long timerCount(String operation) {
+        return meterRegistry
+                .get(BCryptPasswordHasher.DURATION)
+                .tag("operation", operation)
+                .timer()
+                .count();
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hashed-" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.equals(encode(rawPassword));
+            }
+        };
+    }
+
+    private BCryptPasswordHasher hasher(PasswordEncoder encoder, int queueCapacity) {
+        AppConfig appConfig =
+                TestAppConfig.with(
+                        "app.auth.password-hashing.threads=1",
+                        "app.auth.password-hashing.queue-capacity=" + queueCapacity,
+                        "app.auth.password-hashing.retry-after=2s",
+                        "app.auth.password-hashing.strength=4",
+                        "app.auth.password-hashing.minimum-strength=4");
+        return new BCryptPasswordHasher(encoder, appConfig, meterRegistry);
+    }
+}
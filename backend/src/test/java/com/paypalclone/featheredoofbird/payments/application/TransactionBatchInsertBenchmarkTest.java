@@ -0,0 +1,111 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.PostgresTransactionRepository;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionOutboxRepository;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Compares one-by-one creation against the batch endpoint's code path. Excluded from the default
+ * build; run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("dev")
+class TransactionBatchInsertBenchmarkTest {
+
+    private static final int ROWS = 2_000;
+    private static final int ROUNDS = 3;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container private static final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.cache.type", () -> "none");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @Autowired private TransactionService transactionService;
+
+    @Autowired private PostgresTransactionRepository postgresTransactionRepository;
+
+    @Autowired private TransactionOutboxRepository transactionOutboxRepository;
+
+    @AfterEach
+    void tearDown() {
+        transactionOutboxRepository.deleteAll();
+        postgresTransactionRepository.deleteAll();
+    }
+
+    @Test
+    void batchInsertIsFasterThanSingleInserts() {
+        Duration single = Duration.ZERO;
+        Duration batch = Duration.ZERO;
+        for (int round = 0; round < ROUNDS; round++) {
+            single = single.plus(time(() -> transactions().forEach(this::createOne)));
+            batch = batch.plus(time(() -> transactionService.createTransactions(transactions())));
+        }
+
+        log.info(
+                "Inserted {} transactions x {} rounds: single={}ms batch={}ms",
+                ROWS,
+                ROUNDS,
+                single.toMillis(),
+                batch.toMillis());
+        assertThat(postgresTransactionRepository.count()).isEqualTo(2L * ROWS * ROUNDS);
+        assertThat(batch).isLessThan(single);
+    }
+
+    private void createOne(Transaction transaction) {
+        transactionService.createTransaction(transaction);
+    }
+
+    private static Duration time(Runnable task) {
+        long start = System.nanoTime();
+        task.run();
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private static List<Transaction> transactions() {
+        return IntStream.range(0, ROWS)
+                .mapToObj(
+                        i -> {
+                            Transaction transaction = new Transaction();
+                            transaction.setSender("sender-" + (i % 50));
+                            transaction.setReceiver("receiver-" + (i % 70));
+                            transaction.setAmount(BigDecimal.valueOf(i + 1, 2));
+                            transaction.setCurrency("USD");
+                            transaction.setStatus(Transaction.TransactionStatus.PENDING);
+                            return transaction;
+                        })
+                .toList();
+    }
+}
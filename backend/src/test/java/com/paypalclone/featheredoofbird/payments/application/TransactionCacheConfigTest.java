@@ -0,0 +1,48 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionPage;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+class TransactionCacheConfigTest {
+
+    private final Jackson2JsonRedisSerializer<TransactionPage> serializer =
+            TransactionCacheConfig.pageSerializer(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void pageRoundTripsAsPlainJson() {
+        Transaction first = transaction(2L, LocalDateTime.of(2024, 3, 1, 12, 0, 0, 5_000_000));
+        Transaction second = transaction(1L, LocalDateTime.of(2024, 3, 1, 11, 0));
+        TransactionPage page = TransactionPage.of(List.of(first, second), 1);
+
+        byte[] bytes = serializer.serialize(page);
+        TransactionPage restored = serializer.deserialize(bytes);
+
+        assertThat(restored).isEqualTo(page);
+        assertThat(new String(bytes, StandardCharsets.UTF_8))
+                .startsWith("{\"transactions\":[{")
+                .doesNotContain("@class")
+                .doesNotContain("java.");
+    }
+
+    private Transaction transaction(Long id, LocalDateTime createdAt) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setSender("alice");
+        transaction.setReceiver("bob");
+        transaction.setAmount(new BigDecimal("12.30"));
+        transaction.setCurrency("USD");
+        transaction.setCreatedAt(createdAt);
+        transaction.setUpdatedAt(createdAt);
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        return transaction;
+    }
+}
@@ -0,0 +1,89 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionPage;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRepository;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import com.paypalclone.featheredoofbird.shared.config.TestAppConfig;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class TransactionPartyCacheTest {
+
+    private static final int HEAD_SIZE = 10;
+
+    private TransactionRepository transactionRepository;
+    private TransactionPartyCache transactionPartyCache;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        transactionPartyCache =
+                new TransactionPartyCache(
+                        transactionRepository, new ConcurrentMapCacheManager(), appConfig());
+    }
+
+    @Test
+    void servesRepeatedReadsFromTheCache() {
+        TransactionPage page = page(1L);
+        when(transactionRepository.findFirstPageBySender("alice", HEAD_SIZE)).thenReturn(page);
+
+        assertThat(transactionPartyCache.firstPageBySender("alice")).isEqualTo(page);
+        assertThat(transactionPartyCache.firstPageBySender("alice")).isEqualTo(page);
+
+        verify(transactionRepository).findFirstPageBySender("alice", HEAD_SIZE);
+    }
+
+    @Test
+    void writesReplaceTheCachedPagesOfBothParties() {
+        when(transactionRepository.findFirstPageBySender("alice", HEAD_SIZE))
+                .thenReturn(page(1L), page(2L));
+        when(transactionRepository.findFirstPageByReceiver("bob", HEAD_SIZE))
+                .thenReturn(page(1L), page(2L));
+        transactionPartyCache.firstPageBySender("alice");
+        transactionPartyCache.firstPageByReceiver("bob");
+
+        transactionPartyCache.evict("alice", "bob");
+
+        assertThat(transactionPartyCache.firstPageBySender("alice")).isEqualTo(page(2L));
+        assertThat(transactionPartyCache.firstPageByReceiver("bob")).isEqualTo(page(2L));
+    }
+
+    @Test
+    void pageLoadedBeforeACommitIsNotServedAfterIt() {
+        // The write commits while the first reader is still loading its now stale page.
+        when(transactionRepository.findFirstPageBySender("alice", HEAD_SIZE))
+                .thenAnswer(
+                        invocation -> {
+                            transactionPartyCache.evict("alice", "bob");
+                            return page(1L);
+                        })
+                .thenReturn(page(2L));
+
+        assertThat(transactionPartyCache.firstPageBySender("alice")).isEqualTo(page(1L));
+        assertThat(transactionPartyCache.firstPageBySender("alice")).isEqualTo(page(2L));
+        assertThat(transactionPartyCache.firstPageBySender("alice")).isEqualTo(page(2L));
+
+        verify(transactionRepository, times(2)).findFirstPageBySender("alice", HEAD_SIZE);
+    }
+
+    private static TransactionPage page(Long id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setSender("alice");
+        transaction.setReceiver("bob");
+        return TransactionPage.of(List.of(transaction), HEAD_SIZE);
+    }
+
+    private static AppConfig appConfig() {
+        return TestAppConfig.with("app.payments.party-cache.head-size=" + HEAD_SIZE);
+    }
+}
@@ -0,0 +1,160 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionReadModelRebuilder;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionReadModelRebuilder.IdRange;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRebuild;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupStore;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import com.paypalclone.featheredoofbird.shared.config.TestAppConfig;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TransactionRebuildServiceTest {
+
+    private TransactionReadModelRebuilder rebuilder;
+    private TransactionRollupStore transactionRollupStore;
+    private TransactionRebuildService transactionRebuildService;
+    private TransactionReadModelRebuilder.Claim claim;
+    private TransactionRebuild rebuild;
+
+    @BeforeEach
+    void setUp() {
+        rebuilder = mock(TransactionReadModelRebuilder.class);
+        claim = mock(TransactionReadModelRebuilder.Claim.class);
+        when(rebuilder.tryClaim()).thenReturn(Optional.of(claim));
+        transactionRollupStore = mock(TransactionRollupStore.class);
+        transactionRebuildService =
+                new TransactionRebuildService(rebuilder, transactionRollupStore, appConfig());
+        rebuild = new TransactionRebuild();
+        rebuild.setId(7L);
+        rebuild.setStartedAt(Instant.now());
+        rebuild.setShadowCollection("transactions_rebuild_7");
+    }
+
+    @Test
+    void runCopiesEveryPendingChunkThenSwapsTheShadowCollectionIn() {
+        List<IdRange> pending = List.of(new IdRange(1, 11), new IdRange(11, 21));
+        when(rebuilder.pendingChunks(rebuild)).thenReturn(pending);
+        when(rebuilder.copyChunk(eq(rebuild), any())).thenReturn(10L);
+
+        transactionRebuildService.run(rebuild, claim);
+
+        verify(rebuilder).copyChunk(rebuild, pending.get(0));
+        verify(rebuilder).copyChunk(rebuild, pending.get(1));
+        verify(rebuilder).finish(rebuild, claim);
+        verify(transactionRollupStore).backfillAll();
+        verify(rebuilder, never()).fail(any(), any());
+    }
+
+    @Test
+    void failedRollupBackfillLeavesTheRebuildCompleted() {
+        when(rebuilder.pendingChunks(rebuild)).thenReturn(List.of());
+        when(transactionRollupStore.backfillAll())
+                .thenThrow(new IllegalStateException("mongo unavailable"));
+
+        transactionRebuildService.run(rebuild, claim);
+
+        verify(rebuilder).finish(rebuild, claim);
+        verify(rebuilder, never()).fail(any(), any());
+    }
+
+    @Test
+    void runCopiesAtMostParallelismChunksAtATime() {
+        List<IdRange> pending =
+                IntStream.range(0, 8).mapToObj(i -> new IdRange(i * 10L, i * 10L + 10)).toList();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger mostActive = new AtomicInteger();
+        when(rebuilder.pendingChunks(rebuild)).thenReturn(pending);
+        when(rebuilder.copyChunk(eq(rebuild), any()))
+                .thenAnswer(
+                        invocation -> {
+                            mostActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                            Thread.sleep(20);
+                            active.decrementAndGet();
+                            return 10L;
+                        });
+
+        transactionRebuildService.run(rebuild, claim);
+
+        verify(rebuilder).finish(rebuild, claim);
+        assertThat(mostActive.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void failedChunkMarksTheRunFailedWithoutSwapping() {
+        IllegalStateException failure = new IllegalStateException("mongo unavailable");
+        when(rebuilder.pendingChunks(rebuild)).thenReturn(List.of(new IdRange(1, 11)));
+        when(rebuilder.copyChunk(eq(rebuild), any())).thenThrow(failure);
+
+        transactionRebuildService.run(rebuild, claim);
+
+        verify(rebuilder, never()).finish(any(), any());
+        verify(transactionRollupStore, never()).backfillAll();
+        verify(rebuilder).fail(rebuild, failure);
+    }
+
+    @Test
+    void startRejectsASecondRunOnTheSameNode() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(rebuilder.begin(claim)).thenReturn(rebuild);
+        when(rebuilder.pendingChunks(rebuild))
+                .thenAnswer(
+                        invocation -> {
+                            release.await();
+                            return List.of();
+                        });
+
+        TransactionRebuildProgress progress = transactionRebuildService.start();
+
+        assertThat(progress.rebuildId()).isEqualTo(7L);
+        assertThat(transactionRebuildService.isRunning()).isTrue();
+        assertThatThrownBy(transactionRebuildService::start)
+                .isInstanceOf(RebuildAlreadyRunningException.class);
+
+        release.countDown();
+        verify(rebuilder, timeout(5_000)).finish(rebuild, claim);
+        verify(claim, timeout(5_000)).close();
+    }
+
+    @Test
+    void startRejectsARunWhileAnotherNodeHoldsTheClaim() {
+        when(rebuilder.tryClaim()).thenReturn(Optional.empty());
+
+        assertThatThrownBy(transactionRebuildService::start)
+                .isInstanceOf(RebuildAlreadyRunningException.class);
+
+        verify(rebuilder, never()).begin(any());
+        assertThat(transactionRebuildService.isRunning()).isFalse();
+    }
+
+    @Test
+    void startReleasesTheClaimWhenTheRunCannotBegin() {
+        when(rebuilder.begin(claim)).thenThrow(new IllegalStateException("postgres unavailable"));
+
+        assertThatThrownBy(transactionRebuildService::start)
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(claim).close();
+        assertThat(transactionRebuildService.isRunning()).isFalse();
+    }
+
+    private static AppConfig appConfig() {
+        return TestAppConfig.with("app.payments.rebuild.parallelism=2");
+    }
+}
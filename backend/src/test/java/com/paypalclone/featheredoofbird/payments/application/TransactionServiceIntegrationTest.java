@@ -2,10 +2,18 @@ package com.paypalclone.featheredoofbird.payments.application;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.paypalclone.featheredoofbird.payments.domain.ConsistencyToken;
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionWrite;
 import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.MongoTransactionRepository;
 import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.PostgresTransactionRepository;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionOutboxRepository;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionProjector;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +43,7 @@ class TransactionServiceIntegrationTest {
         registry.add("spring.datasource.username", postgres::getUsername);
         registry.add("spring.datasource.password", postgres::getPassword);
         registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.cache.type", () -> "none");
     }
 
     @Autowired private TransactionService transactionService;
@@ -43,9 +52,14 @@ class TransactionServiceIntegrationTest {
 
     @Autowired private MongoTransactionRepository mongoTransactionRepository;
 
+    @Autowired private TransactionOutboxRepository transactionOutboxRepository;
+
+    @Autowired private TransactionProjector transactionProjector;
+
     @AfterEach
     void tearDown() {
         mongoTransactionRepository.deleteAll();
+        transactionOutboxRepository.deleteAll();
         postgresTransactionRepository.deleteAll();
     }
 
@@ -59,13 +73,18 @@ class TransactionServiceIntegrationTest {
         transaction.setDescription("Invoice");
         transaction.setStatus(Transaction.TransactionStatus.PENDING);
 
-        Transaction saved = transactionService.createTransaction(transaction);
+        Transaction saved = transactionService.createTransaction(transaction).transaction();
 
         assertThat(saved.getId()).isNotNull();
         assertThat(postgresTransactionRepository.findById(saved.getId())).isPresent();
+        transactionProjector.drain();
         assertThat(mongoTransactionRepository.findById(saved.getId())).isPresent();
+        assertThat(transactionOutboxRepository.count()).isZero();
 
-        Transaction fetched = transactionService.getTransactionById(saved.getId()).orElseThrow();
+        Transaction fetched =
+                transactionService
+                        .getTransactionById(saved.getId(), ConsistencyToken.NONE)
+                        .orElseThrow();
         assertThat(fetched.getSender()).isEqualTo("Frank");
     }
 
@@ -79,7 +98,7 @@ class TransactionServiceIntegrationTest {
         transaction.setDescription("Gift");
         transaction.setStatus(Transaction.TransactionStatus.PENDING);
 
-        Transaction saved = transactionService.createTransaction(transaction);
+        Transaction saved = transactionService.createTransaction(transaction).transaction();
 
         Transaction update = new Transaction();
         update.setSender("Hugo");
@@ -89,10 +108,163 @@ class TransactionServiceIntegrationTest {
         update.setDescription("Gift");
         update.setStatus(Transaction.TransactionStatus.COMPLETED);
 
-        Transaction updated = transactionService.updateTransaction(saved.getId(), update);
+        Transaction updated =
+                transactionService.updateTransaction(saved.getId(), update).transaction();
+        transactionProjector.drain();
 
         assertThat(updated.getStatus()).isEqualTo(Transaction.TransactionStatus.COMPLETED);
-        Transaction fetched = transactionService.getTransactionById(saved.getId()).orElseThrow();
+        Transaction fetched =
+                transactionService
+                        .getTransactionById(saved.getId(), ConsistencyToken.NONE)
+                        .orElseThrow();
         assertThat(fetched.getStatus()).isEqualTo(Transaction.TransactionStatus.COMPLETED);
     }
+
+    @Test
+    void readWithConsistencyTokenSeesWriteBeforeProjection() {
+        Transaction transaction = new Transaction();
+        transaction.setSender("Nora");
+        transaction.setReceiver("Otto");
+        transaction.setAmount(new BigDecimal("3.00"));
+        transaction.setCurrency("USD");
+        transaction.setStatus(Transaction.TransactionStatus.PENDING);
+
+        TransactionWrite write = transactionService.createTransaction(transaction);
+        Long id = write.transaction().getId();
+
+        assertThat(transactionService.getTransactionById(id, write.token())).isPresent();
+        transactionProjector.drain();
+        assertThat(transactionService.getTransactionById(id, write.token())).isPresent();
+    }
+
+    @Test
+    void deleteTransactionRemovesMongoReadModelOnceProjected() {
+        Transaction transaction = new Transaction();
+        transaction.setSender("Jane");
+        transaction.setReceiver("Kurt");
+        transaction.setAmount(new BigDecimal("5.00"));
+        transaction.setCurrency("USD");
+        transaction.setStatus(Transaction.TransactionStatus.PENDING);
+        Transaction saved = transactionService.createTransaction(transaction).transaction();
+        transactionProjector.drain();
+
+        transactionService.deleteTransaction(saved.getId());
+        transactionProjector.drain();
+
+        assertThat(mongoTransactionRepository.findById(saved.getId())).isEmpty();
+    }
+
+    @Test
+    void createTransactionsPersistsValidItemsAndReportsInvalidOnes() {
+        Transaction valid = new Transaction();
+        valid.setSender("Lena");
+        valid.setReceiver("Milo");
+        valid.setAmount(new BigDecimal("9.99"));
+        valid.setCurrency("EUR");
+        valid.setStatus(Transaction.TransactionStatus.PENDING);
+        Transaction invalid = new Transaction();
+        invalid.setSender("Lena");
+        invalid.setAmount(new BigDecimal("-1.00"));
+
+        TransactionBatchResult result =
+                transactionService.createTransactions(List.of(valid, invalid));
+
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.rejected()).isEqualTo(1);
+        Long id = result.items().get(0).id();
+        assertThat(postgresTransactionRepository.findById(id)).isPresent();
+        assertThat(result.items().get(1).errors()).isNotEmpty();
+        transactionProjector.drain();
+        assertThat(mongoTransactionRepository.findById(id)).isPresent();
+    }
+
+    @Test
+    void transitionStatusMovesOnlyTransactionsInTheExpectedStatus() {
+        Transaction pending = pendingTransaction("Pia", "Quinn");
+        Transaction failed = pendingTransaction("Pia", "Rolf");
+        failed.setStatus(Transaction.TransactionStatus.FAILED);
+        Long pendingId = transactionService.createTransaction(pending).transaction().getId();
+        Long failedId = transactionService.createTransaction(failed).transaction().getId();
+
+        TransactionTransitionResult result =
+                transactionService.transitionStatus(
+                        List.of(pendingId, failedId, -1L),
+                        Transaction.TransactionStatus.PENDING,
+                        Transaction.TransactionStatus.COMPLETED);
+
+        assertThat(result.transitioned()).containsExactly(pendingId);
+        assertThat(result.conflicts())
+                .containsExactly(
+                        new TransactionTransitionResult.Conflict(
+                                failedId, Transaction.TransactionStatus.FAILED),
+                        new TransactionTransitionResult.Conflict(-1L, null));
+        assertThat(transactionService.getTransactionById(pendingId, result.token()))
+                .get()
+                .extracting(Transaction::getStatus)
+                .isEqualTo(Transaction.TransactionStatus.COMPLETED);
+        transactionProjector.drain();
+        assertThat(mongoTransactionRepository.findById(pendingId))
+                .get()
+                .extracting(document -> document.getStatus())
+                .isEqualTo(Transaction.TransactionStatus.COMPLETED);
+    }
+
+    @Test
+    void concurrentTransitionsMoveEachTransactionExactlyOnce() {
+        List<Long> ids = new ArrayList<>();
+        for (int index = 0; index < 50; index++) {
+            ids.add(
+                    transactionService
+                            .createTransaction(pendingTransaction("Sven", "Tina"))
+                            .transaction()
+                            .getId());
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<TransactionTransitionResult>> settlements =
+                List.of(
+                                Transaction.TransactionStatus.COMPLETED,
+                                Transaction.TransactionStatus.CANCELLED)
+                        .stream()
+                        .map(
+                                to ->
+                                        CompletableFuture.supplyAsync(
+                                                () -> {
+                                                    awaitQuietly(start);
+                                                    return transactionService.transitionStatus(
+                                                            ids,
+                                                            Transaction.TransactionStatus.PENDING,
+                                                            to);
+                                                }))
+                        .toList();
+        start.countDown();
+
+        List<TransactionTransitionResult> results =
+                settlements.stream().map(CompletableFuture::join).toList();
+
+        assertThat(results.get(0).transitioned().size() + results.get(1).transitioned().size())
+                .isEqualTo(ids.size());
+        assertThat(results.get(0).transitioned())
+                .doesNotContainAnyElementsOf(results.get(1).transitioned());
+        assertThat(results)
+                .flatExtracting(TransactionTransitionResult::conflicts)
+                .allSatisfy(conflict -> assertThat(conflict.isMissing()).isFalse());
+    }
+
+    private Transaction pendingTransaction(String sender, String receiver) {
+        Transaction transaction = new Transaction();
+        transaction.setSender(sender);
+        transaction.setReceiver(receiver);
+        transaction.setAmount(new BigDecimal("4.20"));
+        transaction.setCurrency("USD");
+        transaction.setStatus(Transaction.TransactionStatus.PENDING);
+        return transaction;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -0,0 +1,288 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.paypalclone.featheredoofbird.payments.domain.ConsistencyToken;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionCursor;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionPage;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummary;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummaryPage;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionTransition;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionWrite;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRepository;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import com.paypalclone.featheredoofbird.shared.config.TestAppConfig;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TransactionServiceTest {
+
+    private static final int HEAD_SIZE = 3;
+
+    private ValidatorFactory validatorFactory;
+    private TransactionRepository transactionRepository;
+    private TransactionPartyCache transactionPartyCache;
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        transactionRepository = mock(TransactionRepository.class);
+        transactionPartyCache = mock(TransactionPartyCache.class);
+        when(transactionPartyCache.headSize()).thenReturn(HEAD_SIZE);
+        transactionService = transactionService(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void createTransactionsPersistsOnlyValidItemsInOneCall() {
+        Transaction first = validTransaction();
+        first.setId(99L);
+        Transaction invalid = validTransaction();
+        invalid.setReceiver(" ");
+        invalid.setAmount(BigDecimal.ZERO);
+        Transaction second = validTransaction();
+        when(transactionRepository.saveAll(List.of(first, second)))
+                .thenAnswer(
+                        invocation -> {
+                            first.setId(1L);
+                            second.setId(2L);
+                            return new ConsistencyToken(2L);
+                        });
+
+        TransactionBatchResult result =
+                transactionService.createTransactions(List.of(first, invalid, second));
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(1);
+        assertThat(result.token()).isEqualTo(new ConsistencyToken(2L));
+        assertThat(result.items())
+                .extracting(TransactionBatchResult.Item::id)
+                .containsExactly(1L, null, 2L);
+        assertThat(result.items().get(1).errors())
+                .containsExactly("Amount must be positive", "Receiver is required");
+    }
+
+    @Test
+    void createTransactionsIgnoresClientSuppliedIds() {
+        Transaction transaction = validTransaction();
+        transaction.setId(42L);
+        when(transactionRepository.saveAll(anyList())).thenReturn(new ConsistencyToken(1L));
+
+        transactionService.createTransactions(List.of(transaction));
+
+        verify(transactionRepository).saveAll(List.of(transaction));
+        assertThat(transaction.getId()).isNull();
+    }
+
+    @Test
+    void createTransactionsRejectsOversizedBatches() {
+        List<Transaction> transactions =
+                Collections.nCopies(TransactionService.MAX_BATCH_SIZE + 1, validTransaction());
+
+        assertThatThrownBy(() -> transactionService.createTransactions(transactions))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(transactionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void firstSenderPageIsServedFromPartyCacheAndNarrowed() {
+        TransactionPage cached =
+                TransactionPage.of(
+                        List.of(transaction(4L), transaction(3L), transaction(2L), transaction(1L)),
+                        HEAD_SIZE);
+        when(transactionPartyCache.firstPageBySender("alice")).thenReturn(cached);
+
+        TransactionPage page =
+                transactionService.getTransactionsBySender(
+                        "alice", TransactionCursor.FIRST, 2, ConsistencyToken.NONE);
+
+        assertThat(page.transactions()).extracting(Transaction::getId).containsExactly(4L, 3L);
+        assertThat(page.nextCursor()).isEqualTo(TransactionCursor.of(cached.transactions().get(1)));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void laterPagesLargePagesAndTokenReadsBypassPartyCache() {
+        TransactionCursor after = new TransactionCursor(LocalDateTime.of(2024, 1, 1, 0, 0), 9L);
+        ConsistencyToken token = new ConsistencyToken(5L);
+
+        transactionService.getTransactionsByReceiver("bob", after, 2, ConsistencyToken.NONE);
+        transactionService.getTransactionsByReceiver(
+                "bob", TransactionCursor.FIRST, HEAD_SIZE + 1, ConsistencyToken.NONE);
+        transactionService.getTransactionsByReceiver("bob", TransactionCursor.FIRST, 2, token);
+
+        verify(transactionPartyCache, never()).firstPageByReceiver(any());
+        verify(transactionRepository).findByReceiver("bob", after, 2, ConsistencyToken.NONE);
+    }
+
+    @Test
+    void disabledQueryTypeBypassesPartyCache() {
+        transactionService = transactionService(false);
+
+        transactionService.getTransactionsBySender(
+                "alice", TransactionCursor.FIRST, 2, ConsistencyToken.NONE);
+
+        verify(transactionPartyCache, never()).firstPageBySender(any());
+        verify(transactionRepository)
+                .findBySender("alice", TransactionCursor.FIRST, 2, ConsistencyToken.NONE);
+    }
+
+    @Test
+    void firstSenderSummaryPageIsSummarisedFromPartyCache() {
+        TransactionPage cached =
+                TransactionPage.of(
+                        List.of(transaction(4L), transaction(3L), transaction(2L), transaction(1L)),
+                        HEAD_SIZE);
+        when(transactionPartyCache.firstPageBySender("alice")).thenReturn(cached);
+
+        TransactionSummaryPage page =
+                transactionService.getTransactionSummariesBySender(
+                        "alice", TransactionCursor.FIRST, 2, ConsistencyToken.NONE);
+
+        assertThat(page.transactions()).extracting(TransactionSummary::id).containsExactly(4L, 3L);
+        assertThat(page.nextCursor()).isEqualTo(TransactionCursor.of(cached.transactions().get(1)));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void laterSummaryPagesUseSummaryQueries() {
+        TransactionCursor after = new TransactionCursor(LocalDateTime.of(2024, 1, 1, 0, 0), 9L);
+
+        transactionService.getTransactionSummariesBySender(
+                "alice", after, 2, ConsistencyToken.NONE);
+
+        verify(transactionPartyCache, never()).firstPageBySender(any());
+        verify(transactionRepository)
+                .findSummariesBySender("alice", after, 2, ConsistencyToken.NONE);
+    }
+
+    @Test
+    void writesEvictCachedPagesOfPreviousAndNewParties() {
+        Transaction previous = validTransaction();
+        Transaction updated = validTransaction();
+        updated.setReceiver("carol");
+        when(transactionRepository.findCurrentById(7L)).thenReturn(Optional.of(previous));
+        when(transactionRepository.update(7L, updated))
+                .thenReturn(new TransactionWrite(updated, new ConsistencyToken(1L)));
+
+        transactionService.updateTransaction(7L, updated);
+        transactionService.deleteTransaction(7L);
+
+        verify(transactionPartyCache, times(2)).evict("alice", "bob");
+        verify(transactionPartyCache).evict("alice", "carol");
+    }
+
+    @Test
+    void transitionStatusReportsMovedIdsAndClassifiesTheRest() {
+        Transaction moved = transaction(1L);
+        moved.setStatus(Transaction.TransactionStatus.COMPLETED);
+        when(transactionRepository.transitionStatus(
+                        Set.of(1L, 2L, 3L),
+                        Transaction.TransactionStatus.PENDING,
+                        Transaction.TransactionStatus.COMPLETED))
+                .thenReturn(new TransactionTransition(List.of(moved), new ConsistencyToken(8L)));
+        when(transactionRepository.findCurrentStatuses(Set.of(2L, 3L)))
+                .thenReturn(Map.of(2L, Transaction.TransactionStatus.FAILED));
+
+        TransactionTransitionResult result =
+                transactionService.transitionStatus(
+                        List.of(1L, 2L, 3L, 2L),
+                        Transaction.TransactionStatus.PENDING,
+                        Transaction.TransactionStatus.COMPLETED);
+
+        assertThat(result.transitioned()).containsExactly(1L);
+        assertThat(result.conflicts())
+                .containsExactly(
+                        new TransactionTransitionResult.Conflict(
+                                2L, Transaction.TransactionStatus.FAILED),
+                        new TransactionTransitionResult.Conflict(3L, null));
+        assertThat(result.token()).isEqualTo(new ConsistencyToken(8L));
+        verify(transactionPartyCache).evict("alice", "bob");
+    }
+
+    @Test
+    void transitionStatusSkipsStatusLookupWhenEverythingMoved() {
+        when(transactionRepository.transitionStatus(
+                        Set.of(1L),
+                        Transaction.TransactionStatus.PENDING,
+                        Transaction.TransactionStatus.CANCELLED))
+                .thenReturn(
+                        new TransactionTransition(
+                                List.of(transaction(1L)), new ConsistencyToken(3L)));
+
+        TransactionTransitionResult result =
+                transactionService.transitionStatus(
+                        List.of(1L),
+                        Transaction.TransactionStatus.PENDING,
+                        Transaction.TransactionStatus.CANCELLED);
+
+        assertThat(result.conflicts()).isEmpty();
+        verify(transactionRepository, never()).findCurrentStatuses(any());
+    }
+
+    @Test
+    void transitionStatusRejectsNoOpTransitions() {
+        assertThatThrownBy(
+                        () ->
+                                transactionService.transitionStatus(
+                                        List.of(1L),
+                                        Transaction.TransactionStatus.PENDING,
+                                        Transaction.TransactionStatus.PENDING))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private TransactionService transactionService(boolean senderCacheEnabled) {
+        AppConfig appConfig =
+                TestAppConfig.with(
+                        "app.payments.party-cache.sender-enabled=" + senderCacheEnabled,
+                        "app.payments.party-cache.head-size=" + HEAD_SIZE);
+        return new TransactionService(
+                transactionRepository,
+                validatorFactory.getValidator(),
+                transactionPartyCache,
+                appConfig);
+    }
+
+    private Transaction transaction(Long id) {
+        Transaction transaction = validTransaction();
+        transaction.setId(id);
+        transaction.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id));
+        return transaction;
+    }
+
+    private Transaction validTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setSender("alice");
+        transaction.setReceiver("bob");
+        transaction.setAmount(new BigDecimal("12.34"));
+        transaction.setCurrency("USD");
+        transaction.setStatus(Transaction.TransactionStatus.PENDING);
+        return transaction;
+    }
+}
@@ -0,0 +1,86 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.ReactiveMongoTransactionRepository;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.ReactiveMongoTransactionStore;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionDocument;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class TransactionStreamServiceTest {
+
+    private ReactiveMongoTransactionRepository repository;
+    private TransactionStreamService transactionStreamService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ReactiveMongoTransactionRepository.class);
+        transactionStreamService =
+                new TransactionStreamService(new ReactiveMongoTransactionStore(repository));
+    }
+
+    @Test
+    void streamBySenderMapsDocumentsInCursorOrder() {
+        when(repository.streamBySender("alice")).thenReturn(documents(3));
+
+        List<Transaction> result =
+                transactionStreamService.streamBySender("alice", 0).collectList().block();
+
+        assertThat(result).extracting(Transaction::getId).containsExactly(1L, 2L, 3L);
+        assertThat(result).extracting(Transaction::getSender).containsOnly("alice");
+    }
+
+    @Test
+    void streamByReceiverMapsEveryDocument() {
+        when(repository.streamByReceiver("bob")).thenReturn(documents(2));
+
+        List<Transaction> result =
+                transactionStreamService.streamByReceiver("bob", 0).collectList().block();
+
+        assertThat(result).extracting(Transaction::getReceiver).containsOnly("bob");
+    }
+
+    @Test
+    void limitCapsTheDemandAndCancelsTheCursor() {
+        AtomicLong requested = new AtomicLong();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        when(repository.streamBySender("alice"))
+                .thenReturn(
+                        documents(1_000)
+                                .doOnRequest(requested::addAndGet)
+                                .doOnCancel(() -> cancelled.set(true)));
+
+        List<Transaction> result =
+                transactionStreamService.streamBySender("alice", 5).collectList().block();
+
+        assertThat(result).hasSize(5);
+        assertThat(requested.get()).isLessThanOrEqualTo(5);
+        assertThat(cancelled).isTrue();
+    }
+
+    private static Flux<TransactionDocument> documents(int count) {
+        return Flux.range(1, count)
+                .map(
+                        id ->
+                                new TransactionDocument(
+                                        (long) id,
+                                        "alice",
+                                        "bob",
+                                        BigDecimal.TEN,
+                                        "USD",
+                                        null,
+                                        LocalDateTime.now(),
+                                        LocalDateTime.now(),
+                                        Transaction.TransactionStatus.COMPLETED));
+    }
+}
@@ -0,0 +1,112 @@
+package com.paypalclone.featheredoofbird.payments.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionVolume;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupDocument;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupDocument.Dimension;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupStore;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TransactionVolumeServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 5, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 5, 31);
+
+    private TransactionRollupStore transactionRollupStore;
+    private TransactionVolumeService transactionVolumeService;
+
+    @BeforeEach
+    void setUp() {
+        transactionRollupStore = mock(TransactionRollupStore.class);
+        transactionVolumeService = new TransactionVolumeService(transactionRollupStore);
+    }
+
+    @Test
+    void mergesStatusesPerDayAndTotalsPerCurrency() {
+        when(transactionRollupStore.find(Dimension.SENDER, "alice", FROM, TO, null, null))
+                .thenReturn(
+                        List.of(
+                                rollup(
+                                        "2024-05-02",
+                                        "EUR",
+                                        Transaction.TransactionStatus.COMPLETED,
+                                        2,
+                                        "30.00"),
+                                rollup(
+                                        "2024-05-02",
+                                        "EUR",
+                                        Transaction.TransactionStatus.PENDING,
+                                        1,
+                                        "5.00"),
+                                rollup(
+                                        "2024-05-02",
+                                        "USD",
+                                        Transaction.TransactionStatus.COMPLETED,
+                                        1,
+                                        "7.50"),
+                                rollup(
+                                        "2024-05-03",
+                                        "EUR",
+                                        Transaction.TransactionStatus.FAILED,
+                                        0,
+                                        "0.00"),
+                                rollup(
+                                        "2024-05-04",
+                                        "EUR",
+                                        Transaction.TransactionStatus.COMPLETED,
+                                        4,
+                                        "40.00")));
+
+        TransactionVolume volume =
+                transactionVolumeService.getVolumeBySender("alice", FROM, TO, null, null);
+
+        assertThat(volume.totals())
+                .containsExactly(
+                        new TransactionVolume.Total("EUR", 7, new BigDecimal("75.00")),
+                        new TransactionVolume.Total("USD", 1, new BigDecimal("7.50")));
+        assertThat(volume.days())
+                .containsExactly(
+                        new TransactionVolume.DailyTotal(
+                                LocalDate.of(2024, 5, 2), "EUR", 3, new BigDecimal("35.00")),
+                        new TransactionVolume.DailyTotal(
+                                LocalDate.of(2024, 5, 2), "USD", 1, new BigDecimal("7.50")),
+                        new TransactionVolume.DailyTotal(
+                                LocalDate.of(2024, 5, 4), "EUR", 4, new BigDecimal("40.00")));
+    }
+
+    @Test
+    void rejectsInvertedRanges() {
+        assertThatThrownBy(() -> transactionVolumeService.getVolume(TO, FROM, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> transactionVolumeService.backfill(TO, FROM))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(transactionRollupStore);
+    }
+
+    private TransactionRollupDocument rollup(
+            String day,
+            String currency,
+            Transaction.TransactionStatus status,
+            long count,
+            String total) {
+        return new TransactionRollupDocument(
+                null,
+                Dimension.SENDER,
+                "alice",
+                day,
+                currency,
+                status,
+                count,
+                new BigDecimal(total));
+    }
+}
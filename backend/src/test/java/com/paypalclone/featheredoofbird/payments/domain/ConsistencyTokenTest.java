@@ -0,0 +1,32 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class ConsistencyTokenTest {
+
+    @Test
+    void encodedTokenRoundTrips() {
+        ConsistencyToken token = new ConsistencyToken(123_456L);
+
+        assertThat(ConsistencyToken.decode(token.encode())).isEqualTo(token);
+        assertThat(token.encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void missingTokenMeansNone() {
+        assertThat(ConsistencyToken.decode(null)).isEqualTo(ConsistencyToken.NONE);
+        assertThat(ConsistencyToken.decode("")).isEqualTo(ConsistencyToken.NONE);
+        assertThat(ConsistencyToken.NONE.isNone()).isTrue();
+    }
+
+    @Test
+    void rejectsMalformedToken() {
+        assertThatThrownBy(() -> ConsistencyToken.decode("not a token"))
+                .isInstanceOf(InvalidConsistencyTokenException.class);
+        assertThatThrownBy(() -> ConsistencyToken.decode(new ConsistencyToken(0).encode()))
+                .isInstanceOf(InvalidConsistencyTokenException.class);
+    }
+}
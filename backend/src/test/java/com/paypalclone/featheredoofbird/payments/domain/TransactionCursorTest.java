@@ -0,0 +1,39 @@
+package com.paypalclone.featheredoofbird.payments.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class TransactionCursorTest {
+
+    @Test
+    void encodedCursorRoundTrips() {
+        TransactionCursor cursor =
+                new TransactionCursor(LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_000_000), 42L);
+
+        assertThat(TransactionCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 1, 1, 0, 0), 7L);
+
+        assertThat(cursor.encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void missingTokenStartsAtFirstPage() {
+        assertThat(TransactionCursor.decode(null)).isEqualTo(TransactionCursor.FIRST);
+        assertThat(TransactionCursor.decode(" ")).isEqualTo(TransactionCursor.FIRST);
+    }
+
+    @Test
+    void rejectsMalformedToken() {
+        assertThatThrownBy(() -> TransactionCursor.decode("not a cursor"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode("Zm9vfGJhcg"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
@@ -0,0 +1,199 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionCursor;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionFilter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Query-plan regression tests for the Mongo read model.
+ *
+ * <p>Each test runs a real repository or store query, captures the {@code find} command the driver
+ * sent, and asks the server to {@code explain} it. A test fails as soon as a query shape stops
+ * being answered by an index scan, e.g. because an index definition or a query was changed.
+ */
+@DataMongoTest(properties = "spring.data.mongodb.auto-index-creation=true")
+@Testcontainers
+class MongoTransactionIndexTest {
+
+    @Container private static final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+    }
+
+    @Autowired private MongoTransactionRepository mongoTransactionRepository;
+
+    @Autowired private MongoTemplate mongoTemplate;
+
+    @Autowired private FindCommandCapture findCommandCapture;
+
+    @BeforeEach
+    void seed() {
+        mongoTransactionRepository.deleteAll();
+        List<TransactionDocument> documents = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (long id = 1; id <= 200; id++) {
+            documents.add(
+                    new TransactionDocument(
+                            id,
+                            "sender-" + (id % 10),
+                            "receiver-" + (id % 7),
+                            new BigDecimal("10.00"),
+                            "USD",
+                            "seed",
+                            start.plusMinutes(id),
+                            start.plusMinutes(id),
+                            Transaction.TransactionStatus.values()[
+                                    (int) (id % Transaction.TransactionStatus.values().length)]));
+        }
+        mongoTransactionRepository.saveAll(documents);
+    }
+
+    @Test
+    void pageQueryUsesIndex() {
+        mongoTransactionRepository.findPage(
+                TransactionCursor.FIRST.createdAt(), TransactionCursor.FIRST.id(), Limit.of(20));
+
+        assertLastFindUsesIndex();
+    }
+
+    @Test
+    void pageBySenderUsesIndex() {
+        mongoTransactionRepository.findPageBySender(
+                "sender-3",
+                TransactionCursor.FIRST.createdAt(),
+                TransactionCursor.FIRST.id(),
+                Limit.of(20));
+
+        assertLastFindUsesIndex();
+    }
+
+    @Test
+    void pageByReceiverUsesIndex() {
+        mongoTransactionRepository.findPageByReceiver(
+                "receiver-2", LocalDateTime.of(2024, 1, 1, 2, 0), 120L, Limit.of(20));
+
+        assertLastFindUsesIndex();
+    }
+
+    @Test
+    void pageByStatusUsesIndex() {
+        mongoTransactionRepository.findPageByStatus(
+                Transaction.TransactionStatus.COMPLETED,
+                TransactionCursor.FIRST.createdAt(),
+                TransactionCursor.FIRST.id(),
+                Limit.of(20));
+
+        assertLastFindUsesIndex();
+    }
+
+    @Test
+    void filteredStreamUsesIndex() {
+        MongoTransactionStore store =
+                new MongoTransactionStore(mongoTransactionRepository, mongoTemplate);
+        TransactionFilter filter =
+                new TransactionFilter(
+                        "sender-4", null, null, LocalDateTime.of(2024, 1, 1, 1, 0), null);
+
+        try (Stream<Transaction> transactions = store.stream(filter)) {
+            assertThat(transactions).isNotEmpty();
+        }
+
+        assertLastFindUsesIndex();
+    }
+
+    private void assertLastFindUsesIndex() {
+        BsonDocument find = findCommandCapture.lastFind();
+        assertThat(find).as("captured find command").isNotNull();
+
+        Document explain =
+                mongoTemplate
+                        .getDb()
+                        .runCommand(
+                                new BsonDocument("explain", explainable(find))
+                                        .append("verbosity", new BsonString("queryPlanner")));
+        Document winningPlan =
+                explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+
+        assertThat(stages).as("winning plan stages for %s", find).contains("IXSCAN");
+        assertThat(stages).doesNotContain("COLLSCAN");
+    }
+
+    /** Strips the driver-level fields that {@code explain} does not accept. */
+    private BsonDocument explainable(BsonDocument find) {
+        BsonDocument command = find.clone();
+        command.remove("$db");
+        command.remove("lsid");
+        command.remove("$clusterTime");
+        command.remove("txnNumber");
+        command.remove("$readPreference");
+        return command;
+    }
+
+    private void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            Object stage = document.get("stage");
+            if (stage instanceof String name) {
+                stages.add(name);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+
+    /** Records the most recent {@code find} command issued against the transactions collection. */
+    @TestConfiguration
+    static class FindCommandCapture implements CommandListener {
+
+        private final AtomicReference<BsonDocument> lastFind = new AtomicReference<>();
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer findCommandCaptureCustomizer() {
+            return settings -> settings.addCommandListener(this);
+        }
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            BsonValue collection = event.getCommand().get("find");
+            if (collection instanceof BsonString name && "transactions".equals(name.getValue())) {
+                lastFind.set(event.getCommand().clone());
+            }
+        }
+
+        BsonDocument lastFind() {
+            return lastFind.get();
+        }
+    }
+}
@@ -1,27 +1,40 @@
 package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionCursor;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionFilter;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummary;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
 
 class MongoTransactionStoreTest {
 
     private MongoTransactionRepository mongoTransactionRepository;
+    private MongoOperations mongoOperations;
     private MongoTransactionStore mongoTransactionStore;
 
     @BeforeEach
     void setUp() {
         mongoTransactionRepository = mock(MongoTransactionRepository.class);
-        mongoTransactionStore = new MongoTransactionStore(mongoTransactionRepository);
+        mongoOperations = mock(MongoOperations.class);
+        mongoTransactionStore =
+                new MongoTransactionStore(mongoTransactionRepository, mongoOperations);
     }
 
     @Test
@@ -54,6 +67,62 @@ class MongoTransactionStoreTest {
         verify(mongoTransactionRepository).findById(7L);
     }
 
+    @Test
+    void streamAppliesFilterAndCursorOrdering() {
+        TransactionFilter filter =
+                new TransactionFilter(
+                        "dana",
+                        null,
+                        Transaction.TransactionStatus.COMPLETED,
+                        LocalDateTime.of(2024, 1, 1, 0, 0),
+                        null);
+        when(mongoOperations.stream(any(Query.class), eq(TransactionDocument.class)))
+                .thenReturn(Stream.of(sampleDocument(3L)));
+
+        List<Transaction> result;
+        try (Stream<Transaction> stream = mongoTransactionStore.stream(filter)) {
+            result = stream.toList();
+        }
+
+        assertThat(result).extracting(Transaction::getId).containsExactly(3L);
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).stream(captor.capture(), eq(TransactionDocument.class));
+        Query query = captor.getValue();
+        assertThat(query.getQueryObject())
+                .containsEntry("sender", "dana")
+                .containsEntry("status", Transaction.TransactionStatus.COMPLETED)
+                .containsKey("createdAt")
+                .doesNotContainKey("receiver");
+        assertThat(query.getSortObject()).containsKeys("createdAt", "id");
+        assertThat(query.getMeta().getCursorBatchSize())
+                .isEqualTo(MongoTransactionStore.STREAM_BATCH_SIZE);
+    }
+
+    @Test
+    void findSummariesBySenderMapsProjectedDocuments() {
+        TransactionCursor after = new TransactionCursor(LocalDateTime.of(2024, 2, 1, 0, 0), 9L);
+        TransactionDocument projected = sampleDocument(4L);
+        projected.setDescription(null);
+        projected.setUpdatedAt(null);
+        when(mongoTransactionRepository.findSummaryPageBySender(
+                        "dana", after.createdAt(), after.id(), Limit.of(3)))
+                .thenReturn(List.of(projected));
+
+        List<TransactionSummary> result =
+                mongoTransactionStore.findSummariesBySender("dana", after, 3);
+
+        assertThat(result)
+                .containsExactly(
+                        new TransactionSummary(
+                                4L,
+                                "dana",
+                                "erin",
+                                new BigDecimal("44.10"),
+                                "USD",
+                                Transaction.TransactionStatus.COMPLETED,
+                                LocalDateTime.of(2024, 1, 1, 10, 0)));
+    }
+
     private Transaction sampleTransaction(Long id) {
         Transaction transaction = new Transaction();
         transaction.setId(id);
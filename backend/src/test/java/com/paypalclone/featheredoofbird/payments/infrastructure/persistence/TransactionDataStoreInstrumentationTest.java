@@ -0,0 +1,107 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+class TransactionDataStoreInstrumentationTest {
+
+    private MeterRegistry meterRegistry;
+    private PostgresTransactionRepository postgresTransactionRepository;
+    private PostgresTransactionStore postgresTransactionStore;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        postgresTransactionRepository = mock(PostgresTransactionRepository.class);
+        TransactionDataStoreInstrumentation instrumentation =
+                new TransactionDataStoreInstrumentation(
+                        new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry))
+                                .getBeanProvider(MeterRegistry.class));
+        postgresTransactionStore =
+                (PostgresTransactionStore)
+                        instrumentation.postProcessAfterInitialization(
+                                new PostgresTransactionStore(
+                                        postgresTransactionRepository, mock(DataSource.class)),
+                                "postgresTransactionStore");
+    }
+
+    @Test
+    void timesPortAndStoreSpecificMethodsPerStore() {
+        when(postgresTransactionRepository.findById(1L)).thenReturn(Optional.empty());
+
+        postgresTransactionStore.findById(1L);
+        postgresTransactionStore.findById(1L);
+        postgresTransactionStore.saveAll(List.of());
+
+        assertThat(timer("findById", "success").count()).isEqualTo(2);
+        assertThat(timer("saveAll", "success").count()).isEqualTo(1);
+    }
+
+    @Test
+    void countsErrorsAndRethrowsThem() {
+        when(postgresTransactionRepository.findById(2L))
+                .thenThrow(new QueryTimeoutException("statement timeout"));
+
+        assertThatThrownBy(() -> postgresTransactionStore.findById(2L))
+                .isInstanceOf(QueryTimeoutException.class);
+
+        assertThat(timer("findById", "error").count()).isEqualTo(1);
+        assertThat(
+                        meterRegistry
+                                .get(TransactionDataStoreInstrumentation.ERRORS)
+                                .tags(
+                                        "store",
+                                        "postgres",
+                                        "method",
+                                        "findById",
+                                        "exception",
+                                        "QueryTimeoutException")
+                                .counter()
+                                .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void leavesOtherBeansAlone() {
+        Object bean = new Object();
+        TransactionDataStoreInstrumentation instrumentation =
+                new TransactionDataStoreInstrumentation(
+                        new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+        assertThat(instrumentation.postProcessAfterInitialization(bean, "other")).isSameAs(bean);
+    }
+
+    @Test
+    void namesStoresAfterTheirClass() {
+        assertThat(
+                        TransactionDataStoreInstrumentation.store(
+                                new MongoTransactionStore(
+                                        mock(MongoTransactionRepository.class),
+                                        mock(MongoOperations.class))))
+                .isEqualTo("mongo");
+        assertThat(TransactionDataStoreInstrumentation.store(postgresTransactionStore))
+                .isEqualTo("postgres");
+    }
+
+    private Timer timer(String method, String outcome) {
+        return meterRegistry
+                .get(TransactionDataStoreInstrumentation.REQUESTS)
+                .tags("store", "postgres", "method", method, "outcome", outcome)
+                .timer();
+    }
+}
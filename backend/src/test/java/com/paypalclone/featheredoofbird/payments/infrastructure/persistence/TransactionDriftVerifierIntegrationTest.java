@@ -0,0 +1,215 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.paypalclone.featheredoofbird.payments.application.TransactionBatchResult;
+import com.paypalclone.featheredoofbird.payments.application.TransactionService;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@SpringBootTest(
+        properties = {
+            "app.payments.drift.fanout=4",
+            "app.payments.drift.leaf-size=10",
+            "app.payments.partitioning.retention-months=4"
+        })
+@Testcontainers
+@ActiveProfiles("dev")
+class TransactionDriftVerifierIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container private static final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.cache.type", () -> "none");
+    }
+
+    @Autowired private TransactionService transactionService;
+
+    @Autowired private TransactionDriftVerifier transactionDriftVerifier;
+
+    @Autowired private TransactionProjector transactionProjector;
+
+    @Autowired private TransactionPartitionManager transactionPartitionManager;
+
+    @Autowired private PostgresTransactionRepository postgresTransactionRepository;
+
+    @Autowired private MongoTransactionRepository mongoTransactionRepository;
+
+    @Autowired private TransactionOutboxRepository transactionOutboxRepository;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private MongoOperations mongoOperations;
+
+    @AfterEach
+    void tearDown() {
+        mongoTransactionRepository.deleteAll();
+        transactionOutboxRepository.deleteAll();
+        postgresTransactionRepository.deleteAll();
+        jdbcTemplate.execute("drop schema if exists transactions_archive cascade");
+    }
+
+    @Test
+    void matchingStoresCompareOnlyBucketChecksums() {
+        seed(200);
+
+        TransactionDriftReport report = transactionDriftVerifier.verify().orElseThrow();
+
+        assertThat(report.hasDrift()).isFalse();
+        assertThat(report.bucketsCompared()).isPositive();
+        assertThat(report.rowsCompared()).isZero();
+    }
+
+    @Test
+    void mismatchedBucketsAreNarrowedToTheDifferingIdsAndRepaired() {
+        List<Long> ids = seed(200);
+        Long missing = ids.get(17);
+        Long differing = ids.get(120);
+        Long extra = ids.get(199) + 1_000;
+        mongoTransactionRepository.deleteById(missing);
+        TransactionDocument changed = mongoTransactionRepository.findById(differing).orElseThrow();
+        changed.setStatus(Transaction.TransactionStatus.FAILED);
+        mongoTransactionRepository.save(changed);
+        changed.setId(extra);
+        mongoTransactionRepository.save(changed);
+
+        TransactionDriftReport report = transactionDriftVerifier.verify().orElseThrow();
+
+        assertThat(report.missingInMongo()).containsExactly(missing);
+        assertThat(report.differing()).containsExactly(differing);
+        assertThat(report.extraInMongo()).containsExactly(extra);
+        assertThat(report.rowsCompared()).isLessThan(ids.size());
+        assertThat(report.repaired()).isTrue();
+
+        transactionProjector.drain();
+
+        assertThat(transactionDriftVerifier.verify().orElseThrow().hasDrift()).isFalse();
+    }
+
+    @Test
+    void pendingProjectionsAreNotReportedAsDrift() {
+        List<Long> ids = seed(20);
+        Transaction update = postgresTransactionRepository.findById(ids.get(3)).orElseThrow();
+        update.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transactionService.updateTransaction(update.getId(), update);
+
+        TransactionDriftReport report = transactionDriftVerifier.verify().orElseThrow();
+
+        assertThat(report.hasDrift()).isFalse();
+        assertThat(report.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void checksumsOfBucketsWhoseUpdatedAtSumExceedsALongStillMatch() {
+        // Near the end of the Postgres timestamp range a bucket of about a thousand rows already
+        // sums to more epoch millis than a long holds; fanout 4 puts 1,100 rows in each bucket.
+        seed(4_400);
+        LocalDateTime farFuture = LocalDateTime.of(2000, 1, 1, 0, 0).plusYears(292_000);
+        jdbcTemplate.update(
+                "update transactions set updated_at = timestamp '2000-01-01' + interval '292000 years'");
+        mongoOperations.updateMulti(
+                new Query(), Update.update("updatedAt", farFuture), TransactionDocument.class);
+
+        TransactionDriftReport report = transactionDriftVerifier.verify().orElseThrow();
+
+        assertThat(report.hasDrift()).isFalse();
+        assertThat(report.rowsCompared()).isZero();
+    }
+
+    @Test
+    void checksumsOfUpdatesInADaylightSavingFallBackHourStillMatch() {
+        // 01:30 happens twice in New York on that night; both stores must keep the wall-clock time.
+        seed(20);
+        jdbcTemplate.update("update transactions set updated_at = timestamp '2025-11-02 01:30'");
+        mongoOperations.updateMulti(
+                new Query(),
+                Update.update("updatedAt", LocalDateTime.of(2025, 11, 2, 1, 30)),
+                TransactionDocument.class);
+
+        TransactionDriftReport report = transactionDriftVerifier.verify().orElseThrow();
+
+        assertThat(report.hasDrift()).isFalse();
+        assertThat(report.rowsCompared()).isZero();
+    }
+
+    @Test
+    void documentsOfArchivedPartitionsAreNeitherDriftNorRemoved() {
+        List<Long> ids = seed(20);
+        YearMonth expired = YearMonth.now().minusMonths(6);
+        LocalDateTime createdAt = expired.atDay(3).atStartOfDay();
+        List<Long> archived = ids.subList(0, 5);
+        transactionPartitionManager.createPartition(expired);
+        jdbcTemplate.update(
+                "update transactions set created_at = ? where id <= ?",
+                createdAt,
+                archived.getLast());
+        mongoOperations.updateMulti(
+                Query.query(Criteria.where("id").in(archived)),
+                Update.update("createdAt", createdAt),
+                TransactionDocument.class);
+
+        transactionPartitionManager.maintain(YearMonth.now());
+
+        assertThat(postgresTransactionRepository.count()).isEqualTo(15);
+        TransactionDriftReport report = transactionDriftVerifier.verify().orElseThrow();
+        assertThat(report.hasDrift()).isFalse();
+        assertThat(report.extraInMongo()).isEmpty();
+        transactionProjector.drain();
+        assertThat(mongoTransactionRepository.findAllById(archived)).hasSize(5);
+    }
+
+    private List<Long> seed(int count) {
+        List<Long> ids =
+                transactionService
+                        .createTransactions(
+                                IntStream.range(0, count)
+                                        .mapToObj(
+                                                i -> {
+                                                    Transaction transaction = new Transaction();
+                                                    transaction.setSender("sender-" + i % 7);
+                                                    transaction.setReceiver("receiver-" + i % 5);
+                                                    transaction.setAmount(
+                                                            BigDecimal.valueOf(1_000 + i, 2));
+                                                    transaction.setCurrency("EUR");
+                                                    transaction.setDescription(
+                                                            i % 3 == 0 ? null : "note " + i);
+                                                    return transaction;
+                                                })
+                                        .toList())
+                        .items()
+                        .stream()
+                        .map(TransactionBatchResult.Item::id)
+                        .toList();
+        transactionProjector.drain();
+        return ids;
+    }
+}
@@ -0,0 +1,77 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class TransactionDriftVerifierTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 3, 1, 12, 0, 0, 0);
+
+    @Test
+    void checksumsIgnoreAmountScale() {
+        assertThat(
+                        new TransactionDriftVerifier.Checksum(
+                                2, 3, BigDecimal.valueOf(4), new BigDecimal("10.50"), 2, 9))
+                .isEqualTo(
+                        new TransactionDriftVerifier.Checksum(
+                                2, 3, BigDecimal.valueOf(4), new BigDecimal("10.5"), 2, 9));
+    }
+
+    @Test
+    void checksumsCompareUpdatedAtSumsBeyondTheLongRangeExactly() {
+        BigDecimal beyondLong = new BigDecimal(Long.MAX_VALUE).multiply(BigDecimal.valueOf(3));
+
+        assertThat(
+                        new TransactionDriftVerifier.Checksum(
+                                2, 3, beyondLong.setScale(6), BigDecimal.ONE, 2, 9))
+                .isEqualTo(
+                        new TransactionDriftVerifier.Checksum(
+                                2, 3, beyondLong, BigDecimal.ONE, 2, 9))
+                .isNotEqualTo(
+                        new TransactionDriftVerifier.Checksum(
+                                2, 3, beyondLong.add(BigDecimal.ONE), BigDecimal.ONE, 2, 9));
+    }
+
+    @Test
+    void sameContentComparesAmountsNumericallyAndTimestampsToTheMillisecond() {
+        TransactionDocument row = document(new BigDecimal("10.50"), CREATED_AT.plusNanos(123_456));
+        TransactionDocument document =
+                document(new BigDecimal("10.5"), CREATED_AT.plusNanos(123_000));
+
+        assertThat(TransactionDriftVerifier.sameContent(row, document)).isTrue();
+    }
+
+    @Test
+    void sameContentDetectsAChangedStatus() {
+        TransactionDocument row = document(BigDecimal.TEN, CREATED_AT);
+        TransactionDocument document = document(BigDecimal.TEN, CREATED_AT);
+        document.setStatus(Transaction.TransactionStatus.FAILED);
+
+        assertThat(TransactionDriftVerifier.sameContent(row, document)).isFalse();
+    }
+
+    @Test
+    void sameContentDetectsAMissedUpdate() {
+        TransactionDocument row = document(BigDecimal.TEN, CREATED_AT.plusSeconds(5));
+        TransactionDocument document = document(BigDecimal.TEN, CREATED_AT);
+
+        assertThat(TransactionDriftVerifier.sameContent(row, document)).isFalse();
+    }
+
+    private static TransactionDocument document(BigDecimal amount, LocalDateTime updatedAt) {
+        return new TransactionDocument(
+                1L,
+                "alice",
+                "bob",
+                amount,
+                "USD",
+                "rent",
+                CREATED_AT,
+                updatedAt,
+                Transaction.TransactionStatus.PENDING);
+    }
+}
@@ -0,0 +1,179 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import com.paypalclone.featheredoofbird.shared.config.TestAppConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+
+class TransactionNearCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void cachesHitsAndPublishesStatistics() {
+        TransactionNearCache cache = nearCache(true, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            cache.get(
+                    1L,
+                    id -> {
+                        loads.incrementAndGet();
+                        return Optional.of(transaction(id));
+                    });
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(gets("hit")).isEqualTo(2.0);
+        assertThat(gets("miss")).isEqualTo(1.0);
+    }
+
+    @Test
+    void doesNotCacheMisses() {
+        TransactionNearCache cache = nearCache(true, meterRegistry);
+
+        assertThat(cache.get(2L, id -> Optional.empty())).isEmpty();
+        assertThat(cache.get(2L, id -> Optional.of(transaction(id)))).isPresent();
+    }
+
+    @Test
+    void invalidateAllForcesReload() {
+        TransactionNearCache cache = nearCache(true, meterRegistry);
+        cache.get(1L, id -> Optional.of(transaction(id)));
+        cache.get(2L, id -> Optional.of(transaction(id)));
+
+        cache.invalidateAll(List.of(1L, 2L));
+
+        assertThat(cache.get(1L, id -> Optional.empty())).isEmpty();
+        assertThat(cache.get(2L, id -> Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        TransactionNearCache cache = nearCache(false, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            cache.get(
+                    1L,
+                    id -> {
+                        loads.incrementAndGet();
+                        return Optional.of(transaction(id));
+                    });
+        }
+
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.find("cache.gets").meters()).isEmpty();
+    }
+
+    @Test
+    void concurrentLookupsShareOneLoad() throws InterruptedException {
+        TransactionNearCache cache = nearCache(true, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 50; i++) {
+                executor.submit(
+                        () ->
+                                cache.get(
+                                        1L,
+                                        id -> {
+                                            loads.incrementAndGet();
+                                            sleep(Duration.ofMillis(50));
+                                            return Optional.of(transaction(id));
+                                        }));
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void invalidationDuringLoadDiscardsLoadedValue() {
+        TransactionNearCache cache = nearCache(true, meterRegistry);
+
+        Optional<Transaction> stale =
+                cache.get(
+                        1L,
+                        id -> {
+                            cache.invalidate(id);
+                            return Optional.of(transaction(id));
+                        });
+
+        assertThat(stale).isPresent();
+        assertThat(cache.get(1L, id -> Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void blockingLoadsDoNotPinVirtualThreads() throws InterruptedException {
+        TransactionNearCache cache = nearCache(true, meterRegistry);
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+            recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            recording.startAsync();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (long id = 0; id < 20; id++) {
+                    long key = id % 5;
+                    executor.submit(
+                            () ->
+                                    cache.get(
+                                            key,
+                                            k -> {
+                                                sleep(Duration.ofMillis(20));
+                                                return Optional.of(transaction(k));
+                                            }));
+                }
+            }
+            recording.stop();
+        }
+
+        assertThat(pinned).isEmpty();
+    }
+
+    static TransactionNearCache nearCache(boolean enabled, MeterRegistry meterRegistry) {
+        AppConfig appConfig =
+                TestAppConfig.with(
+                        "app.payments.near-cache.enabled=" + enabled,
+                        "app.payments.near-cache.maximum-size=100",
+                        "app.payments.near-cache.ttl=1m");
+        return new TransactionNearCache(appConfig, meterRegistry);
+    }
+
+    private double gets(String result) {
+        return meterRegistry
+                .get("cache.gets")
+                .tag("cache", TransactionNearCache.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Transaction transaction(Long id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        return transaction;
+    }
+}
@@ -0,0 +1,41 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class TransactionPartitionManagerTest {
+
+    @Test
+    void parsesMonthlyPartitionBounds() {
+        TransactionPartitionManager.Partition partition =
+                TransactionPartitionManager.partition(
+                        "transactions_p202405",
+                        "FOR VALUES FROM ('2024-05-01 00:00:00') TO ('2024-06-01 00:00:00')");
+
+        assertThat(partition.from()).isEqualTo(LocalDateTime.of(2024, 5, 1, 0, 0));
+        assertThat(partition.to()).isEqualTo(LocalDateTime.of(2024, 6, 1, 0, 0));
+    }
+
+    @Test
+    void legacyPartitionHasNoLowerBound() {
+        TransactionPartitionManager.Partition partition =
+                TransactionPartitionManager.partition(
+                        "transactions_legacy",
+                        "FOR VALUES FROM (MINVALUE) TO ('2024-03-01 00:00:00')");
+
+        assertThat(partition.from()).isNull();
+        assertThat(partition.to()).isEqualTo(LocalDateTime.of(2024, 3, 1, 0, 0));
+    }
+
+    @Test
+    void rejectsDefaultPartitions() {
+        assertThatThrownBy(
+                        () ->
+                                TransactionPartitionManager.partition(
+                                        "transactions_default", "DEFAULT"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,225 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Proves partition pruning with {@code EXPLAIN}: the SQL Hibernate generates for the repository's
+ * page queries is captured and explained with the same parameters.
+ */
+@SpringBootTest(
+        properties = {
+            "app.payments.partitioning.retention-months=4",
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                    + "com.paypalclone.featheredoofbird.payments.infrastructure.persistence"
+                    + ".TransactionPartitionPruningTest$CapturingStatementInspector"
+        })
+@Testcontainers
+@ActiveProfiles("dev")
+class TransactionPartitionPruningTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container private static final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.cache.type", () -> "none");
+    }
+
+    /** Records the SQL of every statement Hibernate prepares. */
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    private static final YearMonth CURRENT = YearMonth.now();
+
+    @Autowired private TransactionPartitionManager transactionPartitionManager;
+
+    @Autowired private PostgresTransactionRepository postgresTransactionRepository;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int monthsAgo = 1; monthsAgo <= 2; monthsAgo++) {
+            YearMonth month = CURRENT.minusMonths(monthsAgo);
+            transactionPartitionManager.createPartition(month);
+            insert(month.atDay(10).atTime(12, 0), "alice");
+        }
+        insert(LocalDateTime.now().withNano(0), "alice");
+        CapturingStatementInspector.STATEMENTS.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from transactions");
+        jdbcTemplate.execute("drop schema if exists transactions_archive cascade");
+    }
+
+    @Test
+    void startupCreatesTheCurrentAndPremadeMonths() {
+        assertThat(transactionPartitionManager.partitions())
+                .extracting(TransactionPartitionManager.Partition::name)
+                .contains(name(CURRENT), name(CURRENT.plusMonths(3)));
+    }
+
+    @Test
+    void laterPagesSkipPartitionsNewerThanTheCursor() {
+        LocalDateTime cursor = CURRENT.minusMonths(1).atDay(20).atStartOfDay();
+
+        assertThat(postgresTransactionRepository.findPage(cursor, Long.MAX_VALUE, Limit.of(10)))
+                .hasSize(2);
+        String plan = explain(lastSelect(), ts(cursor), ts(cursor), Long.MAX_VALUE, 10);
+
+        assertThat(plan)
+                .contains(name(CURRENT.minusMonths(1)), name(CURRENT.minusMonths(2)))
+                .doesNotContain(name(CURRENT), name(CURRENT.plusMonths(1)));
+    }
+
+    @Test
+    void partyPagesArePrunedTheSameWay() {
+        LocalDateTime cursor = CURRENT.minusMonths(2).atDay(20).atStartOfDay();
+
+        assertThat(
+                        postgresTransactionRepository.findSummaryPageBySender(
+                                "alice", cursor, Long.MAX_VALUE, Limit.of(10)))
+                .hasSize(1);
+        String plan = explain(lastSelect(), "alice", ts(cursor), ts(cursor), Long.MAX_VALUE, 10);
+
+        assertThat(plan)
+                .contains(name(CURRENT.minusMonths(2)))
+                .doesNotContain(name(CURRENT.minusMonths(1)), name(CURRENT));
+    }
+
+    @Test
+    void expiredPartitionsAreDetachedIntoTheArchiveSchema() {
+        YearMonth expired = CURRENT.minusMonths(6);
+        transactionPartitionManager.createPartition(expired);
+        insert(expired.atDay(3).atStartOfDay(), "bob");
+
+        transactionPartitionManager.maintain();
+
+        assertThat(transactionPartitionManager.partitions())
+                .extracting(TransactionPartitionManager.Partition::name)
+                .doesNotContain(name(expired))
+                .contains(name(CURRENT.minusMonths(2)));
+        assertThat(
+                        jdbcTemplate.queryForObject(
+                                "select count(*) from transactions_archive." + name(expired),
+                                Long.class))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from transactions", Long.class))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void plainTableIsConvertedWithItsRowsInTheLegacyPartition() {
+        jdbcTemplate.update("delete from transactions");
+        jdbcTemplate.execute("drop table transactions");
+        jdbcTemplate.execute(
+                """
+                create table transactions (
+                    id bigint primary key,
+                    sender varchar(255) not null,
+                    receiver varchar(255) not null,
+                    amount numeric(19, 2) not null,
+                    currency varchar(3) not null,
+                    description varchar(500),
+                    created_at timestamp(6) not null,
+                    updated_at timestamp(6),
+                    status varchar(255) not null
+                )
+                """);
+        LocalDateTime old = CURRENT.minusMonths(2).atDay(5).atStartOfDay();
+        insert(old, "carol");
+
+        transactionPartitionManager.convertIfUnpartitioned();
+        transactionPartitionManager.maintain();
+
+        List<TransactionPartitionManager.Partition> partitions =
+                transactionPartitionManager.partitions();
+        assertThat(partitions.getFirst())
+                .isEqualTo(
+                        new TransactionPartitionManager.Partition(
+                                TransactionPartitionManager.LEGACY_PARTITION,
+                                null,
+                                CURRENT.minusMonths(1).atDay(1).atStartOfDay()));
+        assertThat(partitions)
+                .extracting(TransactionPartitionManager.Partition::name)
+                .contains(name(CURRENT))
+                .doesNotContain(name(CURRENT.minusMonths(1)));
+        assertThat(postgresTransactionRepository.findAll()).hasSize(1);
+
+        jdbcTemplate.execute("alter table transactions detach partition transactions_legacy");
+        jdbcTemplate.execute("drop table transactions_legacy");
+    }
+
+    private void insert(LocalDateTime createdAt, String sender) {
+        jdbcTemplate.update(
+                "insert into transactions"
+                        + " (id, sender, receiver, amount, currency, created_at, updated_at, status)"
+                        + " values (nextval('transactions_seq'), ?, 'bob', 10.00, 'EUR', ?, ?,"
+                        + " 'COMPLETED')",
+                sender,
+                ts(createdAt),
+                ts(createdAt));
+    }
+
+    private String lastSelect() {
+        List<String> selects =
+                CapturingStatementInspector.STATEMENTS.stream()
+                        .filter(sql -> sql.startsWith("select"))
+                        .toList();
+        return selects.getLast();
+    }
+
+    private String explain(String sql, Object... parameters) {
+        return String.join(
+                "\n", jdbcTemplate.queryForList("explain " + sql, String.class, parameters));
+    }
+
+    private static String name(YearMonth month) {
+        return TransactionPartitionManager.TABLE
+                + "_p"
+                + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+    }
+
+    private static Timestamp ts(LocalDateTime value) {
+        return Timestamp.valueOf(value);
+    }
+}
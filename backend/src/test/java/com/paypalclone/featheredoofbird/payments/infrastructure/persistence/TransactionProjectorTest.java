@@ -0,0 +1,240 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteResult;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.shared.config.AppConfig;
+import com.paypalclone.featheredoofbird.shared.config.TestAppConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class TransactionProjectorTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    private TransactionOutboxRepository transactionOutboxRepository;
+    private PostgresTransactionStore postgresTransactionStore;
+    private MongoTransactionStore mongoTransactionStore;
+    private TransactionNearCache transactionNearCache;
+    private TransactionRollupStore transactionRollupStore;
+    private TransactionReadModelRebuilder transactionReadModelRebuilder;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionProjector projector;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        transactionOutboxRepository = mock(TransactionOutboxRepository.class);
+        postgresTransactionStore = mock(PostgresTransactionStore.class);
+        mongoTransactionStore = mock(MongoTransactionStore.class);
+        transactionNearCache = mock(TransactionNearCache.class);
+        transactionRollupStore = mock(TransactionRollupStore.class);
+        transactionReadModelRebuilder = mock(TransactionReadModelRebuilder.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(
+                        invocation ->
+                                invocation
+                                        .getArgument(0, TransactionCallback.class)
+                                        .doInTransaction(null));
+        when(transactionOutboxRepository.tryAdvisoryLock(TransactionProjector.PROJECTION_LOCK_KEY))
+                .thenReturn(true);
+        when(transactionOutboxRepository.findFirstByOrderByIdAsc()).thenReturn(Optional.empty());
+        meterRegistry = new SimpleMeterRegistry();
+        projector =
+                new TransactionProjector(
+                        transactionOutboxRepository,
+                        postgresTransactionStore,
+                        mongoTransactionStore,
+                        transactionNearCache,
+                        transactionRollupStore,
+                        transactionReadModelRebuilder,
+                        transactionTemplate,
+                        appConfig(),
+                        meterRegistry);
+    }
+
+    @Test
+    void upsertsExistingRowsAndDeletesMissingOnes() {
+        List<TransactionOutboxEntry> entries =
+                List.of(new TransactionOutboxEntry(1L), new TransactionOutboxEntry(2L));
+        Transaction current = sampleTransaction(1L);
+        when(transactionOutboxRepository.findByOrderByIdAsc(Limit.of(BATCH_SIZE)))
+                .thenReturn(entries, List.of());
+        when(postgresTransactionStore.findAllById(Set.of(1L, 2L))).thenReturn(List.of(current));
+
+        int projected = projector.drain();
+
+        assertThat(projected).isEqualTo(2);
+        verify(mongoTransactionStore).applyProjection(List.of(current), Set.of(2L));
+        verify(transactionReadModelRebuilder).recordDeletions(Set.of(2L));
+        verify(transactionNearCache).invalidateAll(Set.of(1L, 2L));
+        verify(transactionOutboxRepository).deleteAllInBatch(entries);
+        assertThat(meterRegistry.counter("transactions.projection.entries").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void coalescesRepeatedEntriesForTheSameTransaction() {
+        List<TransactionOutboxEntry> entries =
+                List.of(new TransactionOutboxEntry(4L), new TransactionOutboxEntry(4L));
+        Transaction current = sampleTransaction(4L);
+        when(transactionOutboxRepository.findByOrderByIdAsc(Limit.of(BATCH_SIZE)))
+                .thenReturn(entries, List.of());
+        when(postgresTransactionStore.findAllById(Set.of(4L))).thenReturn(List.of(current));
+
+        projector.drain();
+
+        verify(mongoTransactionStore).applyProjection(List.of(current), Set.of());
+    }
+
+    @Test
+    void skipsBatchWhenAnotherNodeHoldsTheLock() {
+        when(transactionOutboxRepository.tryAdvisoryLock(TransactionProjector.PROJECTION_LOCK_KEY))
+                .thenReturn(false);
+
+        int projected = projector.drain();
+
+        assertThat(projected).isZero();
+        verify(transactionOutboxRepository, never()).findByOrderByIdAsc(any());
+        verify(mongoTransactionStore, never()).applyProjection(anyCollection(), anyCollection());
+    }
+
+    @Test
+    void keepsEntriesWhenMongoRejectsTheBatch() {
+        List<TransactionOutboxEntry> entries = List.of(new TransactionOutboxEntry(3L));
+        when(transactionOutboxRepository.findByOrderByIdAsc(Limit.of(BATCH_SIZE)))
+                .thenReturn(entries);
+        when(postgresTransactionStore.findAllById(Set.of(3L)))
+                .thenReturn(List.of(sampleTransaction(3L)));
+        doThrow(new IllegalStateException("mongo down"))
+                .when(mongoTransactionStore)
+                .applyProjection(anyCollection(), anyCollection());
+
+        assertThatThrownBy(projector::drain).isInstanceOf(IllegalStateException.class);
+
+        verify(transactionOutboxRepository, never()).deleteAllInBatch(any());
+        assertThat(meterRegistry.counter("transactions.projection.failures").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void rollupsAreUpdatedFromTheReplacedDocuments() {
+        List<TransactionOutboxEntry> entries = List.of(new TransactionOutboxEntry(5L));
+        Transaction current = sampleTransaction(5L);
+        List<TransactionDocument> replaced =
+                List.of(new TransactionDocumentMapper().toDocument(sampleTransaction(5L)));
+        Map<TransactionRollupStore.Key, TransactionRollupStore.Change> changes =
+                Map.of(
+                        new TransactionRollupStore.Key(
+                                TransactionRollupDocument.Dimension.CURRENCY,
+                                "",
+                                "2024-01-01",
+                                "USD",
+                                Transaction.TransactionStatus.PENDING),
+                        new TransactionRollupStore.Change(1, BigDecimal.ONE));
+        when(transactionOutboxRepository.findByOrderByIdAsc(Limit.of(BATCH_SIZE)))
+                .thenReturn(entries, List.of());
+        when(postgresTransactionStore.findAllById(Set.of(5L))).thenReturn(List.of(current));
+        when(mongoTransactionStore.findDocuments(Set.of(5L))).thenReturn(replaced);
+        when(transactionRollupStore.changes(replaced, List.of(current))).thenReturn(changes);
+        doThrow(new IllegalStateException("mongo down"))
+                .when(transactionRollupStore)
+                .apply(changes);
+
+        int projected = projector.drain();
+
+        assertThat(projected).isEqualTo(1);
+        verify(transactionOutboxRepository).deleteAllInBatch(entries);
+        assertThat(meterRegistry.counter("transactions.rollups.failures").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void partlyAppliedBatchNamesTheDaysToBackfill() {
+        List<TransactionOutboxEntry> entries = List.of(new TransactionOutboxEntry(6L));
+        Map<TransactionRollupStore.Key, TransactionRollupStore.Change> changes = rollupChanges();
+        when(transactionOutboxRepository.findByOrderByIdAsc(Limit.of(BATCH_SIZE)))
+                .thenReturn(entries);
+        when(postgresTransactionStore.findAllById(Set.of(6L)))
+                .thenReturn(List.of(sampleTransaction(6L)));
+        when(transactionRollupStore.changes(any(), any())).thenReturn(changes);
+        doThrow(new IllegalStateException("connection reset"))
+                .when(mongoTransactionStore)
+                .applyProjection(anyCollection(), anyCollection());
+
+        assertThatThrownBy(projector::drain).isInstanceOf(IllegalStateException.class);
+
+        verify(transactionRollupStore, never()).apply(any());
+        assertThat(meterRegistry.counter("transactions.rollups.failures").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void batchRejectedWithoutAnyWriteIsRetriedWithoutABackfill() {
+        List<TransactionOutboxEntry> entries = List.of(new TransactionOutboxEntry(7L));
+        when(transactionOutboxRepository.findByOrderByIdAsc(Limit.of(BATCH_SIZE)))
+                .thenReturn(entries);
+        when(postgresTransactionStore.findAllById(Set.of(7L)))
+                .thenReturn(List.of(sampleTransaction(7L)));
+        when(transactionRollupStore.changes(any(), any())).thenReturn(rollupChanges());
+        doThrow(
+                        new BulkOperationException(
+                                "rejected",
+                                new MongoBulkWriteException(
+                                        BulkWriteResult.acknowledged(
+                                                0, 0, 0, 0, List.of(), List.of()),
+                                        List.of(),
+                                        null,
+                                        new ServerAddress(),
+                                        Set.of())))
+                .when(mongoTransactionStore)
+                .applyProjection(anyCollection(), anyCollection());
+
+        assertThatThrownBy(projector::drain).isInstanceOf(BulkOperationException.class);
+
+        assertThat(meterRegistry.counter("transactions.rollups.failures").count()).isZero();
+    }
+
+    private static Map<TransactionRollupStore.Key, TransactionRollupStore.Change> rollupChanges() {
+        return Map.of(
+                new TransactionRollupStore.Key(
+                        TransactionRollupDocument.Dimension.CURRENCY,
+                        "",
+                        "2024-01-01",
+                        "USD",
+                        Transaction.TransactionStatus.PENDING),
+                new TransactionRollupStore.Change(1, BigDecimal.ONE));
+    }
+
+    private AppConfig appConfig() {
+        return TestAppConfig.with("app.payments.projection.batch-size=" + BATCH_SIZE);
+    }
+
+    private Transaction sampleTransaction(Long id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setSender("alice");
+        transaction.setReceiver("bob");
+        transaction.setStatus(Transaction.TransactionStatus.PENDING);
+        return transaction;
+    }
+}
@@ -0,0 +1,36 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionReadModelRebuilder.IdRange;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class TransactionReadModelRebuilderTest {
+
+    @Test
+    void chunksCoverTheIdRangeWithHalfOpenSlices() {
+        assertThat(TransactionReadModelRebuilder.chunks(rebuild(1L, 250L, 100), Set.of()))
+                .containsExactly(new IdRange(1, 101), new IdRange(101, 201), new IdRange(201, 251));
+    }
+
+    @Test
+    void chunksSkipCompletedRangesSoARunCanResume() {
+        assertThat(TransactionReadModelRebuilder.chunks(rebuild(1L, 250L, 100), Set.of(1L, 201L)))
+                .containsExactly(new IdRange(101, 201));
+    }
+
+    @Test
+    void emptyTableHasNoChunks() {
+        assertThat(TransactionReadModelRebuilder.chunks(rebuild(null, null, 100), Set.of()))
+                .isEmpty();
+    }
+
+    private static TransactionRebuild rebuild(Long minId, Long maxId, int chunkSize) {
+        TransactionRebuild rebuild = new TransactionRebuild();
+        rebuild.setMinId(minId);
+        rebuild.setMaxId(maxId);
+        rebuild.setChunkSize(chunkSize);
+        return rebuild;
+    }
+}
@@ -1,59 +1,123 @@
 package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.paypalclone.featheredoofbird.payments.domain.ConsistencyToken;
 import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionCursor;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionPage;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionTransition;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionWrite;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
 
 class TransactionRepositoryTest {
 
     private PostgresTransactionStore postgresTransactionStore;
     private MongoTransactionStore mongoTransactionStore;
+    private TransactionOutboxRepository transactionOutboxRepository;
     private TransactionRepository transactionRepository;
 
     @BeforeEach
     void setUp() {
         postgresTransactionStore = mock(PostgresTransactionStore.class);
         mongoTransactionStore = mock(MongoTransactionStore.class);
+        transactionOutboxRepository = mock(TransactionOutboxRepository.class);
         transactionRepository =
-                new TransactionRepository(postgresTransactionStore, mongoTransactionStore);
+                new TransactionRepository(
+                        postgresTransactionStore,
+                        mongoTransactionStore,
+                        transactionOutboxRepository,
+                        TransactionNearCacheTest.nearCache(true, new SimpleMeterRegistry()));
     }
 
     @Test
     void findAllUsesMongoStore() {
         Transaction transaction = sampleTransaction(1L);
-        when(mongoTransactionStore.findAll()).thenReturn(List.of(transaction));
+        when(mongoTransactionStore.findAll(TransactionCursor.FIRST, 3))
+                .thenReturn(List.of(transaction));
 
-        List<Transaction> result = transactionRepository.findAll();
+        TransactionPage result =
+                transactionRepository.findAll(TransactionCursor.FIRST, 2, ConsistencyToken.NONE);
 
-        assertThat(result).containsExactly(transaction);
-        verify(mongoTransactionStore).findAll();
+        assertThat(result.transactions()).containsExactly(transaction);
+        assertThat(result.hasNext()).isFalse();
+        verify(mongoTransactionStore).findAll(TransactionCursor.FIRST, 3);
     }
 
     @Test
-    void saveWritesToPostgresAndSyncsMongo() {
+    void findBySenderReturnsCursorOfLastRowWhenMoreRowsExist() {
+        Transaction newest = sampleTransaction(3L);
+        newest.setCreatedAt(LocalDateTime.of(2024, 1, 3, 9, 0));
+        Transaction middle = sampleTransaction(2L);
+        middle.setCreatedAt(LocalDateTime.of(2024, 1, 2, 9, 0));
+        Transaction oldest = sampleTransaction(1L);
+        oldest.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+        when(mongoTransactionStore.findBySender("alice", TransactionCursor.FIRST, 3))
+                .thenReturn(List.of(newest, middle, oldest));
+
+        TransactionPage result =
+                transactionRepository.findBySender(
+                        "alice", TransactionCursor.FIRST, 2, ConsistencyToken.NONE);
+
+        assertThat(result.transactions()).containsExactly(newest, middle);
+        assertThat(result.nextCursor())
+                .isEqualTo(new TransactionCursor(LocalDateTime.of(2024, 1, 2, 9, 0), 2L));
+    }
+
+    @Test
+    void saveWritesToPostgresAndAppendsOutboxEntry() {
         Transaction transaction = sampleTransaction(null);
         Transaction savedTransaction = sampleTransaction(10L);
         when(postgresTransactionStore.save(transaction)).thenReturn(savedTransaction);
-        when(mongoTransactionStore.save(savedTransaction)).thenReturn(savedTransaction);
+        when(transactionOutboxRepository.save(any())).thenReturn(outboxEntry(21L));
 
-        Transaction result = transactionRepository.save(transaction);
+        TransactionWrite result = transactionRepository.save(transaction);
 
-        assertThat(result).isEqualTo(savedTransaction);
+        assertThat(result.transaction()).isEqualTo(savedTransaction);
+        assertThat(result.token()).isEqualTo(new ConsistencyToken(21L));
         verify(postgresTransactionStore).save(transaction);
-        verify(mongoTransactionStore).save(savedTransaction);
+        assertThat(capturedOutboxEntry().getTransactionId()).isEqualTo(10L);
+        verify(mongoTransactionStore, never()).save(any());
     }
 
     @Test
-    void updateWritesToPostgresAndSyncsMongo() {
+    @SuppressWarnings("unchecked")
+    void saveAllWritesToPostgresAndAppendsOneOutboxEntryPerTransaction() {
+        List<Transaction> transactions = List.of(sampleTransaction(null), sampleTransaction(null));
+        List<Transaction> savedTransactions =
+                List.of(sampleTransaction(11L), sampleTransaction(12L));
+        when(postgresTransactionStore.saveAll(transactions)).thenReturn(savedTransactions);
+        when(transactionOutboxRepository.saveAll(any()))
+                .thenReturn(List.of(outboxEntry(31L), outboxEntry(32L)));
+
+        ConsistencyToken result = transactionRepository.saveAll(transactions);
+
+        assertThat(result).isEqualTo(new ConsistencyToken(32L));
+        ArgumentCaptor<List<TransactionOutboxEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionOutboxRepository).saveAll(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(TransactionOutboxEntry::getTransactionId)
+                .containsExactly(11L, 12L);
+        verify(mongoTransactionStore, never()).save(any());
+    }
+
+    @Test
+    void updateWritesToPostgresAndAppendsOutboxEntry() {
         Transaction existing = sampleTransaction(5L);
         Transaction update = sampleTransaction(5L);
         update.setStatus(Transaction.TransactionStatus.COMPLETED);
@@ -62,22 +126,152 @@ class TransactionRepositoryTest {
 
         when(postgresTransactionStore.findById(5L)).thenReturn(Optional.of(existing));
         when(postgresTransactionStore.save(existing)).thenReturn(updated);
+        when(transactionOutboxRepository.save(any())).thenReturn(outboxEntry(22L));
 
-        Transaction result = transactionRepository.update(5L, update);
+        TransactionWrite result = transactionRepository.update(5L, update);
 
-        assertThat(result.getStatus()).isEqualTo(Transaction.TransactionStatus.COMPLETED);
-        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
-        verify(mongoTransactionStore).save(captor.capture());
-        assertThat(captor.getValue().getStatus())
+        assertThat(result.transaction().getStatus())
                 .isEqualTo(Transaction.TransactionStatus.COMPLETED);
+        assertThat(capturedOutboxEntry().getTransactionId()).isEqualTo(5L);
+        verify(mongoTransactionStore, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void transitionStatusAppendsOutboxEntriesOnlyForMovedTransactions() {
+        Transaction moved = sampleTransaction(5L);
+        moved.setStatus(Transaction.TransactionStatus.COMPLETED);
+        when(postgresTransactionStore.transitionStatus(
+                        List.of(5L, 6L),
+                        Transaction.TransactionStatus.PENDING,
+                        Transaction.TransactionStatus.COMPLETED))
+                .thenReturn(List.of(moved));
+        when(transactionOutboxRepository.saveAll(any())).thenReturn(List.of(outboxEntry(24L)));
+
+        TransactionTransition result =
+                transactionRepository.transitionStatus(
+                        List.of(5L, 6L),
+                        Transaction.TransactionStatus.PENDING,
+                        Transaction.TransactionStatus.COMPLETED);
+
+        assertThat(result.transactions()).containsExactly(moved);
+        assertThat(result.token()).isEqualTo(new ConsistencyToken(24L));
+        ArgumentCaptor<List<TransactionOutboxEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionOutboxRepository).saveAll(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(TransactionOutboxEntry::getTransactionId)
+                .containsExactly(5L);
+        verifyNoInteractions(mongoTransactionStore);
+    }
+
+    @Test
+    void transitionStatusWithoutMovesWritesNoOutboxEntry() {
+        when(postgresTransactionStore.transitionStatus(
+                        List.of(5L),
+                        Transaction.TransactionStatus.PENDING,
+                        Transaction.TransactionStatus.FAILED))
+                .thenReturn(List.of());
+
+        TransactionTransition result =
+                transactionRepository.transitionStatus(
+                        List.of(5L),
+                        Transaction.TransactionStatus.PENDING,
+                        Transaction.TransactionStatus.FAILED);
+
+        assertThat(result.token()).isEqualTo(ConsistencyToken.NONE);
+        verify(transactionOutboxRepository, never()).saveAll(any());
     }
 
     @Test
-    void deleteRemovesFromBothStores() {
-        transactionRepository.deleteById(9L);
+    void deleteRemovesFromPostgresAndAppendsOutboxEntry() {
+        when(transactionOutboxRepository.save(any())).thenReturn(outboxEntry(23L));
+
+        assertThat(transactionRepository.deleteById(9L)).isEqualTo(new ConsistencyToken(23L));
 
         verify(postgresTransactionStore).deleteById(9L);
-        verify(mongoTransactionStore).deleteById(9L);
+        assertThat(capturedOutboxEntry().getTransactionId()).isEqualTo(9L);
+        verify(mongoTransactionStore, never()).deleteById(any());
+    }
+
+    @Test
+    void readWithPendingTokenFallsBackToPostgres() {
+        Transaction transaction = sampleTransaction(7L);
+        when(transactionOutboxRepository.existsById(40L)).thenReturn(true);
+        when(postgresTransactionStore.findById(7L)).thenReturn(Optional.of(transaction));
+
+        Optional<Transaction> result =
+                transactionRepository.findById(7L, new ConsistencyToken(40L));
+
+        assertThat(result).contains(transaction);
+        verify(mongoTransactionStore, never()).findById(any());
+    }
+
+    @Test
+    void readWithProjectedTokenUsesMongo() {
+        Transaction transaction = sampleTransaction(7L);
+        when(transactionOutboxRepository.existsById(40L)).thenReturn(false);
+        when(mongoTransactionStore.findById(7L)).thenReturn(Optional.of(transaction));
+
+        Optional<Transaction> result =
+                transactionRepository.findById(7L, new ConsistencyToken(40L));
+
+        assertThat(result).contains(transaction);
+        verify(postgresTransactionStore, never()).findById(any());
+    }
+
+    @Test
+    void readWithoutTokenSkipsOutboxLookup() {
+        transactionRepository.findById(7L, ConsistencyToken.NONE);
+
+        verify(mongoTransactionStore).findById(7L);
+        verify(transactionOutboxRepository, never()).existsById(any());
+    }
+
+    @Test
+    void repeatedLookupIsServedFromNearCacheUntilUpdated() {
+        Transaction cached = sampleTransaction(5L);
+        Transaction updated = sampleTransaction(5L);
+        updated.setStatus(Transaction.TransactionStatus.COMPLETED);
+        when(mongoTransactionStore.findById(5L))
+                .thenReturn(Optional.of(cached), Optional.of(updated));
+        when(postgresTransactionStore.findById(5L)).thenReturn(Optional.of(sampleTransaction(5L)));
+        when(postgresTransactionStore.save(any())).thenReturn(updated);
+        when(transactionOutboxRepository.save(any())).thenReturn(outboxEntry(24L));
+
+        transactionRepository.findById(5L, ConsistencyToken.NONE);
+        Optional<Transaction> hit = transactionRepository.findById(5L, ConsistencyToken.NONE);
+        transactionRepository.update(5L, updated);
+        Optional<Transaction> afterUpdate =
+                transactionRepository.findById(5L, ConsistencyToken.NONE);
+
+        assertThat(hit).containsSame(cached);
+        assertThat(afterUpdate).containsSame(updated);
+        verify(mongoTransactionStore, times(2)).findById(5L);
+    }
+
+    @Test
+    void deleteInvalidatesNearCache() {
+        when(mongoTransactionStore.findById(6L))
+                .thenReturn(Optional.of(sampleTransaction(6L)), Optional.empty());
+        when(transactionOutboxRepository.save(any())).thenReturn(outboxEntry(25L));
+
+        transactionRepository.findById(6L, ConsistencyToken.NONE);
+        transactionRepository.deleteById(6L);
+
+        assertThat(transactionRepository.findById(6L, ConsistencyToken.NONE)).isEmpty();
+    }
+
+    private TransactionOutboxEntry outboxEntry(Long id) {
+        TransactionOutboxEntry entry = new TransactionOutboxEntry(id * 10);
+        ReflectionTestUtils.setField(entry, "id", id);
+        return entry;
+    }
+
+    private TransactionOutboxEntry capturedOutboxEntry() {
+        ArgumentCaptor<TransactionOutboxEntry> captor =
+                ArgumentCaptor.forClass(TransactionOutboxEntry.class);
+        verify(transactionOutboxRepository).save(captor.capture());
+        return captor.getValue();
     }
 
     private Transaction sampleTransaction(Long id) {
@@ -0,0 +1,129 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.paypalclone.featheredoofbird.payments.application.TransactionBatchResult;
+import com.paypalclone.featheredoofbird.payments.application.TransactionService;
+import com.paypalclone.featheredoofbird.payments.application.TransactionVolumeService;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionVolume;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("dev")
+class TransactionRollupStoreIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container private static final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.cache.type", () -> "none");
+    }
+
+    @Autowired private TransactionService transactionService;
+
+    @Autowired private TransactionVolumeService transactionVolumeService;
+
+    @Autowired private TransactionProjector transactionProjector;
+
+    @Autowired private PostgresTransactionRepository postgresTransactionRepository;
+
+    @Autowired private MongoTransactionRepository mongoTransactionRepository;
+
+    @Autowired private TransactionOutboxRepository transactionOutboxRepository;
+
+    @Autowired private MongoOperations mongoOperations;
+
+    @AfterEach
+    void tearDown() {
+        mongoOperations.dropCollection(TransactionRollupDocument.class);
+        mongoTransactionRepository.deleteAll();
+        transactionOutboxRepository.deleteAll();
+        postgresTransactionRepository.deleteAll();
+    }
+
+    @Test
+    void projectedWritesKeepRollupsEqualToABackfill() {
+        List<Long> ids = seed(60);
+        Transaction completed = postgresTransactionRepository.findById(ids.get(0)).orElseThrow();
+        completed.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transactionService.updateTransaction(completed.getId(), completed);
+        transactionService.deleteTransaction(ids.get(1));
+        transactionProjector.drain();
+        LocalDate today = LocalDate.now();
+
+        TransactionVolume incremental =
+                transactionVolumeService.getVolume(today, today, null, null);
+        TransactionVolume bySender =
+                transactionVolumeService.getVolumeBySender("sender-0", today, today, "EUR", null);
+        TransactionVolume completedOnly =
+                transactionVolumeService.getVolume(
+                        today, today, null, Transaction.TransactionStatus.COMPLETED);
+        transactionVolumeService.backfill(today, today);
+
+        assertThat(incremental.totals())
+                .containsExactly(new TransactionVolume.Total("EUR", 59, expectedTotal(60, 1)));
+        assertThat(bySender.totals().getFirst().count()).isEqualTo(9);
+        assertThat(completedOnly.totals().getFirst().count()).isEqualTo(1);
+        assertThat(transactionVolumeService.getVolume(today, today, null, null))
+                .isEqualTo(incremental);
+    }
+
+    private static BigDecimal expectedTotal(int count, int deletedIndex) {
+        BigDecimal total = BigDecimal.ZERO.setScale(2);
+        for (int i = 0; i < count; i++) {
+            if (i != deletedIndex) {
+                total = total.add(BigDecimal.valueOf(1_000 + i, 2));
+            }
+        }
+        return total;
+    }
+
+    private List<Long> seed(int count) {
+        List<Long> ids =
+                transactionService
+                        .createTransactions(
+                                IntStream.range(0, count)
+                                        .mapToObj(
+                                                i -> {
+                                                    Transaction transaction = new Transaction();
+                                                    transaction.setSender("sender-" + i % 7);
+                                                    transaction.setReceiver("receiver-" + i % 5);
+                                                    transaction.setAmount(
+                                                            BigDecimal.valueOf(1_000 + i, 2));
+                                                    transaction.setCurrency("EUR");
+                                                    return transaction;
+                                                })
+                                        .toList())
+                        .items()
+                        .stream()
+                        .map(TransactionBatchResult.Item::id)
+                        .toList();
+        transactionProjector.drain();
+        return ids;
+    }
+}
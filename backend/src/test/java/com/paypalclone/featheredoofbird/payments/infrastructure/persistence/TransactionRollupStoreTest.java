@@ -0,0 +1,124 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupDocument.Dimension;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupStore.Change;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionRollupStore.Key;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class TransactionRollupStoreTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 9, 23, 30);
+
+    private final TransactionRollupStore store =
+            new TransactionRollupStore(
+                    mock(MongoOperations.class),
+                    mock(PlatformTransactionManager.class),
+                    mock(DataSource.class),
+                    mock(TransactionPartitionManager.class));
+
+    @Test
+    void newTransactionCountsForSenderReceiverAndCurrency() {
+        Map<Key, Change> changes =
+                store.changes(
+                        List.of(),
+                        List.of(transaction("10.00", Transaction.TransactionStatus.PENDING)));
+
+        Change added = new Change(1, new BigDecimal("10.00"));
+        assertThat(changes)
+                .containsOnly(
+                        Map.entry(
+                                key(
+                                        Dimension.SENDER,
+                                        "dana",
+                                        Transaction.TransactionStatus.PENDING),
+                                added),
+                        Map.entry(
+                                key(
+                                        Dimension.RECEIVER,
+                                        "erin",
+                                        Transaction.TransactionStatus.PENDING),
+                                added),
+                        Map.entry(
+                                key(Dimension.CURRENCY, "", Transaction.TransactionStatus.PENDING),
+                                added));
+    }
+
+    @Test
+    void statusChangeMovesTheTransactionBetweenRollups() {
+        TransactionDocument before =
+                new TransactionDocumentMapper()
+                        .toDocument(transaction("10.00", Transaction.TransactionStatus.PENDING));
+
+        Map<Key, Change> changes =
+                store.changes(
+                        List.of(before),
+                        List.of(transaction("10.00", Transaction.TransactionStatus.COMPLETED)));
+
+        assertThat(changes).hasSize(6);
+        assertThat(
+                        changes.get(
+                                key(
+                                        Dimension.SENDER,
+                                        "dana",
+                                        Transaction.TransactionStatus.PENDING)))
+                .isEqualTo(new Change(-1, new BigDecimal("-10.00")));
+        assertThat(
+                        changes.get(
+                                key(
+                                        Dimension.SENDER,
+                                        "dana",
+                                        Transaction.TransactionStatus.COMPLETED)))
+                .isEqualTo(new Change(1, new BigDecimal("10.00")));
+    }
+
+    @Test
+    void amountEditChangesOnlyTheTotal() {
+        TransactionDocument before =
+                new TransactionDocumentMapper()
+                        .toDocument(transaction("10.00", Transaction.TransactionStatus.PENDING));
+
+        Map<Key, Change> changes =
+                store.changes(
+                        List.of(before),
+                        List.of(transaction("12.50", Transaction.TransactionStatus.PENDING)));
+
+        assertThat(changes.values()).containsOnly(new Change(0, new BigDecimal("2.50")));
+    }
+
+    @Test
+    void unchangedReprojectionsCancelOutAndDeletesSubtract() {
+        Transaction transaction = transaction("10.00", Transaction.TransactionStatus.PENDING);
+        TransactionDocument before = new TransactionDocumentMapper().toDocument(transaction);
+
+        assertThat(store.changes(List.of(before), List.of(transaction))).isEmpty();
+        assertThat(store.changes(List.of(before), List.of()).values())
+                .containsOnly(new Change(-1, new BigDecimal("-10.00")));
+    }
+
+    private Key key(Dimension dimension, String party, Transaction.TransactionStatus status) {
+        return new Key(dimension, party, "2024-03-09", "USD", status);
+    }
+
+    private Transaction transaction(String amount, Transaction.TransactionStatus status) {
+        Transaction transaction = new Transaction();
+        transaction.setId(1L);
+        transaction.setSender("dana");
+        transaction.setReceiver("erin");
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCurrency("USD");
+        transaction.setStatus(status);
+        transaction.setCreatedAt(CREATED_AT);
+        return transaction;
+    }
+}
@@ -0,0 +1,14 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadLoadBenchmarkTest extends TransactionLoadBenchmark {
+
+    @Override
+    String mode() {
+        return "platform";
+    }
+}
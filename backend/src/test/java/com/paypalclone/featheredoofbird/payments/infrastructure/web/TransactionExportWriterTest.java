@@ -0,0 +1,83 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class TransactionExportWriterTest {
+
+    private final ObjectMapper objectMapper =
+            new ObjectMapper()
+                    .registerModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final TransactionExportWriter writer = new TransactionExportWriter(objectMapper);
+
+    @Test
+    void writesOneJsonObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.writeNdjson(Stream.of(sampleTransaction(1L), sampleTransaction(2L)), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("createdAt").asText()).isEqualTo("2024-01-01T10:00:00");
+        assertThat(objectMapper.readTree(lines[1]).get("id").asLong()).isEqualTo(2L);
+    }
+
+    @Test
+    void writesCsvWithHeaderAndQuotedFields() throws IOException {
+        Transaction transaction = sampleTransaction(5L);
+        transaction.setDescription("Rent, \"March\"");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.writeCsv(Stream.of(transaction), out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo(
+                        TransactionExportWriter.CSV_HEADER
+                                + "\r\n"
+                                + "5,alice,bob,12.50,USD,\"Rent, \"\"March\"\"\",PENDING,"
+                                + "2024-01-01T10:00,\r\n");
+    }
+
+    @Test
+    void neutralisesCsvCellsThatSpreadsheetsWouldEvaluate() throws IOException {
+        Transaction transaction = sampleTransaction(6L);
+        transaction.setSender("@alice");
+        transaction.setDescription("=HYPERLINK(\"http://evil.example\",\"Refund\")");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.writeCsv(Stream.of(transaction), out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .endsWith(
+                        "6,\"'@alice\",bob,12.50,USD,"
+                                + "\"'=HYPERLINK(\"\"http://evil.example\"\",\"\"Refund\"\")\","
+                                + "PENDING,2024-01-01T10:00,\r\n");
+    }
+
+    private Transaction sampleTransaction(Long id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setSender("alice");
+        transaction.setReceiver("bob");
+        transaction.setAmount(new BigDecimal("12.50"));
+        transaction.setCurrency("USD");
+        transaction.setStatus(Transaction.TransactionStatus.PENDING);
+        transaction.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        return transaction;
+    }
+}
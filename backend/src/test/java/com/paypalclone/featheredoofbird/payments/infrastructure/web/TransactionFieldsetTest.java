@@ -0,0 +1,62 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.domain.TransactionSummary;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class TransactionFieldsetTest {
+
+    @Test
+    void selectsRequestedFieldsInResponseOrder() {
+        TransactionFieldset fieldset = TransactionFieldset.parse("amount, id,sender,id");
+
+        assertThat(fieldset.select(sampleTransaction()))
+                .containsExactly(
+                        Map.entry("id", 1L),
+                        Map.entry("sender", "dana"),
+                        Map.entry("amount", new BigDecimal("44.10")));
+    }
+
+    @Test
+    void summaryFieldsetsSelectFromSummaries() {
+        TransactionFieldset fieldset = TransactionFieldset.parse("id,status,createdAt");
+
+        assertThat(fieldset.isSummary()).isTrue();
+        assertThat(fieldset.select(TransactionSummary.of(sampleTransaction())))
+                .containsOnlyKeys("id", "status", "createdAt")
+                .containsEntry("status", Transaction.TransactionStatus.COMPLETED);
+    }
+
+    @Test
+    void descriptionAndUpdatedAtNeedTheFullRead() {
+        assertThat(TransactionFieldset.parse("id,description").isSummary()).isFalse();
+        assertThat(TransactionFieldset.parse("updatedAt").isSummary()).isFalse();
+    }
+
+    @Test
+    void rejectsUnknownOrEmptyFieldsets() {
+        assertThatThrownBy(() -> TransactionFieldset.parse("id,password"))
+                .isInstanceOf(InvalidFieldsetException.class);
+        assertThatThrownBy(() -> TransactionFieldset.parse(" , "))
+                .isInstanceOf(InvalidFieldsetException.class);
+    }
+
+    private Transaction sampleTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId(1L);
+        transaction.setSender("dana");
+        transaction.setReceiver("erin");
+        transaction.setAmount(new BigDecimal("44.10"));
+        transaction.setCurrency("USD");
+        transaction.setDescription("Refund");
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        return transaction;
+    }
+}
@@ -0,0 +1,214 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.paypalclone.featheredoofbird.identity.application.TokenIssuer;
+import com.paypalclone.featheredoofbird.identity.domain.Role;
+import com.paypalclone.featheredoofbird.identity.domain.User;
+import com.paypalclone.featheredoofbird.payments.application.TransactionService;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionProjector;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Closed-loop HTTP load against the transaction read endpoints. Subclasses fix the thread mode, so
+ * {@code mvn test -Pbenchmark} prints one throughput / p99 line per mode for the same workload.
+ *
+ * <p>{@value #CONCURRENCY} clients exceed Tomcat's 200 platform request threads on purpose. The
+ * near cache and the Redis party cache are disabled so every request reaches Mongo.
+ */
+@Slf4j
+@Tag("benchmark")
+@Testcontainers
+@ActiveProfiles("dev")
+abstract class TransactionLoadBenchmark {
+
+    static final int CONCURRENCY = 400;
+    private static final int SEEDED = 1_000;
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(30);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container private static final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.cache.type", () -> "none");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("app.payments.near-cache.enabled", () -> "false");
+        registry.add("logging.level.com.paypalclone.featheredoofbird", () -> "INFO");
+        registry.add("logging.level.org.springframework.security", () -> "INFO");
+    }
+
+    @LocalServerPort private int port;
+
+    @Autowired private TransactionService transactionService;
+
+    @Autowired private TransactionProjector transactionProjector;
+
+    @Autowired private TokenIssuer tokenIssuer;
+
+    private final HttpClient httpClient =
+            HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+    private List<Long> ids;
+    private String authorization;
+
+    abstract String mode();
+
+    @BeforeEach
+    void seed() {
+        if (ids == null) {
+            ids =
+                    transactionService
+                            .createTransactions(
+                                    IntStream.range(0, SEEDED)
+                                            .mapToObj(TransactionLoadBenchmark::transaction)
+                                            .toList())
+                            .items()
+                            .stream()
+                            .map(item -> item.id())
+                            .toList();
+            transactionProjector.drain();
+        }
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("load@example.com");
+        user.setRole(Role.PERSONAL);
+        authorization = "Bearer " + tokenIssuer.issueToken(user).accessToken();
+    }
+
+    @Test
+    void getById() throws Exception {
+        report(
+                "GET /api/transactions/{id}",
+                run(() -> "/api/transactions/" + ids.get(random(ids.size()))));
+    }
+
+    @Test
+    void getBySender() throws Exception {
+        report(
+                "GET /api/transactions/sender/{sender}",
+                run(() -> "/api/transactions/sender/sender-" + random(50) + "?limit=20"));
+    }
+
+    private Result run(PathSupplier paths) throws Exception {
+        load(paths, WARMUP);
+        return load(paths, MEASUREMENT);
+    }
+
+    private Result load(PathSupplier paths, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<long[]>> workers = new ArrayList<>(CONCURRENCY);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                workers.add(clients.submit(() -> client(paths, deadline)));
+            }
+        }
+        List<long[]> latencies = new ArrayList<>(CONCURRENCY);
+        for (Future<long[]> worker : workers) {
+            latencies.add(worker.get());
+        }
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, duration);
+    }
+
+    private long[] client(PathSupplier paths, long deadline) throws Exception {
+        long[] latencies = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            HttpRequest request =
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + paths.next()))
+                            .header("Authorization", authorization)
+                            .GET()
+                            .build();
+            long start = System.nanoTime();
+            HttpResponse<Void> response =
+                    httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            long latency = System.nanoTime() - start;
+            assertThat(response.statusCode()).isEqualTo(200);
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private void report(String endpoint, Result result) {
+        log.info(
+                "{} threads, {} clients, {}: {} req/s, p50={}ms p99={}ms max={}ms",
+                mode(),
+                CONCURRENCY,
+                endpoint,
+                String.format("%.0f", result.throughput()),
+                result.percentileMillis(0.50),
+                result.percentileMillis(0.99),
+                result.percentileMillis(1.0));
+        assertThat(result.latencies()).isNotEmpty();
+    }
+
+    private static int random(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+
+    private static Transaction transaction(int i) {
+        Transaction transaction = new Transaction();
+        transaction.setSender("sender-" + (i % 50));
+        transaction.setReceiver("receiver-" + (i % 70));
+        transaction.setAmount(BigDecimal.valueOf(i + 1, 2));
+        transaction.setCurrency("USD");
+        transaction.setStatus(Transaction.TransactionStatus.PENDING);
+        return transaction;
+    }
+
+    @FunctionalInterface
+    private interface PathSupplier {
+        String next();
+    }
+
+    private record Result(long[] latencies, Duration duration) {
+
+        double throughput() {
+            return latencies.length / (duration.toMillis() / 1000.0);
+        }
+
+        double percentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return Math.round(latencies[Math.max(index, 0)] / 10_000.0) / 100.0;
+        }
+    }
+}
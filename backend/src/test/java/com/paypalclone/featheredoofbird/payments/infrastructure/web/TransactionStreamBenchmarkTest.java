@@ -0,0 +1,196 @@
+package com.paypalclone.featheredoofbird.payments.infrastructure.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.paypalclone.featheredoofbird.identity.application.TokenIssuer;
+import com.paypalclone.featheredoofbird.identity.domain.Role;
+import com.paypalclone.featheredoofbird.identity.domain.User;
+import com.paypalclone.featheredoofbird.payments.application.TransactionService;
+import com.paypalclone.featheredoofbird.payments.domain.Transaction;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionProjector;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * How many concurrent dashboard readers one node serves: N clients open the same party read at
+ * once, through the paged endpoint and through the streaming endpoint, and each client drains its
+ * response slowly. The paged endpoint holds a Tomcat thread for the whole response, so readers
+ * beyond {@value #TOMCAT_THREADS} queue; the stream releases its thread after subscribing.
+ */
+@Slf4j
+@Tag("benchmark")
+@Testcontainers
+@ActiveProfiles("dev")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.threads.max=" + TransactionStreamBenchmarkTest.TOMCAT_THREADS)
+class TransactionStreamBenchmarkTest {
+
+    static final int TOMCAT_THREADS = 50;
+    private static final int[] READERS = {50, 200, 800, 2_000};
+    private static final int SENDERS = 10;
+    private static final int PER_SENDER = 500;
+
+    /** Client-side pause per received line, standing in for dashboard rendering. */
+    private static final Duration READ_PAUSE = Duration.ofMillis(2);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container private static final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.cache.type", () -> "none");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("app.payments.near-cache.enabled", () -> "false");
+        registry.add("logging.level.com.paypalclone.featheredoofbird", () -> "INFO");
+        registry.add("logging.level.org.springframework.security", () -> "INFO");
+    }
+
+    @LocalServerPort private int port;
+
+    @Autowired private TransactionService transactionService;
+
+    @Autowired private TransactionProjector transactionProjector;
+
+    @Autowired private TokenIssuer tokenIssuer;
+
+    private final HttpClient httpClient =
+            HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+    private String authorization;
+
+    @BeforeEach
+    void seed() {
+        transactionService.createTransactions(
+                IntStream.range(0, SENDERS * PER_SENDER)
+                        .mapToObj(TransactionStreamBenchmarkTest::transaction)
+                        .toList());
+        transactionProjector.drain();
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("stream@example.com");
+        user.setRole(Role.PERSONAL);
+        authorization = "Bearer " + tokenIssuer.issueToken(user).accessToken();
+    }
+
+    @Test
+    void concurrentReaders() throws Exception {
+        for (int readers : READERS) {
+            report(
+                    "paged ",
+                    readers,
+                    run(readers, "/api/transactions/sender/", "?limit=" + PER_SENDER));
+            report("stream", readers, run(readers, "/api/transactions/stream/sender/", ""));
+        }
+    }
+
+    private Result run(int readers, String prefix, String suffix) throws Exception {
+        List<Future<long[]>> clients = new ArrayList<>(readers);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < readers; i++) {
+                String path = prefix + "sender-" + (i % SENDERS) + suffix;
+                clients.add(executor.submit(() -> read(path)));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] firstByte = new long[readers];
+        long[] total = new long[readers];
+        for (int i = 0; i < readers; i++) {
+            long[] timings = clients.get(i).get();
+            firstByte[i] = timings[0];
+            total[i] = timings[1];
+        }
+        Arrays.sort(firstByte);
+        Arrays.sort(total);
+        return new Result(firstByte, total, elapsed);
+    }
+
+    private long[] read(String path) throws Exception {
+        HttpRequest request =
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header("Authorization", authorization)
+                        .header("Accept", "application/x-ndjson, application/json")
+                        .GET()
+                        .build();
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response =
+                httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        long firstByte = System.nanoTime() - start;
+        assertThat(response.statusCode()).isEqualTo(200);
+        try (BufferedReader reader =
+                new BufferedReader(
+                        new InputStreamReader(response.body(), StandardCharsets.UTF_8), 512)) {
+            char[] buffer = new char[512];
+            while (reader.read(buffer) != -1) {
+                Thread.sleep(READ_PAUSE);
+            }
+        }
+        return new long[] {firstByte, System.nanoTime() - start};
+    }
+
+    private void report(String endpoint, int readers, Result result) {
+        log.info(
+                "{} readers={} wall={}ms first-byte p50={}ms p99={}ms complete p50={}ms p99={}ms",
+                endpoint,
+                readers,
+                result.elapsedNanos() / 1_000_000,
+                millis(result.firstByte(), 0.50),
+                millis(result.firstByte(), 0.99),
+                millis(result.total(), 0.50),
+                millis(result.total(), 0.99));
+    }
+
+    private static long millis(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000;
+    }
+
+    private static Transaction transaction(int i) {
+        Transaction transaction = new Transaction();
+        transaction.setSender("sender-" + (i % SENDERS));
+        transaction.setReceiver("receiver-" + (i % 70));
+        transaction.setAmount(BigDecimal.valueOf(i + 1, 2));
+        transaction.setCurrency("USD");
+        transaction.setStatus(Transaction.TransactionStatus.PENDING);
+        return transaction;
+    }
+
+    private record Result(long[] firstByte, long[] total, long elapsedNanos) {}
+}
@@ -66,6 +66,107 @@ class AppConfigTest {
                     });
         }
 
+        @Test
+        void appliesPaymentsDefaults_whenSectionIsOmitted() {
+            happyRunner.run(
+                    ctx -> {
+                        AppConfig.Projection projection =
+                                ctx.getBean(AppConfig.class).payments().projection();
+                        assertThat(projection.batchSize()).isEqualTo(500);
+                        assertThat(projection.flushInterval()).isEqualTo(Duration.ofMillis(200));
+                        AppConfig.NearCache nearCache =
+                                ctx.getBean(AppConfig.class).payments().nearCache();
+                        assertThat(nearCache.enabled()).isTrue();
+                        assertThat(nearCache.maximumSize()).isEqualTo(10_000);
+                        assertThat(nearCache.ttl()).isEqualTo(Duration.ofSeconds(5));
+                        AppConfig.PartyCache partyCache =
+                                ctx.getBean(AppConfig.class).payments().partyCache();
+                        assertThat(partyCache.senderEnabled()).isTrue();
+                        assertThat(partyCache.receiverEnabled()).isTrue();
+                        assertThat(partyCache.headSize()).isEqualTo(100);
+                        AppConfig.Rebuild rebuild =
+                                ctx.getBean(AppConfig.class).payments().rebuild();
+                        assertThat(rebuild.chunkSize()).isEqualTo(100_000);
+                        assertThat(rebuild.parallelism()).isEqualTo(4);
+                        assertThat(rebuild.catchUpMargin()).isEqualTo(Duration.ofMinutes(5));
+                        AppConfig.Partitioning partitioning =
+                                ctx.getBean(AppConfig.class).payments().partitioning();
+                        assertThat(partitioning.enabled()).isTrue();
+                        assertThat(partitioning.premadeMonths()).isEqualTo(3);
+                        assertThat(partitioning.retentionMonths()).isZero();
+                        assertThat(partitioning.archiveSchema()).isEqualTo("transactions_archive");
+                    });
+        }
+
+        @Test
+        void appliesObservabilityDefaults_whenSectionIsOmitted() {
+            happyRunner.run(
+                    ctx -> {
+                        AppConfig.SlowQueries slowQueries =
+                                ctx.getBean(AppConfig.class).observability().slowQueries();
+                        assertThat(slowQueries.enabled()).isTrue();
+                        assertThat(slowQueries.threshold()).isEqualTo(Duration.ofMillis(100));
+                        assertThat(slowQueries.topSize()).isEqualTo(50);
+                        assertThat(slowQueries.sqlLogSampleRate()).isZero();
+                    });
+        }
+
+        @Test
+        void appliesTokenCacheDefaults_whenSectionIsOmitted() {
+            happyRunner.run(
+                    ctx -> {
+                        AppConfig.TokenCache tokenCache =
+                                ctx.getBean(AppConfig.class).auth().tokenCache();
+                        assertThat(tokenCache.enabled()).isTrue();
+                        assertThat(tokenCache.maximumSize()).isEqualTo(10_000);
+                    });
+        }
+
+        @Test
+        void appliesPasswordHashingDefaults_whenSectionIsOmitted() {
+            happyRunner.run(
+                    ctx -> {
+                        AppConfig.PasswordHashing passwordHashing =
+                                ctx.getBean(AppConfig.class).auth().passwordHashing();
+                        assertThat(passwordHashing.threads()).isZero();
+                        assertThat(passwordHashing.effectiveThreads()).isPositive();
+                        assertThat(passwordHashing.queueCapacity()).isEqualTo(64);
+                        assertThat(passwordHashing.retryAfter()).isEqualTo(Duration.ofSeconds(1));
+                        assertThat(passwordHashing.isCalibrated()).isTrue();
+                        assertThat(passwordHashing.targetHashTime())
+                                .isEqualTo(Duration.ofMillis(250));
+                        assertThat(passwordHashing.minimumStrength()).isEqualTo(10);
+                    });
+        }
+
+        @Test
+        void appliesJwksDefaults_whenSectionIsOmitted() {
+            happyRunner.run(
+                    ctx -> {
+                        AppConfig.Jwks jwks = ctx.getBean(AppConfig.class).auth().jwks();
+                        assertThat(jwks.ttl()).isEqualTo(Duration.ofMinutes(5));
+                        assertThat(jwks.refreshAhead()).isEqualTo(Duration.ofSeconds(30));
+                        assertThat(jwks.refreshTimeout()).isEqualTo(Duration.ofSeconds(15));
+                        assertThat(jwks.unknownKidRefreshInterval())
+                                .isEqualTo(Duration.ofSeconds(30));
+                        assertThat(jwks.maxStale()).isEqualTo(Duration.ofHours(1));
+                        assertThat(jwks.connectTimeout()).isEqualTo(Duration.ofSeconds(2));
+                        assertThat(jwks.readTimeout()).isEqualTo(Duration.ofSeconds(2));
+                    });
+        }
+
+        @Test
+        void appliesRefreshTokenDefaults_whenSectionIsOmitted() {
+            happyRunner.run(
+                    ctx -> {
+                        AppConfig.RefreshTokens refreshTokens =
+                                ctx.getBean(AppConfig.class).auth().refreshTokens();
+                        assertThat(refreshTokens.ttl()).isEqualTo(Duration.ofDays(14));
+                        assertThat(refreshTokens.purgeInterval()).isEqualTo(Duration.ofHours(1));
+                        assertThat(refreshTokens.redisFront()).isFalse();
+                    });
+        }
+
         @Test
         void contextStartsSuccessfully() {
             happyRunner.run(ctx -> assertThat(ctx).hasNotFailed());
@@ -89,60 +190,45 @@ class AppConfigTest {
         @Test
         void returnsFalse_whenIssuerUriIsBlank() {
             var auth =
-                    new AppConfig.Auth(
-                            "auth0",
-                            "",
-                            "some-audience",
-                            new AppConfig.LocalJwt(
-                                    "http://localhost:8080", "test-secret", Duration.ofHours(8)));
+                    TestAppConfig.with(
+                                    "app.auth.provider=auth0",
+                                    "app.auth.issuer-uri=",
+                                    "app.auth.audience=some-audience")
+                            .auth();
             assertThat(auth.isFullyConfigured()).isFalse();
         }
 
         @Test
         void returnsFalse_whenAudienceIsBlank() {
             var auth =
-                    new AppConfig.Auth(
-                            "auth0",
-                            "https://example.auth0.com/",
-                            "",
-                            new AppConfig.LocalJwt(
-                                    "http://localhost:8080", "test-secret", Duration.ofHours(8)));
+                    TestAppConfig.with(
+                                    "app.auth.provider=auth0",
+                                    "app.auth.issuer-uri=https://example.auth0.com/",
+                                    "app.auth.audience=")
+                            .auth();
             assertThat(auth.isFullyConfigured()).isFalse();
         }
 
         @Test
         void returnsFalse_whenBothBlank() {
-            var auth =
-                    new AppConfig.Auth(
-                            "auth0",
-                            "",
-                            "",
-                            new AppConfig.LocalJwt(
-                                    "http://localhost:8080", "test-secret", Duration.ofHours(8)));
+            var auth = TestAppConfig.with("app.auth.provider=auth0").auth();
             assertThat(auth.isFullyConfigured()).isFalse();
         }
 
         @Test
         void returnsTrue_whenBothNonBlank() {
             var auth =
-                    new AppConfig.Auth(
-                            "auth0",
-                            "https://example.auth0.com/",
-                            "my-audience",
-                            new AppConfig.LocalJwt(
-                                    "http://localhost:8080", "test-secret", Duration.ofHours(8)));
+                    TestAppConfig.with(
+                                    "app.auth.provider=auth0",
+                                    "app.auth.issuer-uri=https://example.auth0.com/",
+                                    "app.auth.audience=my-audience")
+                            .auth();
             assertThat(auth.isFullyConfigured()).isTrue();
         }
 
         @Test
         void returnsTrue_forLocalJwtWhenLocalSettingsPresent() {
-            var auth =
-                    new AppConfig.Auth(
-                            "local-jwt",
-                            "",
-                            "",
-                            new AppConfig.LocalJwt(
-                                    "http://localhost:8080", "test-secret", Duration.ofHours(8)));
+            var auth = TestAppConfig.defaults().auth();
             assertThat(auth.isFullyConfigured()).isTrue();
         }
     }
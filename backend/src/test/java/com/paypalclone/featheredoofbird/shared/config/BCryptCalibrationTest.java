@@ -0,0 +1,52 @@
+package com.paypalclone.featheredoofbird.shared.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class BCryptCalibrationTest {
+
+    @Test
+    void picksTheHighestStrengthWithinTheTarget() {
+        // 40 ms at 10 -> 80 ms at 11 -> 160 ms at 12 -> 320 ms at 13.
+        int strength =
+                BCryptCalibration.calibrate(
+                        Duration.ofMillis(250), 10, ignored -> Duration.ofMillis(40).toNanos());
+
+        assertThat(strength).isEqualTo(12);
+    }
+
+    @Test
+    void keepsTheMinimumOnSlowMachines() {
+        int strength =
+                BCryptCalibration.calibrate(
+                        Duration.ofMillis(250), 10, ignored -> Duration.ofMillis(900).toNanos());
+
+        assertThat(strength).isEqualTo(10);
+    }
+
+    @Test
+    void neverExceedsTheBCryptMaximum() {
+        int strength = BCryptCalibration.calibrate(Duration.ofHours(1), 4, ignored -> 1);
+
+        assertThat(strength).isEqualTo(31);
+    }
+
+    @Test
+    void usesAFixedStrengthWithoutMeasuring() {
+        AppConfig.PasswordHashing config =
+                new AppConfig.PasswordHashing(
+                        1, 16, Duration.ofSeconds(1), 12, Duration.ofMillis(250), 10);
+
+        assertThat(BCryptCalibration.strength(config)).isEqualTo(12);
+    }
+
+    @Test
+    void measuresThisMachine() {
+        AppConfig.PasswordHashing config =
+                new AppConfig.PasswordHashing(1, 16, Duration.ofSeconds(1), 0, Duration.ZERO, 4);
+
+        assertThat(BCryptCalibration.strength(config)).isEqualTo(4);
+    }
+}
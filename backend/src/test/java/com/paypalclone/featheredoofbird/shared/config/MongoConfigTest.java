@@ -0,0 +1,77 @@
+package com.paypalclone.featheredoofbird.shared.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mongodb.MongoClientSettings;
+import com.paypalclone.featheredoofbird.payments.infrastructure.persistence.TransactionDocument;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.TimeZone;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWrapper;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+class MongoConfigTest {
+
+    // 01:30 happens twice in New York on 2 November 2025, when the clocks fall back.
+    private static final LocalDateTime REPEATED_HOUR = LocalDateTime.of(2025, 11, 2, 1, 30);
+    private static final Instant REPEATED_HOUR_AS_UTC = Instant.parse("2025-11-02T01:30:00Z");
+
+    private TimeZone defaultZone;
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        converter = converter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    @Test
+    void writesLocalDateTimesAsTheirWallClockTimeInUtc() {
+        TransactionDocument transaction = new TransactionDocument();
+        transaction.setId(1L);
+        transaction.setUpdatedAt(REPEATED_HOUR);
+        Document document = new Document();
+
+        converter.write(transaction, document);
+
+        BsonDocument encoded =
+                BsonDocumentWrapper.asBsonDocument(
+                        document, MongoClientSettings.getDefaultCodecRegistry());
+        assertThat(encoded.getDateTime("updatedAt").getValue())
+                .isEqualTo(REPEATED_HOUR_AS_UTC.toEpochMilli());
+    }
+
+    @Test
+    void readsUtcDatesBackAsTheSameWallClockTime() {
+        Document document =
+                new Document("_id", 1L).append("updatedAt", Date.from(REPEATED_HOUR_AS_UTC));
+
+        TransactionDocument transaction = converter.read(TransactionDocument.class, document);
+
+        assertThat(transaction.getUpdatedAt()).isEqualTo(REPEATED_HOUR);
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        MappingMongoConverter converter =
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(new MongoConfig().mongoCustomConversions());
+        mappingContext.setSimpleTypeHolder(converter.getCustomConversions().getSimpleTypeHolder());
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
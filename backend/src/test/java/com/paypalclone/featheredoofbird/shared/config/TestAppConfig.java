@@ -0,0 +1,51 @@
+package com.paypalclone.featheredoofbird.shared.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+/**
+ * Builds {@link AppConfig} for unit tests the way Spring binds it, so every {@code @DefaultValue}
+ * applies and a test names only the properties it depends on:
+ *
+ * <pre>{@code
+ * AppConfig appConfig = TestAppConfig.with("app.payments.party-cache.head-size=10");
+ * }</pre>
+ *
+ * <p>The required {@code app.auth} values default to a {@code local-jwt} provider whose secret is
+ * long enough to sign tokens.
+ */
+public final class TestAppConfig {
+
+    private static final Map<String, String> REQUIRED =
+            Map.of(
+                    "app.auth.provider", "local-jwt",
+                    "app.auth.local-jwt.issuer", "http://localhost:8080",
+                    "app.auth.local-jwt.secret", "test-only-local-jwt-signing-secret-of-32-bytes",
+                    "app.auth.local-jwt.access-token-ttl", "8h");
+
+    private TestAppConfig() {}
+
+    public static AppConfig defaults() {
+        return with();
+    }
+
+    /**
+     * @param properties {@code key=value} pairs with full {@code app.*} keys, overriding the
+     *     defaults
+     */
+    public static AppConfig with(String... properties) {
+        Map<String, String> values = new HashMap<>(REQUIRED);
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value but got " + property);
+            }
+            values.put(property.substring(0, separator), property.substring(separator + 1));
+        }
+        return new Binder(new MapConfigurationPropertySource(values))
+                .bind("app", AppConfig.class)
+                .get();
+    }
+}
@@ -0,0 +1,92 @@
+package com.paypalclone.featheredoofbird.shared.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+class QueryShapesTest {
+
+    @Test
+    void sqlShapeMasksLiteralsAndCollapsesParameterLists() {
+        assertThat(
+                        QueryShapes.sql(
+                                """
+                                select t1_0.id from transactions t1_0
+                                where t1_0.sender = 'o''brien' and t1_0.amount > 10.50
+                                  and t1_0.id in (?, ?, ?) limit ?1
+                                """))
+                .isEqualTo(
+                        "select t1_0.id from transactions t1_0 where t1_0.sender = ? and"
+                                + " t1_0.amount > ? and t1_0.id in (?) limit ?");
+    }
+
+    @Test
+    void sqlShapeKeepsNamedParameters() {
+        assertThat(QueryShapes.sql("select t from Transaction t where t.sender = :sender"))
+                .isEqualTo("select t from Transaction t where t.sender = :sender");
+    }
+
+    @Test
+    void mongoShapeMasksFilterValuesButKeepsSortAndFieldPaths() {
+        BsonDocument find =
+                BsonDocument.parse(
+                        """
+                        {find: "transactions",
+                         filter: {sender: "alice", id: {$in: [1, 2, 3]}},
+                         sort: {createdAt: -1, id: -1}, limit: 51, $db: "paypal_clone"}
+                        """);
+        BsonDocument aggregate =
+                BsonDocument.parse(
+                        """
+                        {aggregate: "transactions",
+                         pipeline: [{$match: {currency: "EUR"}},
+                                    {$group: {_id: "$sender", total: {$sum: "$amount"}}}]}
+                        """);
+
+        assertThat(QueryShapes.mongo("find", find))
+                .isEqualTo(
+                        "find transactions {\"filter\": {\"sender\": \"?\", \"id\": {\"$in\":"
+                                + " [\"?\"]}}, \"sort\": {\"createdAt\": -1, \"id\": -1}}");
+        assertThat(QueryShapes.mongo("aggregate", aggregate))
+                .isEqualTo(
+                        "aggregate transactions {\"pipeline\": [{\"$match\": {\"currency\":"
+                                + " \"?\"}}, {\"$group\": {\"_id\": \"$sender\", \"total\":"
+                                + " {\"$sum\": \"$amount\"}}}]}");
+    }
+
+    @Test
+    void mongoCommandCopiesOnlyTheFirstWrittenDocument() {
+        BsonDocument update =
+                BsonDocument.parse(
+                        """
+                        {update: "transactions",
+                         updates: [{q: {_id: 1}, u: {status: "COMPLETED"}, upsert: true},
+                                   {q: {_id: 2}, u: {status: "FAILED"}, upsert: true}]}
+                        """);
+
+        QueryShapes.MongoCommand command = QueryShapes.mongoCommand("update", update);
+        update.getArray("updates").getFirst().asDocument().put("q", new BsonDocument());
+
+        assertThat(command.query().getArray("updates")).hasSize(1);
+        assertThat(command.shape())
+                .isEqualTo(
+                        "update transactions {\"updates\": [{\"q\": {\"_id\": \"?\"}, \"u\":"
+                                + " {\"status\": \"?\"}, \"upsert\": \"?\"}]}");
+    }
+
+    @Test
+    void mongoShapeOfGetMoreNamesTheCollection() {
+        BsonDocument getMore =
+                BsonDocument.parse(
+                        "{getMore: {$numberLong: \"42\"}, collection: \"transactions\"}");
+
+        assertThat(QueryShapes.mongo("getMore", getMore)).isEqualTo("getMore transactions");
+    }
+
+    @Test
+    void longShapesAreTruncated() {
+        assertThat(QueryShapes.sql("select " + "x, ".repeat(1_000) + "y from t"))
+                .hasSize(QueryShapes.MAX_LENGTH);
+    }
+}
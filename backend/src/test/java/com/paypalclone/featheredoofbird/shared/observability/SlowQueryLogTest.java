@@ -0,0 +1,78 @@
+package com.paypalclone.featheredoofbird.shared.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.paypalclone.featheredoofbird.shared.config.TestAppConfig;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class SlowQueryLogTest {
+
+    @Test
+    void aggregatesExecutionsAboveThresholdPerStoreAndShape() {
+        SlowQueryLog slowQueryLog = slowQueryLog(true, 10, 10);
+
+        slowQueryLog.record("postgres", "select a", Duration.ofMillis(20));
+        slowQueryLog.record("postgres", "select a", Duration.ofMillis(40));
+        slowQueryLog.record("postgres", "select a", Duration.ofMillis(5));
+        slowQueryLog.record("mongo", "select a", Duration.ofMillis(10));
+
+        assertThat(slowQueryLog.top())
+                .satisfiesExactly(
+                        postgres -> {
+                            assertThat(postgres.store()).isEqualTo("postgres");
+                            assertThat(postgres.count()).isEqualTo(2);
+                            assertThat(postgres.maxMillis()).isEqualTo(40.0);
+                            assertThat(postgres.meanMillis()).isEqualTo(30.0);
+                            assertThat(postgres.lastSeen()).isNotNull();
+                        },
+                        mongo -> assertThat(mongo.store()).isEqualTo("mongo"));
+    }
+
+    @Test
+    void reportsOnlyTheSlowestTopSizeShapes() {
+        SlowQueryLog slowQueryLog = slowQueryLog(true, 2, 10);
+
+        for (int millis = 10; millis <= 50; millis += 10) {
+            slowQueryLog.record("postgres", "q" + millis, Duration.ofMillis(millis));
+        }
+
+        assertThat(slowQueryLog.top())
+                .extracting(SlowQueryLog.SlowQuery::shape)
+                .containsExactly("q50", "q40");
+    }
+
+    @Test
+    void evictsTheFastestShapeWhenFull() {
+        SlowQueryLog slowQueryLog = slowQueryLog(true, 10, 2);
+
+        slowQueryLog.record("postgres", "fast", Duration.ofMillis(10));
+        slowQueryLog.record("postgres", "slow", Duration.ofMillis(90));
+        slowQueryLog.record("postgres", "new", Duration.ofMillis(30));
+
+        assertThat(slowQueryLog.top())
+                .extracting(SlowQueryLog.SlowQuery::shape)
+                .containsExactly("slow", "new");
+    }
+
+    @Test
+    void recordsNothingWhenDisabledAndForgetsOnClear() {
+        SlowQueryLog disabled = slowQueryLog(false, 10, 10);
+        disabled.record("postgres", "select a", Duration.ofSeconds(1));
+        assertThat(disabled.top()).isEmpty();
+
+        SlowQueryLog enabled = slowQueryLog(true, 10, 10);
+        enabled.record("postgres", "select a", Duration.ofSeconds(1));
+        enabled.clear();
+        assertThat(enabled.top()).isEmpty();
+    }
+
+    static SlowQueryLog slowQueryLog(boolean enabled, int topSize, int maxShapes) {
+        return new SlowQueryLog(
+                TestAppConfig.with(
+                        "app.observability.slow-queries.enabled=" + enabled,
+                        "app.observability.slow-queries.threshold=10ms",
+                        "app.observability.slow-queries.top-size=" + topSize,
+                        "app.observability.slow-queries.max-shapes=" + maxShapes));
+    }
+}